@@ -11,14 +11,9 @@ repositories {
     mavenCentral()
 }
 
-dependencies {
-    api("org.slf4j:slf4j-api:2.0.13")
-    api("org.jetbrains:annotations:24.1.0")
-
-    implementation("org.jgrapht:jgrapht-core:1.5.2")
-
-    testImplementation("org.junit.jupiter:junit-jupiter-api:5.10.2")
-    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.2")
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
 }
 
 java {
@@ -26,10 +21,52 @@ java {
         languageVersion.set(JavaLanguageVersion.of(21))
     }
 
+    // JGraphT is only needed for GraphModuleSorter, so it is published as an optional dependency
+    registerFeature("graph") {
+        usingSourceSet(sourceSets.main.get())
+    }
+    // Likewise, Micrometer is only needed for MicrometerLifecycleListener
+    registerFeature("micrometer") {
+        usingSourceSet(sourceSets.main.get())
+    }
+    // And the CRaC API is only needed for ModuleCheckpointResource
+    registerFeature("crac") {
+        usingSourceSet(sourceSets.main.get())
+    }
+
     withSourcesJar()
     withJavadocJar()
 }
 
+configurations {
+    named(jmh.implementationConfigurationName) {
+        extendsFrom(configurations.implementation.get(), configurations["graphImplementation"])
+    }
+    named(jmh.runtimeOnlyConfigurationName) {
+        extendsFrom(configurations.runtimeOnly.get())
+    }
+    testImplementation {
+        extendsFrom(configurations["graphImplementation"], configurations["micrometerImplementation"], configurations["cracImplementation"])
+    }
+}
+
+dependencies {
+    api("org.slf4j:slf4j-api:2.0.13")
+    api("org.jetbrains:annotations:24.1.0")
+
+    "graphImplementation"("org.jgrapht:jgrapht-core:1.5.2")
+    "micrometerImplementation"("io.micrometer:micrometer-core:1.12.5")
+    "cracImplementation"("org.crac:crac:1.4.0")
+
+    // The JAR discovery tests generate their module indexes with the processor
+    testImplementation(project(":module-system-processor"))
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.10.2")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.2")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
 tasks {
     test {
         useJUnitPlatform()
@@ -37,6 +74,24 @@ tasks {
     jacocoTestReport {
         dependsOn(test)
     }
+    register<JavaExec>("jmh") {
+        description = "Runs the JMH benchmarks. Pass JMH arguments with -PjmhArgs=\"...\"."
+        group = "verification"
+
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+
+        // Results are always written as JSON, so they can be published and compared between releases
+        val results = layout.buildDirectory.file("results/jmh/results.json")
+        outputs.file(results)
+        outputs.upToDateWhen { false }
+        doFirst { results.get().asFile.parentFile.mkdirs() }
+
+        val jmhArgs = providers.gradleProperty("jmhArgs").map { it.split(" ").filter(String::isNotBlank) }
+        argumentProviders.add(CommandLineArgumentProvider {
+            listOf("-rf", "json", "-rff", results.get().asFile.absolutePath) + jmhArgs.getOrElse(emptyList())
+        })
+    }
 }
 
 publishing {
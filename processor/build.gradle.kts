@@ -0,0 +1,66 @@
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+group = "dev.emortal.api"
+version = "1.1.1"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    testImplementation(rootProject)
+    testImplementation("org.junit.jupiter:junit-jupiter-api:5.10.2")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.10.2")
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    }
+
+    withSourcesJar()
+    withJavadocJar()
+}
+
+tasks {
+    test {
+        useJUnitPlatform()
+    }
+}
+
+publishing {
+    repositories {
+        maven {
+            name = "development"
+            url = uri("https://repo.emortal.dev/snapshots")
+            credentials {
+                username = System.getenv("MAVEN_USERNAME")
+                password = System.getenv("MAVEN_SECRET")
+            }
+        }
+        maven {
+            name = "release"
+            url = uri("https://repo.emortal.dev/releases")
+            credentials {
+                username = System.getenv("MAVEN_USERNAME")
+                password = System.getenv("MAVEN_SECRET")
+            }
+        }
+    }
+
+    publications {
+        create<MavenPublication>("maven") {
+            groupId = "dev.emortal.api"
+            artifactId = "module-system-processor"
+
+            val commitHash = System.getenv("COMMIT_HASH_SHORT")
+            val releaseVersion = System.getenv("RELEASE_VERSION")
+            version = commitHash ?: releaseVersion ?: "local"
+
+            from(components["java"])
+        }
+    }
+}
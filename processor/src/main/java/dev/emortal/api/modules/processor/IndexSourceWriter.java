@@ -0,0 +1,96 @@
+package dev.emortal.api.modules.processor;
+
+import java.util.List;
+
+/**
+ * Writes the source and text forms of a generated module index.
+ */
+final class IndexSourceWriter {
+
+    static String write(String packageName, String className, List<IndexedModule> sorted) {
+        StringBuilder builder = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+
+        builder.append("import dev.emortal.api.modules.annotation.Condition;\n");
+        builder.append("import dev.emortal.api.modules.annotation.ModuleData;\n");
+        builder.append("import dev.emortal.api.modules.annotation.ModuleDataBuilder;\n");
+        builder.append("import dev.emortal.api.modules.extension.ModuleIndex;\n");
+        builder.append("import java.util.List;\n\n");
+        builder.append("@javax.annotation.processing.Generated(\"").append(ModuleIndexProcessor.class.getName()).append("\")\n");
+        builder.append("public final class ").append(className).append(" implements ModuleIndex {\n\n");
+        builder.append("    private static final List<Entry> ENTRIES = List.of(");
+
+        for (int i = 0; i < sorted.size(); i++) {
+            IndexedModule module = sorted.get(i);
+            builder.append(i == 0 ? "\n" : ",\n");
+            builder.append("            new Entry(").append(module.className()).append(".class, ModuleDataBuilder.builder(")
+                    .append(literal(module.name())).append(")");
+            for (IndexedModule.IndexedDependency dependency : module.dependencies()) {
+                builder.append(".dependency(").append(literal(dependency.name())).append(", ").append(dependency.required()).append(")");
+            }
+            if (module.lazy()) builder.append(".lazy(true)");
+            for (IndexedModule.IndexedCondition condition : module.conditions()) {
+                builder.append(".condition(Condition.Type.").append(condition.type()).append(", ").append(literal(condition.name()))
+                        .append(", ").append(literal(condition.value())).append(")");
+            }
+            if (!module.priority().equals("NORMAL")) builder.append(".priority(ModuleData.Priority.").append(module.priority()).append(")");
+            if (!module.workload().equals("IO")) builder.append(".workload(ModuleData.Workload.").append(module.workload()).append(")");
+            if (!module.readinessGroup().isEmpty()) builder.append(".readinessGroup(").append(literal(module.readinessGroup())).append(")");
+            builder.append(".build())");
+        }
+
+        builder.append("\n    );\n\n");
+        builder.append("    @Override\n");
+        builder.append("    public List<Entry> entries() {\n");
+        builder.append("        return ENTRIES;\n");
+        builder.append("    }\n");
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    /**
+     * Writes the index as text, with one module per line in dependency order. Each line has tab separated fields, with
+     * the binary class name and module name followed by {@code lazy=true} if the module is lazy, a
+     * {@code requires=<name>} or {@code optional=<name>} field for each dependency, a
+     * {@code when=<type>:<name>} or {@code when=<type>:<name>=<value>} field for each condition, and
+     * {@code priority=<priority>}, {@code workload=<workload>} and {@code group=<readiness group>} fields if they are
+     * not the defaults.
+     */
+    static String writeText(List<IndexedModule> sorted) {
+        StringBuilder builder = new StringBuilder("# Generated by ").append(ModuleIndexProcessor.class.getName()).append('\n');
+        for (IndexedModule module : sorted) {
+            builder.append(module.binaryName()).append('\t').append(module.name());
+            if (module.lazy()) builder.append("\tlazy=true");
+            for (IndexedModule.IndexedDependency dependency : module.dependencies()) {
+                builder.append(dependency.required() ? "\trequires=" : "\toptional=").append(dependency.name());
+            }
+            for (IndexedModule.IndexedCondition condition : module.conditions()) {
+                builder.append("\twhen=").append(condition.type()).append(':').append(condition.name());
+                if (!condition.value().isEmpty()) builder.append('=').append(condition.value());
+            }
+            if (!module.priority().equals("NORMAL")) builder.append("\tpriority=").append(module.priority());
+            if (!module.workload().equals("IO")) builder.append("\tworkload=").append(module.workload());
+            if (!module.readinessGroup().isEmpty()) builder.append("\tgroup=").append(module.readinessGroup());
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char character : value.toCharArray()) {
+            switch (character) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                default -> builder.append(character);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private IndexSourceWriter() {
+    }
+}
@@ -0,0 +1,27 @@
+package dev.emortal.api.modules.processor;
+
+import javax.lang.model.element.TypeElement;
+import java.util.List;
+
+/**
+ * A module read from a {@code ModuleData} annotation during compilation.
+ *
+ * @param priority the name of the priority constant
+ * @param workload the name of the workload constant
+ */
+record IndexedModule(TypeElement element, String binaryName, String name, List<IndexedDependency> dependencies, boolean lazy,
+                     List<IndexedCondition> conditions, String priority, String workload, String readinessGroup) {
+
+    String className() {
+        return this.element.getQualifiedName().toString();
+    }
+
+    record IndexedDependency(String name, boolean required) {
+    }
+
+    /**
+     * @param type the name of the condition type constant
+     */
+    record IndexedCondition(String type, String name, String value) {
+    }
+}
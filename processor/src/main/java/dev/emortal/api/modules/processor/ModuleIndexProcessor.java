@@ -0,0 +1,253 @@
+package dev.emortal.api.modules.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a module index from every class annotated with {@code ModuleData}, so that modules can be resolved and
+ * sorted at runtime without reflection.
+ *
+ * <p>Compilation fails if the modules contain a dependency cycle, a duplicate name, or a required dependency on a
+ * module that is not part of the compilation. Modules that are provided by other JARs or by the host can be required
+ * by listing their names, separated by commas, in the {@value #EXTERNAL_OPTION} option, or {@code *} to allow any
+ * name. The index is generated in the package of the first module by name, unless the {@value #PACKAGE_OPTION} option
+ * is given.</p>
+ *
+ * <p>The index is also written as text to {@value #TEXT_INDEX}, which can be read without loading any classes, for
+ * discovering modules in JARs.</p>
+ */
+public final class ModuleIndexProcessor extends AbstractProcessor {
+
+    static final String MODULE_DATA = "dev.emortal.api.modules.annotation.ModuleData";
+    static final String MODULE_INDEX = "dev.emortal.api.modules.extension.ModuleIndex";
+    static final String INDEX_NAME = "GeneratedModuleIndex";
+    static final String PACKAGE_OPTION = "modules.indexPackage";
+    static final String EXTERNAL_OPTION = "modules.externalModules";
+    static final String TEXT_INDEX = "META-INF/modules.index";
+
+    private Messager messager;
+    private Filer filer;
+    private boolean generated;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(MODULE_DATA);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(PACKAGE_OPTION, EXTERNAL_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (annotations.isEmpty()) return false;
+
+        TypeElement annotation = annotations.iterator().next();
+        List<IndexedModule> modules = new ArrayList<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            modules.add(this.readModule((TypeElement) element));
+        }
+        if (modules.isEmpty()) return false;
+
+        if (this.generated) {
+            // The index is written as soon as modules are found, so it cannot include modules generated by other processors
+            for (IndexedModule module : modules) {
+                this.messager.printMessage(Diagnostic.Kind.WARNING, "Module " + module.name()
+                        + " was generated in a later round and will not be included in the module index", module.element());
+            }
+            return false;
+        }
+        this.generated = true;
+
+        modules.sort(Comparator.comparing(IndexedModule::name));
+        String indexPackage = this.processingEnv.getOptions().get(PACKAGE_OPTION);
+        if (indexPackage == null) indexPackage = this.packageOf(modules.getFirst().element());
+
+        if (!this.validate(modules, indexPackage)) return false;
+
+        ModuleOrder order = ModuleOrder.compute(modules);
+        if (!order.cycles().isEmpty()) {
+            for (List<String> cycle : order.cycles()) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Module dependency cycle: " + String.join(" -> ", cycle));
+            }
+            return false;
+        }
+
+        this.writeIndex(indexPackage, order.sorted());
+        return false;
+    }
+
+    private IndexedModule readModule(TypeElement element) {
+        String name = null;
+        List<IndexedModule.IndexedDependency> dependencies = new ArrayList<>();
+        boolean lazy = false;
+        List<IndexedModule.IndexedCondition> conditions = new ArrayList<>();
+        String priority = "NORMAL";
+        String workload = "IO";
+        String readinessGroup = "";
+
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(MODULE_DATA)) continue;
+
+            Map<String, Object> values = this.readValues(mirror);
+            name = (String) values.get("name");
+            lazy = (Boolean) values.get("lazy");
+            priority = ((VariableElement) values.get("priority")).getSimpleName().toString();
+            workload = ((VariableElement) values.get("workload")).getSimpleName().toString();
+            readinessGroup = (String) values.get("readinessGroup");
+
+            @SuppressWarnings("unchecked")
+            List<? extends AnnotationValue> dependencyValues = (List<? extends AnnotationValue>) values.get("dependencies");
+            for (AnnotationValue dependencyValue : dependencyValues) {
+                Map<String, Object> dependency = this.readValues((AnnotationMirror) dependencyValue.getValue());
+                dependencies.add(new IndexedModule.IndexedDependency((String) dependency.get("name"), (Boolean) dependency.get("required")));
+            }
+
+            @SuppressWarnings("unchecked")
+            List<? extends AnnotationValue> conditionValues = (List<? extends AnnotationValue>) values.get("conditions");
+            for (AnnotationValue conditionValue : conditionValues) {
+                Map<String, Object> condition = this.readValues((AnnotationMirror) conditionValue.getValue());
+                String type = ((VariableElement) condition.get("type")).getSimpleName().toString();
+                conditions.add(new IndexedModule.IndexedCondition(type, (String) condition.get("name"), (String) condition.get("value")));
+            }
+        }
+
+        String binaryName = this.processingEnv.getElementUtils().getBinaryName(element).toString();
+        return new IndexedModule(element, binaryName, name, dependencies, lazy, conditions, priority, workload, readinessGroup);
+    }
+
+    private Map<String, Object> readValues(AnnotationMirror mirror) {
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : this.processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), entry.getValue().getValue());
+        }
+        return values;
+    }
+
+    private boolean validate(List<IndexedModule> modules, String indexPackage) {
+        boolean valid = true;
+        Map<String, IndexedModule> byName = new HashMap<>();
+
+        for (IndexedModule module : modules) {
+            IndexedModule existing = byName.putIfAbsent(module.name(), module);
+            if (existing != null) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Module name " + module.name() + " is already used by "
+                        + existing.className(), module.element());
+                valid = false;
+            }
+
+            if (!this.isAccessible(module.element(), indexPackage)) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Module class " + module.className()
+                        + " must be accessible from the module index in package " + indexPackage, module.element());
+                valid = false;
+            }
+        }
+
+        Set<String> external = this.externalModules();
+        for (IndexedModule module : modules) {
+            for (IndexedModule.IndexedDependency dependency : module.dependencies()) {
+                if (!dependency.required() || byName.containsKey(dependency.name())) continue;
+                if (external.contains("*") || external.contains(dependency.name())) continue;
+
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Module " + module.name()
+                        + " requires unknown module " + dependency.name(), module.element());
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    private Set<String> externalModules() {
+        String option = this.processingEnv.getOptions().get(EXTERNAL_OPTION);
+        if (option == null) return Set.of();
+
+        Set<String> names = new HashSet<>();
+        for (String name : option.split(",")) {
+            if (!name.isBlank()) names.add(name.strip());
+        }
+        return names;
+    }
+
+    private boolean isAccessible(TypeElement element, String indexPackage) {
+        boolean samePackage = this.packageOf(element).equals(indexPackage);
+
+        Element current = element;
+        while (current instanceof TypeElement) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+            if (!modifiers.contains(Modifier.PUBLIC) && !samePackage) return false;
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private String packageOf(Element element) {
+        PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(element);
+        return packageElement.getQualifiedName().toString();
+    }
+
+    private void writeIndex(String indexPackage, List<IndexedModule> sorted) {
+        String qualifiedName = indexPackage.isEmpty() ? INDEX_NAME : indexPackage + "." + INDEX_NAME;
+        Element[] originatingElements = sorted.stream().map(IndexedModule::element).toArray(Element[]::new);
+
+        try {
+            JavaFileObject source = this.filer.createSourceFile(qualifiedName, originatingElements);
+            try (Writer writer = source.openWriter()) {
+                writer.write(IndexSourceWriter.write(indexPackage, INDEX_NAME, sorted));
+            }
+
+            FileObject service = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + MODULE_INDEX,
+                    originatingElements);
+            try (Writer writer = service.openWriter()) {
+                writer.write(qualifiedName + "\n");
+            }
+
+            FileObject textIndex = this.filer.createResource(StandardLocation.CLASS_OUTPUT, "", TEXT_INDEX, originatingElements);
+            try (Writer writer = textIndex.openWriter()) {
+                writer.write(IndexSourceWriter.writeText(sorted));
+            }
+        } catch (IOException exception) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write module index: " + exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package dev.emortal.api.modules.processor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Computes the order modules should be loaded in, and any dependency cycles that prevent ordering them.
+ */
+final class ModuleOrder {
+    // The priority constants, from most to least urgent
+    private static final List<String> PRIORITIES = List.of("CRITICAL", "NORMAL", "BACKGROUND");
+
+    private final List<IndexedModule> sorted;
+    private final List<List<String>> cycles;
+
+    private ModuleOrder(List<IndexedModule> sorted, List<List<String>> cycles) {
+        this.sorted = sorted;
+        this.cycles = cycles;
+    }
+
+    /**
+     * Orders the modules so that every module comes after all of its dependencies, breaking ties by priority and then
+     * by name so that the order is stable between builds.
+     */
+    static ModuleOrder compute(Collection<IndexedModule> modules) {
+        Map<String, IndexedModule> byName = new HashMap<>();
+        for (IndexedModule module : modules) {
+            byName.put(module.name(), module);
+        }
+
+        Map<String, List<String>> dependents = new HashMap<>();
+        Map<String, Integer> remainingDependencies = new HashMap<>();
+        for (IndexedModule module : modules) {
+            int count = 0;
+            for (IndexedModule.IndexedDependency dependency : module.dependencies()) {
+                if (!byName.containsKey(dependency.name())) continue;
+
+                dependents.computeIfAbsent(dependency.name(), name -> new ArrayList<>()).add(module.name());
+                count++;
+            }
+            remainingDependencies.put(module.name(), count);
+        }
+
+        Map<String, Integer> priorities = inheritPriorities(byName);
+        PriorityQueue<String> ready = new PriorityQueue<>(Comparator.comparing((String name) -> priorities.get(name))
+                .thenComparing(Comparator.naturalOrder()));
+        remainingDependencies.forEach((name, count) -> {
+            if (count == 0) ready.add(name);
+        });
+
+        List<IndexedModule> sorted = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            String name = ready.poll();
+            sorted.add(byName.get(name));
+
+            for (String dependent : dependents.getOrDefault(name, List.of())) {
+                int remaining = remainingDependencies.merge(dependent, -1, Integer::sum);
+                if (remaining == 0) ready.add(dependent);
+            }
+        }
+
+        List<List<String>> cycles = new ArrayList<>();
+        if (sorted.size() != modules.size()) {
+            Set<String> unsorted = new HashSet<>(byName.keySet());
+            for (IndexedModule module : sorted) {
+                unsorted.remove(module.name());
+            }
+            findCycles(byName, unsorted, cycles);
+        }
+
+        return new ModuleOrder(sorted, cycles);
+    }
+
+    /**
+     * Gives every module the most urgent priority of itself and its dependents, as the index of the priority, so that
+     * a less urgent dependency does not hold up a more urgent module.
+     */
+    private static Map<String, Integer> inheritPriorities(Map<String, IndexedModule> byName) {
+        Map<String, Integer> priorities = new HashMap<>();
+        byName.forEach((name, module) -> priorities.put(name, PRIORITIES.indexOf(module.priority())));
+
+        // Cycles are reported separately, so this pushes priorities until nothing changes rather than relying on order
+        ArrayDeque<String> changed = new ArrayDeque<>(byName.keySet());
+        while (!changed.isEmpty()) {
+            String name = changed.poll();
+            for (IndexedModule.IndexedDependency dependency : byName.get(name).dependencies()) {
+                Integer current = priorities.get(dependency.name());
+                if (current == null || current <= priorities.get(name)) continue;
+
+                priorities.put(dependency.name(), priorities.get(name));
+                changed.add(dependency.name());
+            }
+        }
+        return priorities;
+    }
+
+    /**
+     * Splits the unsorted modules into strongly connected components, as every cycle lies within one, and then reports
+     * the shortest cycle through each module that is not already in a reported cycle, so that cycles sharing a module
+     * are all reported.
+     */
+    private static void findCycles(Map<String, IndexedModule> byName, Set<String> unsorted, List<List<String>> cycles) {
+        List<String> names = unsorted.stream().sorted().toList();
+        Map<String, Integer> components = new HashMap<>();
+        new ComponentFinder(byName, unsorted, components).visitAll(names);
+
+        Set<String> covered = new HashSet<>();
+        for (String start : names) {
+            if (covered.contains(start)) continue;
+
+            List<String> cycle = shortestCycle(start, byName, components);
+            if (cycle == null) continue;
+            covered.addAll(cycle);
+            cycles.add(cycle);
+        }
+    }
+
+    private static List<String> shortestCycle(String start, Map<String, IndexedModule> byName, Map<String, Integer> components) {
+        Map<String, String> parents = new HashMap<>();
+        ArrayDeque<String> queue = new ArrayDeque<>(List.of(start));
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            for (String dependency : dependenciesIn(byName.get(name), components.keySet())) {
+                if (!components.get(dependency).equals(components.get(start))) continue;
+
+                if (dependency.equals(start)) {
+                    List<String> cycle = new ArrayList<>();
+                    cycle.add(start);
+                    for (String current = name; !current.equals(start); current = parents.get(current)) {
+                        cycle.add(1, current);
+                    }
+                    cycle.add(start);
+                    return cycle;
+                }
+                if (parents.putIfAbsent(dependency, name) == null) queue.add(dependency);
+            }
+        }
+        return null;
+    }
+
+    private static List<String> dependenciesIn(IndexedModule module, Set<String> names) {
+        return module.dependencies().stream()
+                .map(IndexedModule.IndexedDependency::name)
+                .filter(names::contains)
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    /**
+     * Tarjan's algorithm over the unsorted modules, giving every module the index of its strongly connected component.
+     */
+    private static final class ComponentFinder {
+        private final Map<String, IndexedModule> byName;
+        private final Set<String> unsorted;
+        private final Map<String, Integer> components;
+        private final Map<String, Integer> order = new HashMap<>();
+        private final Map<String, Integer> low = new HashMap<>();
+        private final ArrayDeque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new HashSet<>();
+        private int componentCount;
+
+        ComponentFinder(Map<String, IndexedModule> byName, Set<String> unsorted, Map<String, Integer> components) {
+            this.byName = byName;
+            this.unsorted = unsorted;
+            this.components = components;
+        }
+
+        void visitAll(List<String> names) {
+            for (String name : names) {
+                if (!this.order.containsKey(name)) this.visit(name);
+            }
+        }
+
+        private void visit(String name) {
+            this.order.put(name, this.order.size());
+            this.low.put(name, this.order.get(name));
+            this.stack.push(name);
+            this.onStack.add(name);
+
+            for (String dependency : dependenciesIn(this.byName.get(name), this.unsorted)) {
+                if (!this.order.containsKey(dependency)) {
+                    this.visit(dependency);
+                    this.low.put(name, Math.min(this.low.get(name), this.low.get(dependency)));
+                } else if (this.onStack.contains(dependency)) {
+                    this.low.put(name, Math.min(this.low.get(name), this.order.get(dependency)));
+                }
+            }
+
+            if (this.low.get(name).equals(this.order.get(name))) {
+                String member;
+                do {
+                    member = this.stack.pop();
+                    this.onStack.remove(member);
+                    this.components.put(member, this.componentCount);
+                } while (!member.equals(name));
+                this.componentCount++;
+            }
+        }
+    }
+
+    List<IndexedModule> sorted() {
+        return this.sorted;
+    }
+
+    /**
+     * Every distinct cycle found, as the path of module names with the first module repeated at the end.
+     */
+    List<List<String>> cycles() {
+        return this.cycles;
+    }
+}
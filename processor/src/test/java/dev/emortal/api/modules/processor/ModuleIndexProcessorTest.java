@@ -0,0 +1,212 @@
+package dev.emortal.api.modules.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleIndexProcessorTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    void testIndexGeneratedInDependencyOrder() throws IOException {
+        Result result = this.compile(
+                module("Second", "second", "@Dependency(name = \"first\")"),
+                module("First", "first", ""),
+                module("Third", "third", "@Dependency(name = \"second\"), @Dependency(name = \"missing\", required = false)"));
+
+        assertTrue(result.success(), result.errors().toString());
+
+        String index = Files.readString(this.output.resolve("test/GeneratedModuleIndex.java"));
+        assertTrue(index.indexOf("test.First.class") < index.indexOf("test.Second.class"));
+        assertTrue(index.indexOf("test.Second.class") < index.indexOf("test.Third.class"));
+
+        String service = Files.readString(this.output.resolve("META-INF/services/" + ModuleIndexProcessor.MODULE_INDEX));
+        assertEquals("test.GeneratedModuleIndex", service.trim());
+
+        List<String> text = Files.readAllLines(this.output.resolve(ModuleIndexProcessor.TEXT_INDEX));
+        assertEquals(List.of("test.First\tfirst", "test.Second\tsecond\trequires=first",
+                "test.Third\tthird\trequires=second\toptional=missing"), text.subList(1, text.size()));
+    }
+
+    @Test
+    void testConditionsIndexed() throws IOException {
+        Result result = this.compile(module("First", "first", "",
+                "@Condition(type = Condition.Type.PROFILE, name = \"lobby\"), "
+                        + "@Condition(type = Condition.Type.SYSTEM_PROPERTY, name = \"region\", value = \"eu\")"));
+
+        assertTrue(result.success(), result.errors().toString());
+
+        String index = Files.readString(this.output.resolve("test/GeneratedModuleIndex.java"));
+        assertTrue(index.contains(".condition(Condition.Type.PROFILE, \"lobby\", \"\")"), index);
+        assertTrue(index.contains(".condition(Condition.Type.SYSTEM_PROPERTY, \"region\", \"eu\")"), index);
+
+        List<String> text = Files.readAllLines(this.output.resolve(ModuleIndexProcessor.TEXT_INDEX));
+        assertEquals(List.of("test.First\tfirst\twhen=PROFILE:lobby\twhen=SYSTEM_PROPERTY:region=eu"),
+                text.subList(1, text.size()));
+    }
+
+    @Test
+    void testPriorityAndWorkloadIndexed() throws IOException {
+        JavaFileObject background = module("Background", "background", "", "",
+                "priority = ModuleData.Priority.BACKGROUND, workload = ModuleData.Workload.CPU");
+        JavaFileObject critical = module("Critical", "critical", "", "", "priority = ModuleData.Priority.CRITICAL");
+        Result result = this.compile(background, critical, module("Normal", "normal", ""));
+
+        assertTrue(result.success(), result.errors().toString());
+
+        String index = Files.readString(this.output.resolve("test/GeneratedModuleIndex.java"));
+        assertTrue(index.contains(".priority(ModuleData.Priority.BACKGROUND).workload(ModuleData.Workload.CPU)"), index);
+
+        List<String> text = Files.readAllLines(this.output.resolve(ModuleIndexProcessor.TEXT_INDEX));
+        assertEquals(List.of("test.Critical\tcritical\tpriority=CRITICAL", "test.Normal\tnormal",
+                "test.Background\tbackground\tpriority=BACKGROUND\tworkload=CPU"), text.subList(1, text.size()));
+    }
+
+    @Test
+    void testReadinessGroupIndexed() throws IOException {
+        Result result = this.compile(module("First", "first", "", "", "readinessGroup = \"gameplay\""));
+
+        assertTrue(result.success(), result.errors().toString());
+
+        String index = Files.readString(this.output.resolve("test/GeneratedModuleIndex.java"));
+        assertTrue(index.contains(".readinessGroup(\"gameplay\")"), index);
+
+        List<String> text = Files.readAllLines(this.output.resolve(ModuleIndexProcessor.TEXT_INDEX));
+        assertEquals(List.of("test.First\tfirst\tgroup=gameplay"), text.subList(1, text.size()));
+    }
+
+    @Test
+    void testCompilationFailsOnCycle() throws IOException {
+        Result result = this.compile(
+                module("First", "first", "@Dependency(name = \"second\")"),
+                module("Second", "second", "@Dependency(name = \"first\", required = false)"));
+
+        assertFalse(result.success());
+        assertEquals(List.of("Module dependency cycle: first -> second -> first"), result.errors());
+    }
+
+    @Test
+    void testCompilationReportsCyclesSharingModule() throws IOException {
+        Result result = this.compile(
+                module("First", "first", "@Dependency(name = \"middle\")"),
+                module("Middle", "middle", "@Dependency(name = \"first\"), @Dependency(name = \"last\")"),
+                module("Last", "last", "@Dependency(name = \"middle\")"));
+
+        assertFalse(result.success());
+        assertEquals(List.of("Module dependency cycle: first -> middle -> first",
+                "Module dependency cycle: last -> middle -> last"), result.errors());
+    }
+
+    @Test
+    void testCompilationFailsOnUnknownRequiredDependency() throws IOException {
+        Result result = this.compile(module("First", "first", "@Dependency(name = \"missing\")"));
+
+        assertFalse(result.success());
+        assertEquals(List.of("Module first requires unknown module missing"), result.errors());
+    }
+
+    @Test
+    void testExternalRequiredDependencyIndexed() throws IOException {
+        Result result = this.compile(List.of("-A" + ModuleIndexProcessor.EXTERNAL_OPTION + "=base, other"),
+                module("First", "first", "@Dependency(name = \"base\")"));
+
+        assertTrue(result.success(), result.errors().toString());
+
+        List<String> text = Files.readAllLines(this.output.resolve(ModuleIndexProcessor.TEXT_INDEX));
+        assertEquals(List.of("test.First\tfirst\trequires=base"), text.subList(1, text.size()));
+    }
+
+    @Test
+    void testCompilationFailsOnDuplicateName() throws IOException {
+        Result result = this.compile(module("First", "same", ""), module("Second", "same", ""));
+
+        assertFalse(result.success());
+        assertEquals(1, result.errors().size());
+    }
+
+    private static JavaFileObject module(String className, String name, String dependencies) {
+        return module(className, name, dependencies, "");
+    }
+
+    private static JavaFileObject module(String className, String name, String dependencies, String conditions) {
+        return module(className, name, dependencies, conditions, "");
+    }
+
+    private static JavaFileObject module(String className, String name, String dependencies, String conditions, String extra) {
+        String source = """
+                package test;
+
+                import dev.emortal.api.modules.annotation.Condition;
+                import dev.emortal.api.modules.annotation.Dependency;
+                import dev.emortal.api.modules.annotation.ModuleData;
+                import dev.emortal.api.modules.env.ModuleEnvironment;
+
+                @ModuleData(name = "%s", dependencies = {%s}, conditions = {%s}%s)
+                public final class %s extends dev.emortal.api.modules.Module {
+
+                    public %s(ModuleEnvironment environment) {
+                        super(environment);
+                    }
+
+                    @Override
+                    public boolean onLoad() {
+                        return true;
+                    }
+
+                    @Override
+                    public void onUnload() {
+                    }
+                }
+                """.formatted(name, dependencies, conditions, extra.isEmpty() ? "" : ", " + extra, className, className);
+
+        return new SimpleJavaFileObject(URI.create("string:///test/" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+    }
+
+    private Result compile(JavaFileObject... sources) {
+        return this.compile(List.of(), sources);
+    }
+
+    private Result compile(List<String> extraOptions, JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        List<String> options = new ArrayList<>(List.of("-classpath", System.getProperty("java.class.path"),
+                "-d", this.output.toString(), "-s", this.output.toString()));
+        options.addAll(extraOptions);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(sources));
+        task.setProcessors(List.of(new ModuleIndexProcessor()));
+
+        boolean success = task.call();
+        List<String> errors = diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .toList();
+        return new Result(success, errors);
+    }
+
+    private record Result(boolean success, List<String> errors) {
+    }
+}
@@ -1 +1,4 @@
 rootProject.name = "module-system"
+
+include("processor")
+project(":processor").name = "module-system-processor"
@@ -0,0 +1,25 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A module that does nothing, so that benchmarks only measure the module system itself.
+ */
+public class BenchmarkModule extends Module {
+
+    public BenchmarkModule(@NotNull ModuleEnvironment environment) {
+        super(environment);
+    }
+
+    @Override
+    public boolean onLoad() {
+        return true;
+    }
+
+    @Override
+    public void onUnload() {
+        // do nothing
+    }
+}
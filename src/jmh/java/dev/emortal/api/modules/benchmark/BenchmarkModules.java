@@ -0,0 +1,123 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModuleIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A small set of real module classes, shaped like a typical server: a few infrastructure modules that everything
+ * depends on, and feature modules on top of them.
+ */
+final class BenchmarkModules {
+
+    static final List<LoadableModule> ALL = List.of(
+            new LoadableModule(ConfigModule.class, ConfigModule::new),
+            new LoadableModule(DatabaseModule.class, DatabaseModule::new),
+            new LoadableModule(CacheModule.class, CacheModule::new),
+            new LoadableModule(MessagingModule.class, MessagingModule::new),
+            new LoadableModule(PlayerModule.class, PlayerModule::new),
+            new LoadableModule(PartyModule.class, PartyModule::new),
+            new LoadableModule(MatchmakingModule.class, MatchmakingModule::new),
+            new LoadableModule(LeaderboardModule.class, LeaderboardModule::new)
+    );
+
+    /**
+     * The index that the processor would generate for these modules.
+     */
+    static final ModuleIndex INDEX = () -> List.of(
+            new ModuleIndex.Entry(ConfigModule.class, ModuleDataBuilder.builder("config").build()),
+            new ModuleIndex.Entry(DatabaseModule.class, ModuleDataBuilder.builder("database").dependency("config").build()),
+            new ModuleIndex.Entry(CacheModule.class, ModuleDataBuilder.builder("cache").dependency("config").build()),
+            new ModuleIndex.Entry(MessagingModule.class, ModuleDataBuilder.builder("messaging").dependency("config").build()),
+            new ModuleIndex.Entry(PlayerModule.class, ModuleDataBuilder.builder("player").dependency("database")
+                    .dependency("cache", false).build()),
+            new ModuleIndex.Entry(LeaderboardModule.class, ModuleDataBuilder.builder("leaderboard").dependency("database")
+                    .dependency("cache").build()),
+            new ModuleIndex.Entry(PartyModule.class, ModuleDataBuilder.builder("party").dependency("player")
+                    .dependency("messaging").build()),
+            new ModuleIndex.Entry(MatchmakingModule.class, ModuleDataBuilder.builder("matchmaking").dependency("party")
+                    .dependency("messaging").build())
+    );
+
+    static @NotNull ModuleManager.Builder builder() {
+        ModuleManager.Builder builder = ModuleManager.builder();
+        for (LoadableModule module : ALL) {
+            builder.module(module.clazz(), module.creator());
+        }
+        return builder;
+    }
+
+    @ModuleData(name = "config")
+    static final class ConfigModule extends BenchmarkModule {
+
+        ConfigModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "database", dependencies = {@Dependency(name = "config")})
+    static final class DatabaseModule extends BenchmarkModule {
+
+        DatabaseModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "cache", dependencies = {@Dependency(name = "config")})
+    static final class CacheModule extends BenchmarkModule {
+
+        CacheModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "messaging", dependencies = {@Dependency(name = "config")})
+    static final class MessagingModule extends BenchmarkModule {
+
+        MessagingModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "player", dependencies = {@Dependency(name = "database"), @Dependency(name = "cache", required = false)})
+    static final class PlayerModule extends BenchmarkModule {
+
+        PlayerModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "leaderboard", dependencies = {@Dependency(name = "database"), @Dependency(name = "cache")})
+    static final class LeaderboardModule extends BenchmarkModule {
+
+        LeaderboardModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "party", dependencies = {@Dependency(name = "player"), @Dependency(name = "messaging")})
+    static final class PartyModule extends BenchmarkModule {
+
+        PartyModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "matchmaking", dependencies = {@Dependency(name = "party"), @Dependency(name = "messaging")})
+    static final class MatchmakingModule extends BenchmarkModule {
+
+        MatchmakingModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    private BenchmarkModules() {
+    }
+}
@@ -0,0 +1,51 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleCandidateResolver;
+import dev.emortal.api.modules.internal.DefaultModuleCandidateResolver;
+import dev.emortal.api.modules.internal.IndexedModuleCandidateResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving candidates by reading annotations against resolving them from a module index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleCandidateResolverBenchmark {
+
+    @Param({"default", "indexed"})
+    private String resolverType;
+
+    private ModuleCandidateResolver resolver;
+
+    @Setup
+    public void setup() {
+        this.resolver = switch (this.resolverType) {
+            case "default" -> new DefaultModuleCandidateResolver();
+            case "indexed" -> new IndexedModuleCandidateResolver(BenchmarkModules.INDEX);
+            default -> throw new IllegalArgumentException("Unknown resolver " + this.resolverType);
+        };
+    }
+
+    @Benchmark
+    public List<ModuleCandidate> resolveCandidates() {
+        return this.resolver.resolveCandidates(BenchmarkModules.ALL);
+    }
+}
@@ -0,0 +1,66 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.ModuleKey;
+import dev.emortal.api.modules.ModuleManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up loaded modules, with every available thread looking up modules at the same time.
+ *
+ * <p>The map benchmark replicates how modules were looked up before the slot-based registry, as a baseline.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ModuleLookupBenchmark {
+
+    private static final ModuleKey<BenchmarkModules.PlayerModule> PLAYER_MODULE = ModuleKey.of(BenchmarkModules.PlayerModule.class);
+
+    private ModuleManager manager;
+    private final Map<Class<? extends Module>, Module> map = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setup() {
+        this.manager = BenchmarkModules.builder().build();
+        this.map.put(BenchmarkModules.PlayerModule.class, this.manager.getModule(BenchmarkModules.PlayerModule.class));
+    }
+
+    @Benchmark
+    public BenchmarkModules.PlayerModule getModuleFromMap() {
+        return BenchmarkModules.PlayerModule.class.cast(this.map.get(BenchmarkModules.PlayerModule.class));
+    }
+
+    @Benchmark
+    public BenchmarkModules.PlayerModule getModuleByKey() {
+        return this.manager.getModule(PLAYER_MODULE);
+    }
+
+    @Benchmark
+    public BenchmarkModules.PlayerModule getModule() {
+        return this.manager.getModule(BenchmarkModules.PlayerModule.class);
+    }
+
+    @Benchmark
+    public BenchmarkModule getMissingModule() {
+        return this.manager.getModule(BenchmarkModule.class);
+    }
+}
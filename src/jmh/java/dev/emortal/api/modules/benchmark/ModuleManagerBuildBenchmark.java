@@ -0,0 +1,50 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.LoadPlanCache;
+import dev.emortal.api.modules.ModuleManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a manager end to end, from registering modules to all of them being loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleManagerBuildBenchmark {
+
+    @Param({"sequential", "parallel"})
+    private String loading;
+
+    @Param({"false", "true"})
+    private boolean cachedPlan;
+
+    private LoadPlanCache planCache;
+
+    @Setup
+    public void setup() {
+        this.planCache = new LoadPlanCache();
+    }
+
+    @Benchmark
+    public ModuleManager build() {
+        ModuleManager.Builder builder = BenchmarkModules.builder();
+        if (this.loading.equals("parallel")) builder.parallelLoading();
+        if (this.cachedPlan) builder.loadPlanCache(this.planCache);
+        return builder.build();
+    }
+}
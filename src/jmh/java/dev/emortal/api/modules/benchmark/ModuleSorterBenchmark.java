@@ -0,0 +1,59 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleSorter;
+import dev.emortal.api.modules.internal.DefaultModuleSorter;
+import dev.emortal.api.modules.internal.GraphModuleSorter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the built-in sorter against the JGraphT sorter on different shapes of dependency graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleSorterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int modules;
+
+    @Param({"random", "chain", "fan-out", "diamond"})
+    private String shape;
+
+    @Param({"default", "graph"})
+    private String sorterType;
+
+    private ModuleSorter sorter;
+    private List<ModuleCandidate> candidates;
+
+    @Setup
+    public void setup() {
+        this.sorter = switch (this.sorterType) {
+            case "default" -> new DefaultModuleSorter();
+            case "graph" -> new GraphModuleSorter();
+            default -> throw new IllegalArgumentException("Unknown sorter " + this.sorterType);
+        };
+        this.candidates = SyntheticModules.create(this.shape, this.modules);
+    }
+
+    @Benchmark
+    public List<ModuleCandidate> sort() {
+        return this.sorter.sortModules(this.candidates);
+    }
+}
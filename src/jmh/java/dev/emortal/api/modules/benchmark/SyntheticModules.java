@@ -0,0 +1,112 @@
+package dev.emortal.api.modules.benchmark;
+
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates module candidates with synthetic dependency graphs.
+ */
+final class SyntheticModules {
+
+    /**
+     * Creates a graph where every module depends on up to three random modules before it, shuffled so that the sorter
+     * has to do the work of ordering them.
+     */
+    static @NotNull List<ModuleCandidate> random(int count) {
+        Random random = new Random(count);
+        List<ModuleCandidate> candidates = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            ModuleDataBuilder data = ModuleDataBuilder.builder(name(i));
+            int dependencies = i == 0 ? 0 : random.nextInt(Math.min(i, 3) + 1);
+            for (int j = 0; j < dependencies; j++) {
+                data.dependency(name(random.nextInt(i)), random.nextBoolean());
+            }
+            candidates.add(candidate(data));
+        }
+
+        Collections.shuffle(candidates, random);
+        return candidates;
+    }
+
+    /**
+     * Creates a graph where every module depends on the module before it.
+     */
+    static @NotNull List<ModuleCandidate> chain(int count) {
+        List<ModuleCandidate> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ModuleDataBuilder data = ModuleDataBuilder.builder(name(i));
+            if (i > 0) data.dependency(name(i - 1));
+            candidates.add(candidate(data));
+        }
+
+        Collections.reverse(candidates);
+        return candidates;
+    }
+
+    /**
+     * Creates a graph where every module depends on a single root module.
+     */
+    static @NotNull List<ModuleCandidate> fanOut(int count) {
+        List<ModuleCandidate> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ModuleDataBuilder data = ModuleDataBuilder.builder(name(i));
+            if (i > 0) data.dependency(name(0));
+            candidates.add(candidate(data));
+        }
+
+        Collections.reverse(candidates);
+        return candidates;
+    }
+
+    /**
+     * Creates a graph of stacked diamonds, where each diamond has a top module, two modules that depend on it, and a
+     * bottom module that depends on both of them and is the top of the next diamond.
+     */
+    static @NotNull List<ModuleCandidate> diamonds(int count) {
+        List<ModuleCandidate> candidates = new ArrayList<>(count);
+        candidates.add(candidate(ModuleDataBuilder.builder(name(0))));
+
+        int top = 0;
+        for (int i = 1; i < count; i += 3) {
+            int left = i;
+            int right = i + 1;
+            int bottom = i + 2;
+
+            candidates.add(candidate(ModuleDataBuilder.builder(name(left)).dependency(name(top))));
+            if (right < count) candidates.add(candidate(ModuleDataBuilder.builder(name(right)).dependency(name(top))));
+            if (bottom < count) candidates.add(candidate(ModuleDataBuilder.builder(name(bottom)).dependency(name(left)).dependency(name(right))));
+            top = bottom;
+        }
+
+        Collections.reverse(candidates);
+        return candidates;
+    }
+
+    static @NotNull List<ModuleCandidate> create(@NotNull String shape, int count) {
+        return switch (shape) {
+            case "random" -> random(count);
+            case "chain" -> chain(count);
+            case "fan-out" -> fanOut(count);
+            case "diamond" -> diamonds(count);
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        };
+    }
+
+    static @NotNull String name(int index) {
+        return "module-" + index;
+    }
+
+    static @NotNull ModuleCandidate candidate(@NotNull ModuleDataBuilder data) {
+        return new ModuleCandidate(BenchmarkModule.class, BenchmarkModule::new, data.build());
+    }
+
+    private SyntheticModules() {
+    }
+}
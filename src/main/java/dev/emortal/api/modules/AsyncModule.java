@@ -0,0 +1,27 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A module that loads asynchronously.
+ *
+ * <p>When loading in parallel, the manager composes the returned stage instead of blocking a thread on it, and
+ * dependents of this module start as soon as it completes. When loading sequentially, the manager waits for it.</p>
+ */
+public abstract class AsyncModule extends Module {
+
+    protected AsyncModule(@NotNull ModuleEnvironment environment) {
+        super(environment);
+    }
+
+    @Override
+    public abstract @NotNull CompletionStage<Boolean> onLoadAsync();
+
+    @Override
+    public final boolean onLoad() {
+        return this.onLoadAsync().toCompletableFuture().join();
+    }
+}
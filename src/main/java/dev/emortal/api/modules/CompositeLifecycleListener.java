@@ -0,0 +1,106 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Forwards events to several listeners, so that one failing listener does not affect the others or the lifecycle.
+ */
+final class CompositeLifecycleListener implements ModuleLifecycleListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeLifecycleListener.class);
+
+    static @NotNull ModuleLifecycleListener of(@NotNull List<ModuleLifecycleListener> listeners) {
+        if (listeners.isEmpty()) return ModuleLifecycleListener.NONE;
+        return new CompositeLifecycleListener(listeners.toArray(ModuleLifecycleListener[]::new));
+    }
+
+    private final ModuleLifecycleListener[] listeners;
+
+    private CompositeLifecycleListener(ModuleLifecycleListener @NotNull [] listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void onResolve(int candidates, long durationNanos) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onResolve(candidates, durationNanos);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+
+    @Override
+    public void onSort(int candidates, long durationNanos) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onSort(candidates, durationNanos);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+
+    @Override
+    public void onDependencyWait(@NotNull ModuleData data, long durationNanos) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onDependencyWait(data, durationNanos);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+
+    @Override
+    public void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onPhase(data, phase, durationNanos);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+
+    @Override
+    public void onFailure(@NotNull ModuleData data, @NotNull ModulePhase phase, @Nullable Throwable cause) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onFailure(data, phase, cause);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+
+    @Override
+    public void onSkipped(@NotNull ModuleData failed, @NotNull List<ModuleData> skipped) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onSkipped(failed, skipped);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+
+    @Override
+    public void onRetry(@NotNull ModuleData data, int attempt, long delayNanos) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onRetry(data, attempt, delayNanos);
+            } catch (Exception exception) {
+                LOGGER.error("Lifecycle listener {} failed", listener, exception);
+            }
+        }
+    }
+}
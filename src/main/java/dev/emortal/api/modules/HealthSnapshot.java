@@ -0,0 +1,38 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * The health of every loaded module, as of the last check by a {@link ModuleSupervisor}.
+ *
+ * <p>Snapshots are immutable and replaced after every check, so they can be read by probes as often as needed without
+ * running any checks or taking any locks.</p>
+ *
+ * @param ready whether the modules have been made ready and are all healthy
+ * @param live whether every module is either healthy or can still be restarted
+ * @param modules the status of each loaded module, by name
+ * @param checkedAtNanos the {@link System#nanoTime()} the check finished at
+ */
+public record HealthSnapshot(boolean ready, boolean live, @NotNull Map<String, Status> modules, long checkedAtNanos) {
+
+    public HealthSnapshot {
+        modules = Map.copyOf(modules);
+    }
+
+    public enum Status {
+        /**
+         * The module passed its last check.
+         */
+        HEALTHY,
+        /**
+         * The module failed its last check, but not enough checks in a row to be restarted yet.
+         */
+        UNHEALTHY,
+        /**
+         * The module could not be restarted after failing its checks, and has been left as it was.
+         */
+        FAILED
+    }
+}
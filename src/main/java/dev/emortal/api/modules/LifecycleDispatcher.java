@@ -0,0 +1,223 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Fires lifecycle phases on loaded modules in dependency order.
+ *
+ * <p>Without an executor, modules are dispatched one at a time on the calling thread, unless the sequential timeout is
+ * enabled, in which case each runs on its own virtual thread so that the wait can be bounded. With an executor, every
+ * module is dispatched as soon as the modules it has to wait for are done, and the phase always gives up waiting after
+ * the timeout, so one stuck module cannot block the phase forever.</p>
+ */
+final class LifecycleDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleDispatcher.class);
+
+    private final @Nullable Executor executor;
+    private final @NotNull Duration timeout;
+    private final boolean sequentialTimeout;
+    private final @NotNull ModuleLifecycleListener listener;
+
+    LifecycleDispatcher(@Nullable Executor executor, @NotNull Duration timeout, boolean sequentialTimeout,
+                        @NotNull ModuleLifecycleListener listener) {
+        this.executor = executor;
+        this.timeout = timeout;
+        this.sequentialTimeout = sequentialTimeout;
+        this.listener = listener;
+    }
+
+    /**
+     * Fires the phase on dependencies before their dependents.
+     *
+     * @return whether the phase completed for every module
+     */
+    boolean dispatchInOrder(@NotNull ModulePhase phase, @NotNull List<LoadedModule> loadOrder, @NotNull Consumer<Module> action) {
+        return this.dispatch(phase, loadOrder, false, action);
+    }
+
+    /**
+     * Fires the phase on dependents before their dependencies.
+     *
+     * @return whether the phase completed for every module
+     */
+    boolean dispatchInReverseOrder(@NotNull ModulePhase phase, @NotNull List<LoadedModule> loadOrder, @NotNull Consumer<Module> action) {
+        return this.dispatch(phase, loadOrder, true, action);
+    }
+
+    private boolean dispatch(@NotNull ModulePhase phase, @NotNull List<LoadedModule> loadOrder, boolean reverse,
+                             @NotNull Consumer<Module> action) {
+        List<LoadedModule> order = new ArrayList<>(loadOrder);
+        if (reverse) order = order.reversed();
+
+        if (this.executor == null) {
+            return this.sequentialTimeout ? this.dispatchWithTimeout(phase, order, action) : this.dispatchOnCaller(phase, order, action);
+        }
+
+        AtomicBoolean completed = new AtomicBoolean(true);
+
+        Map<String, List<LoadedModule>> waitsFor = reverse ? this.collectDependents(order) : this.collectDependencies(order);
+        Map<String, CompletableFuture<Void>> results = new HashMap<>();
+
+        for (LoadedModule module : order) {
+            List<CompletableFuture<Void>> previous = new ArrayList<>();
+            for (LoadedModule other : waitsFor.getOrDefault(module.name(), List.of())) {
+                CompletableFuture<Void> otherResult = results.get(other.name());
+                if (otherResult != null) previous.add(otherResult);
+            }
+
+            CompletableFuture<Void> result = CompletableFuture.allOf(previous.toArray(CompletableFuture[]::new))
+                    .thenRunAsync(() -> {
+                        if (!this.fire(phase, module, action)) completed.set(false);
+                    }, this.executor);
+            results.put(module.name(), result);
+        }
+
+        return this.await(phase, results) && completed.get();
+    }
+
+    private boolean dispatchOnCaller(@NotNull ModulePhase phase, @NotNull List<LoadedModule> order,
+                                     @NotNull Consumer<Module> action) {
+        boolean completed = true;
+        for (LoadedModule module : order) {
+            completed &= this.fire(phase, module, action);
+        }
+        return completed;
+    }
+
+    /**
+     * Fires each module on a new virtual thread, rather than the calling thread, so that the wait can be bounded. When
+     * the timeout is reached, the modules after the stuck one are still fired in order, so that they are still unloaded
+     * and release their resources, but on a thread of their own that is not waited for.
+     */
+    private boolean dispatchWithTimeout(@NotNull ModulePhase phase, @NotNull List<LoadedModule> order,
+                                         @NotNull Consumer<Module> action) {
+        long deadline = System.nanoTime() + this.timeout.toNanos();
+        boolean completed = true;
+
+        for (int i = 0; i < order.size(); i++) {
+            LoadedModule module = order.get(i);
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            Thread.ofVirtual().name("module-" + describe(phase)).start(() -> {
+                try {
+                    result.complete(this.fire(phase, module, action));
+                } catch (Throwable throwable) {
+                    result.completeExceptionally(throwable);
+                }
+            });
+
+            try {
+                completed &= result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException exception) {
+                List<LoadedModule> remaining = List.copyOf(order.subList(i + 1, order.size()));
+                LOGGER.error("Timed out after {}ms waiting for {} to finish for module {}, firing it for modules {} without waiting",
+                        this.timeout.toMillis(), describe(phase), module.name(), remaining.stream().map(LoadedModule::name).toList());
+                if (!remaining.isEmpty()) {
+                    Thread.ofVirtual().name("module-" + describe(phase)).start(() -> this.dispatchOnCaller(phase, remaining, action));
+                }
+                return false;
+            } catch (ExecutionException exception) {
+                LOGGER.error("Failed to fire {} for module {}", describe(phase), module.name(), exception.getCause());
+                completed = false;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Interrupted while waiting for {} to finish", describe(phase));
+                return false;
+            }
+        }
+        return completed;
+    }
+
+    private boolean fire(@NotNull ModulePhase phase, @NotNull LoadedModule module, @NotNull Consumer<Module> action) {
+        long start = System.nanoTime();
+        try {
+            action.accept(module.module());
+        } catch (Exception exception) {
+            LOGGER.error("Failed to fire {} for module {}", describe(phase), module.name(), exception);
+            this.listener.onFailure(module.candidate().data(), phase, exception);
+            return false;
+        }
+
+        long duration = System.nanoTime() - start;
+        this.listener.onPhase(module.candidate().data(), phase, duration);
+        LOGGER.info("Fired {} for module {} in {}ms", describe(phase), module.name(), TimeUnit.NANOSECONDS.toMillis(duration));
+        return true;
+    }
+
+    private static @NotNull String describe(@NotNull ModulePhase phase) {
+        return switch (phase) {
+            case CREATE -> "create";
+            case LOAD -> "onLoad";
+            case READY -> "onReady";
+            case UNLOAD -> "onUnload";
+            case CHECKPOINT -> "beforeCheckpoint";
+            case RESTORE -> "afterRestore";
+        };
+    }
+
+    private boolean await(@NotNull ModulePhase phase, @NotNull Map<String, CompletableFuture<Void>> results) {
+        try {
+            CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new))
+                    .get(this.timeout.toNanos(), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException exception) {
+            List<String> pending = new ArrayList<>();
+            results.forEach((name, result) -> {
+                if (!result.isDone()) pending.add(name);
+            });
+            LOGGER.error("Timed out after {}ms waiting for {} to finish for modules {}", this.timeout.toMillis(), describe(phase), pending);
+        } catch (ExecutionException exception) {
+            LOGGER.error("Failed to fire {} for all modules", describe(phase), exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            LOGGER.error("Interrupted while waiting for {} to finish", describe(phase));
+        }
+        return false;
+    }
+
+    private @NotNull Map<String, List<LoadedModule>> collectDependencies(@NotNull List<LoadedModule> order) {
+        Map<String, LoadedModule> byName = new HashMap<>();
+        for (LoadedModule module : order) {
+            byName.put(module.name(), module);
+        }
+
+        Map<String, List<LoadedModule>> dependencies = new HashMap<>();
+        for (LoadedModule module : order) {
+            for (Dependency dependency : module.candidate().data().dependencies()) {
+                LoadedModule dependencyModule = byName.get(dependency.name());
+                if (dependencyModule == null) continue;
+
+                dependencies.computeIfAbsent(module.name(), name -> new ArrayList<>()).add(dependencyModule);
+            }
+        }
+        return dependencies;
+    }
+
+    private @NotNull Map<String, List<LoadedModule>> collectDependents(@NotNull List<LoadedModule> order) {
+        Map<String, List<LoadedModule>> dependents = new HashMap<>();
+        for (LoadedModule module : order) {
+            for (Dependency dependency : module.candidate().data().dependencies()) {
+                dependents.computeIfAbsent(dependency.name(), name -> new ArrayList<>()).add(module);
+            }
+        }
+        return dependents;
+    }
+}
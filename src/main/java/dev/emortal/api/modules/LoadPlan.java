@@ -0,0 +1,291 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The resolved and sorted set of modules to load, along with the dependencies between them.
+ *
+ * <p>Plans are immutable, so a plan can be cached and shared between managers that load the same modules (see
+ * {@link LoadPlanCache}). Plans do not hold module creators, as they often capture state of the manager that created
+ * them, so these are bound again for each load with {@link #bind(Collection)}.</p>
+ *
+ * <p>Modules are identified by their index in the plan, which is always in dependency order. The dependencies of each
+ * module are stored as a bit set of these indexes, and only include dependencies that are part of the plan.</p>
+ */
+public final class LoadPlan implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a plan from candidates that are already sorted in dependency order.
+     */
+    public static @NotNull LoadPlan create(@NotNull List<ModuleCandidate> sortedCandidates) {
+        List<Entry> entries = new ArrayList<>(sortedCandidates.size());
+        for (ModuleCandidate candidate : sortedCandidates) {
+            entries.add(new Entry(candidate.clazz(), candidate.data()));
+        }
+        return new LoadPlan(entries);
+    }
+
+    private final List<Entry> entries;
+    private final Map<String, Integer> indexByName;
+    private final Map<Class<? extends Module>, Integer> indexByClass;
+    private final BitSet[] dependencies;
+    private final BitSet[] requiredDependencies;
+    private final ModuleData.Priority[] priorities;
+
+    private LoadPlan(@NotNull List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+        this.indexByName = new HashMap<>();
+        this.indexByClass = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            this.indexByName.putIfAbsent(entries.get(i).data().name(), i);
+            this.indexByClass.put(entries.get(i).clazz(), i);
+        }
+
+        this.dependencies = new BitSet[entries.size()];
+        this.requiredDependencies = new BitSet[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            BitSet all = new BitSet();
+            BitSet required = new BitSet();
+
+            for (Dependency dependency : entries.get(i).data().dependencies()) {
+                Integer index = this.indexByName.get(dependency.name());
+                if (index == null) continue;
+                if (index >= i) throw new IllegalArgumentException("Module " + entries.get(i).data().name()
+                        + " is not sorted after its dependency " + dependency.name());
+
+                all.set(index);
+                if (dependency.required()) required.set(index);
+            }
+
+            this.dependencies[i] = all;
+            this.requiredDependencies[i] = required;
+        }
+
+        // Dependents always come after their dependencies, so going backwards reaches every dependent of a module first
+        this.priorities = new ModuleData.Priority[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            this.priorities[i] = entries.get(i).data().priority();
+        }
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            BitSet dependencies = this.dependencies[i];
+            for (int dependency = dependencies.nextSetBit(0); dependency >= 0; dependency = dependencies.nextSetBit(dependency + 1)) {
+                if (this.priorities[i].compareTo(this.priorities[dependency]) < 0) this.priorities[dependency] = this.priorities[i];
+            }
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * The modules in this plan, in dependency order.
+     */
+    public @NotNull List<Entry> entries() {
+        return this.entries;
+    }
+
+    public @NotNull Entry entry(int index) {
+        return this.entries.get(index);
+    }
+
+    /**
+     * @return the index of the module with the given name, or -1 if it is not in this plan
+     */
+    public int indexOf(@NotNull String name) {
+        return this.indexByName.getOrDefault(name, -1);
+    }
+
+    /**
+     * @return the index of the module with the given class, or -1 if it is not in this plan
+     */
+    public int indexOf(@NotNull Class<? extends Module> type) {
+        return this.indexByClass.getOrDefault(type, -1);
+    }
+
+    /**
+     * The indexes of all required and optional dependencies of a module that are part of this plan.
+     */
+    public @NotNull BitSet dependencies(int index) {
+        return (BitSet) this.dependencies[index].clone();
+    }
+
+    /**
+     * The indexes of all required dependencies of a module that are part of this plan.
+     */
+    public @NotNull BitSet requiredDependencies(int index) {
+        return (BitSet) this.requiredDependencies[index].clone();
+    }
+
+    /**
+     * The priority a module is loaded with, which is the most urgent priority of the module and every module in this
+     * plan that depends on it, directly or indirectly. This stops a less urgent dependency from holding up a more
+     * urgent module.
+     */
+    public @NotNull ModuleData.Priority priority(int index) {
+        return this.priorities[index];
+    }
+
+    /**
+     * The indexes of all modules in this plan that require the module, directly or indirectly.
+     */
+    public @NotNull BitSet requiredDependents(int index) {
+        BitSet dependents = new BitSet();
+        BitSet reached = new BitSet();
+        reached.set(index);
+
+        // Dependents always come after their dependencies, so a single pass reaches every one of them
+        for (int i = index + 1; i < this.entries.size(); i++) {
+            if (!this.requiredDependencies[i].intersects(reached)) continue;
+
+            dependents.set(i);
+            reached.set(i);
+        }
+        return dependents;
+    }
+
+    /**
+     * Binds the creators of the given modules to this plan.
+     *
+     * @return the candidates for the given modules that are part of this plan, in dependency order
+     */
+    public @NotNull List<ModuleCandidate> bind(@NotNull Collection<LoadableModule> modules) {
+        Map<Class<? extends Module>, LoadableModule.Creator> creators = new HashMap<>();
+        for (LoadableModule module : modules) {
+            creators.put(module.clazz(), module.creator());
+        }
+
+        List<ModuleCandidate> candidates = new ArrayList<>(creators.size());
+        for (Entry entry : this.entries) {
+            LoadableModule.Creator creator = creators.get(entry.clazz());
+            if (creator == null) continue;
+
+            candidates.add(new ModuleCandidate(entry.clazz(), creator, entry.data()));
+        }
+        return candidates;
+    }
+
+    /**
+     * Creates a new plan with the given modules added.
+     *
+     * <p>Where possible, each module is inserted directly after its last dependency without sorting the plan again.
+     * The plan is only sorted again if an existing module depends on an added module that has to be placed after
+     * it.</p>
+     */
+    public @NotNull LoadPlan withModules(@NotNull Collection<ModuleCandidate> candidates) {
+        List<Entry> entries = new ArrayList<>(this.entries);
+        Map<String, Integer> indexByName = new HashMap<>(this.indexByName);
+        boolean sorted = true;
+
+        for (ModuleCandidate candidate : candidates) {
+            if (this.indexByClass.containsKey(candidate.clazz())) continue; // Already in the plan
+
+            int lastDependency = -1;
+            for (Dependency dependency : candidate.data().dependencies()) {
+                Integer index = indexByName.get(dependency.name());
+                if (index != null) lastDependency = Math.max(lastDependency, index);
+            }
+            int insertAt = lastDependency + 1;
+
+            String name = candidate.data().name();
+            for (int i = 0; i < insertAt; i++) {
+                if (this.dependsOn(entries.get(i), name)) sorted = false;
+            }
+
+            entries.add(insertAt, new Entry(candidate.clazz(), candidate.data()));
+            indexByName.replaceAll((key, index) -> index >= insertAt ? index + 1 : index);
+            indexByName.putIfAbsent(name, insertAt);
+        }
+
+        return new LoadPlan(sorted ? entries : sort(entries));
+    }
+
+    /**
+     * Creates a new plan with the given module removed. Modules that depended on it are kept.
+     */
+    public @NotNull LoadPlan withoutModule(@NotNull Class<? extends Module> type) {
+        return this.withoutModules(Set.of(type));
+    }
+
+    /**
+     * Creates a new plan with the given modules removed. Modules that depended on them are kept.
+     */
+    public @NotNull LoadPlan withoutModules(@NotNull Collection<Class<? extends Module>> types) {
+        List<Entry> entries = new ArrayList<>(this.entries.size());
+        for (Entry entry : this.entries) {
+            if (!types.contains(entry.clazz())) entries.add(entry);
+        }
+        return entries.size() == this.entries.size() ? this : new LoadPlan(entries);
+    }
+
+    private boolean dependsOn(@NotNull Entry entry, @NotNull String name) {
+        for (Dependency dependency : entry.data().dependencies()) {
+            if (dependency.name().equals(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sorts the entries in dependency order, keeping modules in their existing order where possible.
+     */
+    private static @NotNull List<Entry> sort(@NotNull List<Entry> entries) {
+        Map<String, Integer> indexByName = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            indexByName.putIfAbsent(entries.get(i).data().name(), i);
+        }
+
+        List<List<Integer>> dependents = new ArrayList<>(Collections.nCopies(entries.size(), null));
+        int[] remaining = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            for (Dependency dependency : entries.get(i).data().dependencies()) {
+                Integer index = indexByName.get(dependency.name());
+                if (index == null) continue;
+
+                if (dependents.get(index) == null) dependents.set(index, new ArrayList<>());
+                dependents.get(index).add(i);
+                remaining[i]++;
+            }
+        }
+
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (remaining[i] == 0) ready.add(i);
+        }
+
+        List<Entry> sorted = new ArrayList<>(entries.size());
+        while (!ready.isEmpty()) {
+            int index = ready.poll();
+            sorted.add(entries.get(index));
+
+            if (dependents.get(index) == null) continue;
+            for (int dependent : dependents.get(index)) {
+                if (--remaining[dependent] == 0) ready.add(dependent);
+            }
+        }
+
+        if (sorted.size() != entries.size()) {
+            throw new IllegalArgumentException("Adding modules to the plan created a dependency cycle");
+        }
+        return sorted;
+    }
+
+    public record Entry(@NotNull Class<? extends Module> clazz, @NotNull ModuleData data) implements Serializable {
+    }
+}
@@ -0,0 +1,73 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches load plans so that managers loading the same set of modules only resolve and sort them once.
+ *
+ * <p>Plans are keyed by the set of module classes left after conditions are applied, along with the types of the
+ * candidate resolver and sorter used to create them. The resolved candidates are cached separately, before conditions
+ * are applied, so managers with different profiles or conditions still only resolve the same modules once. A cache can
+ * be shared by any number of managers, on any thread.</p>
+ */
+public final class LoadPlanCache {
+
+    private final Map<CandidatesKey, List<LoadPlan.Entry>> candidates = new ConcurrentHashMap<>();
+    private final Map<Key, LoadPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Only the resolved data of each module is cached, and the creators of the given modules are bound to it on every
+     * lookup, as creators often capture state of the manager that created them (see {@link LoadPlan#bind(Collection)}).
+     */
+    @NotNull List<ModuleCandidate> getCandidates(@NotNull CandidatesKey key, @NotNull Collection<LoadableModule> modules,
+                                                 @NotNull Supplier<List<ModuleCandidate>> resolver) {
+        List<LoadPlan.Entry> entries = this.candidates.computeIfAbsent(key, ignored -> {
+            List<LoadPlan.Entry> resolved = new ArrayList<>();
+            for (ModuleCandidate candidate : resolver.get()) {
+                resolved.add(new LoadPlan.Entry(candidate.clazz(), candidate.data()));
+            }
+            return List.copyOf(resolved);
+        });
+
+        Map<Class<? extends Module>, LoadableModule.Creator> creators = new HashMap<>();
+        for (LoadableModule module : modules) {
+            creators.put(module.clazz(), module.creator());
+        }
+
+        List<ModuleCandidate> candidates = new ArrayList<>(entries.size());
+        for (LoadPlan.Entry entry : entries) {
+            LoadableModule.Creator creator = creators.get(entry.clazz());
+            if (creator != null) candidates.add(new ModuleCandidate(entry.clazz(), creator, entry.data()));
+        }
+        return candidates;
+    }
+
+    @NotNull LoadPlan get(@NotNull Key key, @NotNull Supplier<LoadPlan> planner) {
+        return this.plans.computeIfAbsent(key, ignored -> planner.get());
+    }
+
+    public int size() {
+        return this.plans.size();
+    }
+
+    public void clear() {
+        this.candidates.clear();
+        this.plans.clear();
+    }
+
+    record CandidatesKey(@NotNull Class<?> resolverType, @NotNull Set<Class<? extends Module>> modules) {
+    }
+
+    record Key(@NotNull Class<?> resolverType, @NotNull Class<?> sorterType, @NotNull Set<Class<? extends Module>> modules) {
+    }
+}
@@ -0,0 +1,105 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many CPU bound modules load at the same time, so that they do not compete for cores, while IO bound
+ * modules are started straight away.
+ *
+ * <p>CPU bound loads that are waiting for a slot are started by priority, and then in the order they were submitted.
+ * A slot is held until the load completes, including any asynchronous part of it.</p>
+ */
+final class LoadScheduler {
+
+    private final @NotNull Executor executor;
+    private final int cpuLimit;
+
+    private final PriorityQueue<Waiting> waiting = new PriorityQueue<>(Comparator.comparing(Waiting::priority)
+            .thenComparingLong(Waiting::sequence));
+    private int running;
+    private long nextSequence;
+
+    /**
+     * @param executor the executor that waiting loads are started on once a slot is free
+     * @param cpuLimit the maximum number of CPU bound loads at the same time
+     */
+    LoadScheduler(@NotNull Executor executor, int cpuLimit) {
+        if (cpuLimit < 1) throw new IllegalArgumentException("CPU load limit must be at least 1");
+        this.executor = executor;
+        this.cpuLimit = cpuLimit;
+    }
+
+    /**
+     * Starts the load now if the module is IO bound or there is a free slot, or once a slot is free otherwise.
+     * If the load throws or completes exceptionally, the returned future completes exceptionally too, and the slot is
+     * still released.
+     *
+     * @param priority the priority to start the load with if it has to wait, which may be more urgent than the
+     *                 module's own priority if a more urgent module depends on it
+     */
+    <T> @NotNull CompletableFuture<T> submit(@NotNull ModuleData data, @NotNull ModuleData.Priority priority,
+                                             @NotNull Supplier<CompletableFuture<T>> load) {
+        if (data.workload() != ModuleData.Workload.CPU) return load.get();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> started;
+            try {
+                started = load.get();
+            } catch (Throwable throwable) {
+                this.release();
+                result.completeExceptionally(throwable);
+                return;
+            }
+
+            started.whenComplete((value, exception) -> {
+                this.release();
+                if (exception != null) {
+                    result.completeExceptionally(exception);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (this.running >= this.cpuLimit) {
+                this.waiting.add(new Waiting(priority, this.nextSequence++, start));
+                return result;
+            }
+            this.running++;
+        }
+
+        start.run();
+        return result;
+    }
+
+    private void release() {
+        Waiting next;
+        synchronized (this) {
+            next = this.waiting.poll();
+            // The slot is handed straight to the next load, so nothing submitted in between can take it
+            if (next == null) this.running--;
+        }
+
+        // Started on the executor, rather than on the thread that completed the previous load
+        if (next != null) this.executor.execute(next.start());
+    }
+
+    /**
+     * @return the number of CPU bound loads running now
+     */
+    synchronized int running() {
+        return this.running;
+    }
+
+    private record Waiting(@NotNull ModuleData.Priority priority, long sequence, @NotNull Runnable start) {
+    }
+}
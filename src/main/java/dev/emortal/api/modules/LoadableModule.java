@@ -1,10 +1,20 @@
 package dev.emortal.api.modules;
 
 import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.internal.InjectingCreator;
 import org.jetbrains.annotations.NotNull;
 
 public record LoadableModule(@NotNull Class<? extends Module> clazz, @NotNull Creator creator) {
 
+    /**
+     * Creates a loadable module that is created by injecting its dependencies into its constructor.
+     *
+     * @see InjectingCreator
+     */
+    public static @NotNull LoadableModule injected(@NotNull Class<? extends Module> clazz) {
+        return new LoadableModule(clazz, new InjectingCreator(clazz));
+    }
+
     @FunctionalInterface
     public interface Creator {
 
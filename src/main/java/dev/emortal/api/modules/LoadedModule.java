@@ -0,0 +1,14 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A module that has been successfully loaded, along with the candidate it was created from.
+ */
+record LoadedModule(@NotNull ModuleCandidate candidate, @NotNull Module module) {
+
+    @NotNull String name() {
+        return this.candidate.data().name();
+    }
+}
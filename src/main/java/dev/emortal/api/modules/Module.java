@@ -4,6 +4,9 @@ import dev.emortal.api.modules.env.ModuleEnvironment;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 public abstract class Module {
 
     protected final ModuleEnvironment environment;
@@ -24,11 +27,59 @@ public abstract class Module {
         return this.environment.moduleProvider().getModule(type);
     }
 
+    protected <T extends Module> @NotNull T getModule(@NotNull ModuleKey<T> key) {
+        T module = this.environment.moduleProvider().getModule(key);
+        if (module == null) {
+            throw new IllegalStateException("Required module was not available! Module should not have loaded if it was not.");
+        }
+        return module;
+    }
+
+    protected <T extends Module> @Nullable T getOptionalModule(@NotNull ModuleKey<T> key) {
+        return this.environment.moduleProvider().getModule(key);
+    }
+
     public abstract boolean onLoad();
 
+    /**
+     * Loads the module asynchronously, completing with whether the module loaded successfully.
+     *
+     * <p>By default, this just calls {@link #onLoad()}. Modules that wait on remote services should extend
+     * {@link AsyncModule} instead, so that the manager can wait on them without blocking.</p>
+     */
+    public @NotNull CompletionStage<Boolean> onLoadAsync() {
+        return CompletableFuture.completedFuture(this.onLoad());
+    }
+
     public abstract void onUnload();
 
     public void onReady() {
         // do nothing by default
     }
+
+    /**
+     * Called before the process is checkpointed, after every module that depends on this one.
+     * Modules should close anything that cannot be checkpointed, such as network connections and open files.
+     */
+    public void beforeCheckpoint() {
+        // do nothing by default
+    }
+
+    /**
+     * Called after the process is restored from a checkpoint, before every module that depends on this one, to reopen
+     * anything closed by {@link #beforeCheckpoint()}. This is also called if the checkpoint failed.
+     */
+    public void afterRestore() {
+        // do nothing by default
+    }
+
+    /**
+     * Checks whether the module is still working, for example whether its connections are still open.
+     *
+     * <p>This is polled by a {@link ModuleSupervisor}, which restarts the module if it stays unhealthy, so it should
+     * return quickly and not wait on remote services.</p>
+     */
+    public boolean checkHealth() {
+        return true;
+    }
 }
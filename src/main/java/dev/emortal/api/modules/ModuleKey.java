@@ -0,0 +1,88 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+
+/**
+ * A typed handle for looking up a module, which is resolved to a fixed slot while the module is loaded.
+ *
+ * <p>Keys should be stored in a static final field and reused, which makes every lookup through them a plain array
+ * load.</p>
+ *
+ * <pre>{@code
+ * private static final ModuleKey<PlayerModule> PLAYER_MODULE = ModuleKey.of(PlayerModule.class);
+ * }</pre>
+ */
+public final class ModuleKey<T extends Module> {
+
+    private static final ClassValue<ModuleKey<?>> KEYS = new ClassValue<>() {
+        @Override
+        protected ModuleKey<?> computeValue(@NotNull Class<?> type) {
+            return new ModuleKey<>(type.asSubclass(Module.class));
+        }
+    };
+
+    // Slots are only held by keys registered in at least one registry, and are reused once they are free, so that
+    // registries only grow to the number of module classes loaded at the same time
+    private static final BitSet FREE_SLOTS = new BitSet();
+    private static int nextSlot;
+
+    /**
+     * Gets the key for the given module class. The same key is always returned for the same class.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Module> @NotNull ModuleKey<T> of(@NotNull Class<T> type) {
+        return (ModuleKey<T>) KEYS.get(type);
+    }
+
+    private final @NotNull Class<T> type;
+    private volatile int slot = -1;
+    private int registrations; // Guarded by ModuleKey.class
+
+    private ModuleKey(@NotNull Class<T> type) {
+        this.type = type;
+    }
+
+    public @NotNull Class<T> type() {
+        return this.type;
+    }
+
+    /**
+     * @return the slot of this key, or -1 if it is not registered anywhere
+     */
+    int slot() {
+        return this.slot;
+    }
+
+    /**
+     * Gives the key a slot if it does not have one, for a registry that the key is being added to.
+     */
+    static synchronized void retain(@NotNull ModuleKey<?> key) {
+        if (key.registrations++ > 0) return;
+
+        int slot = FREE_SLOTS.nextSetBit(0);
+        if (slot == -1) {
+            slot = nextSlot++;
+        } else {
+            FREE_SLOTS.clear(slot);
+        }
+        key.slot = slot;
+    }
+
+    /**
+     * Frees the key's slot once no registry holds the key. The registry must have removed the key before this, so that
+     * the slot is never reused while a registry still holds it.
+     */
+    static synchronized void release(@NotNull ModuleKey<?> key) {
+        if (--key.registrations > 0) return;
+
+        FREE_SLOTS.set(key.slot);
+        key.slot = -1;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "ModuleKey[" + this.type.getName() + "]";
+    }
+}
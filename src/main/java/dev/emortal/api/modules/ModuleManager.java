@@ -1,23 +1,52 @@
 package dev.emortal.api.modules;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import dev.emortal.api.modules.annotation.Condition;
 import dev.emortal.api.modules.annotation.Dependency;
 import dev.emortal.api.modules.annotation.ModuleData;
 import dev.emortal.api.modules.env.BasicModuleEnvironment;
 import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.env.ModuleExecutors;
+import dev.emortal.api.modules.env.ModuleResources;
+import dev.emortal.api.modules.event.EventBus;
+import dev.emortal.api.modules.event.ModuleEvents;
 import dev.emortal.api.modules.extension.ModuleCandidate;
 import dev.emortal.api.modules.extension.ModuleCandidateResolver;
+import dev.emortal.api.modules.extension.ModuleCondition;
 import dev.emortal.api.modules.extension.ModuleEnvironmentProvider;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
 import dev.emortal.api.modules.extension.ModuleSorter;
+import dev.emortal.api.modules.internal.AnnotationModuleCondition;
 import dev.emortal.api.modules.internal.DefaultModuleCandidateResolver;
 import dev.emortal.api.modules.internal.DefaultModuleSorter;
 import org.jetbrains.annotations.NotNull;
@@ -27,6 +56,7 @@ import org.slf4j.LoggerFactory;
 
 public final class ModuleManager implements ModuleProvider {
     private static final Logger LOGGER = LoggerFactory.getLogger(ModuleManager.class);
+    private static final Duration DEFAULT_LIFECYCLE_TIMEOUT = Duration.ofSeconds(30);
 
     public static @NotNull Builder builder() {
         return new Builder();
@@ -35,62 +65,901 @@ public final class ModuleManager implements ModuleProvider {
     private final @NotNull ModuleCandidateResolver candidateResolver;
     private final @NotNull ModuleSorter sorter;
     private final @NotNull ModuleEnvironmentProvider environmentProvider;
+    private final @Nullable Executor loadExecutor;
+    private final @Nullable LoadScheduler loadScheduler;
+    private final @NotNull LifecycleDispatcher lifecycleDispatcher;
+    private final @Nullable LoadPlanCache planCache;
+    private final @NotNull ModuleLifecycleListener listener;
+    private final boolean strictValidation;
+    private final @NotNull RetryPolicy defaultRetryPolicy;
+    private final @NotNull Map<Class<? extends Module>, RetryPolicy> retryPolicies;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final @NotNull EventBus eventBus;
+    private final @Nullable Path stateFile;
+    private final Map<String, StateFile.Entry> savedState = new ConcurrentHashMap<>();
+    private final @Nullable ModuleManager parent;
+    private final LoadPlanCache childPlans = new LoadPlanCache();
+    private final @NotNull List<ModuleCondition> conditions;
+    private final @NotNull Set<String> profiles;
+    private final @NotNull Duration lifecycleTimeout;
 
-    private final Map<Class<? extends Module>, Module> modules = new ConcurrentHashMap<>();
+    private final ModuleRegistry modules = new ModuleRegistry();
+    private final Set<String> loadedModuleNames = ConcurrentHashMap.newKeySet();
+    private final List<LoadedModule> loadOrder = new CopyOnWriteArrayList<>();
+    private final Map<Class<? extends Module>, ModuleCandidate> lazyModules = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Module>, CompletableFuture<Boolean>> activations = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Module>, CompletableFuture<Boolean>> parallelLoads = new ConcurrentHashMap<>();
+    // Kept here rather than read from the environment, as environments from older providers do not expose them
+    private final Map<Module, ModuleResources> resources = new ConcurrentHashMap<>();
+    private volatile @Nullable LoadPlan plan;
+    private volatile boolean ready;
+    private volatile CompletableFuture<Void> backgroundLoads = CompletableFuture.completedFuture(null);
+    private volatile CompletableFuture<Void> pendingLoads = CompletableFuture.completedFuture(null);
+    private final Map<String, CompletableFuture<Boolean>> readinessGroups = new HashMap<>();
 
-    private ModuleManager(@NotNull ModuleCandidateResolver candidateResolver, @NotNull ModuleSorter sorter,
-                          @NotNull ModuleEnvironmentProvider environmentProvider) {
-        this.candidateResolver = candidateResolver;
-        this.sorter = sorter;
-        this.environmentProvider = environmentProvider;
+    private ModuleManager(@NotNull Builder builder) {
+        ModuleManager parent = builder.parent;
+        this.parent = parent;
+
+        // Children share everything that does not hold per instance state with their parent
+        if (builder.candidateResolver != null) {
+            this.candidateResolver = builder.candidateResolver;
+        } else {
+            this.candidateResolver = parent != null ? parent.candidateResolver : new DefaultModuleCandidateResolver();
+        }
+        if (builder.sorter != null) {
+            this.sorter = builder.sorter;
+        } else {
+            this.sorter = parent != null ? parent.sorter : new DefaultModuleSorter();
+        }
+        if (builder.environmentProvider != null) {
+            this.environmentProvider = builder.environmentProvider;
+        } else {
+            this.environmentProvider = parent != null ? parent.environmentProvider : new BasicEnvironmentProvider();
+        }
+        this.planCache = builder.planCache != null ? builder.planCache : parent != null ? parent.childPlans : null;
+        this.ownsScheduler = builder.scheduler == null && parent == null;
+        if (builder.scheduler != null) {
+            this.scheduler = builder.scheduler;
+        } else {
+            this.scheduler = parent != null ? parent.scheduler : createScheduler();
+        }
+
+        this.profiles = builder.profiles != null ? Set.copyOf(builder.profiles) : parent != null ? parent.profiles : Set.of();
+        List<ModuleCondition> conditions = new ArrayList<>(builder.conditions);
+        conditions.add(new AnnotationModuleCondition(this.profiles));
+        this.conditions = List.copyOf(conditions);
+
+        this.loadExecutor = builder.loadExecutor;
+        this.loadScheduler = builder.loadExecutor != null ? new LoadScheduler(builder.loadExecutor, builder.cpuLoadLimit) : null;
+        this.lifecycleTimeout = builder.lifecycleTimeout != null ? builder.lifecycleTimeout : DEFAULT_LIFECYCLE_TIMEOUT;
+        this.strictValidation = builder.strictValidation;
+        this.defaultRetryPolicy = builder.defaultRetryPolicy;
+        this.retryPolicies = Map.copyOf(builder.retryPolicies);
+        this.eventBus = builder.eventBus != null ? builder.eventBus : new EventBus();
+        this.stateFile = builder.stateFile;
+        if (this.stateFile != null) this.readSavedState(this.stateFile);
+        this.listener = CompositeLifecycleListener.of(List.copyOf(builder.listeners));
+        this.lifecycleDispatcher = new LifecycleDispatcher(builder.loadExecutor, this.lifecycleTimeout,
+                builder.lifecycleTimeout != null, this.listener);
+    }
+
+    private static @NotNull ScheduledExecutorService createScheduler() {
+        // The thread is only started when the first task is scheduled
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("module-scheduler").daemon().factory());
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
     }
 
+    private void readSavedState(@NotNull Path stateFile) {
+        try {
+            this.savedState.putAll(StateFile.read(stateFile));
+        } catch (IOException exception) {
+            LOGGER.warn("Failed to read saved module state from {}, modules will start without it", stateFile, exception);
+        }
+    }
+
+    /**
+     * Loads the modules, waiting for all of them except for background modules that nothing else requires.
+     */
     public void loadModules(@NotNull Collection<LoadableModule> modules) {
+        this.loadModulesAsync(modules).join();
+    }
+
+    /**
+     * Starts loading the modules without waiting for them, so that a host can wait for just the
+     * {@link #readiness(String) readiness groups} it needs. Without parallel loading, modules are still loaded before
+     * this returns.
+     *
+     * @return a future that completes once every module, except for background modules that nothing else requires,
+     * has finished loading, whether it loaded successfully or not
+     */
+    public @NotNull CompletableFuture<Void> loadModulesAsync(@NotNull Collection<LoadableModule> modules) {
         if (modules.isEmpty()) {
             LOGGER.warn("No modules provided to ModuleManager to be loaded");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        List<ModuleCandidate> loadedModules = this.candidateResolver.resolveCandidates(modules);
-        List<ModuleCandidate> sortedModules = this.sorter.sortModules(loadedModules);
-        Set<String> loadedModuleNames = new HashSet<>();
+        LoadPlan plan = this.updatePlan(modules);
+        List<ModuleCandidate> sortedModules = this.deferLazyModules(plan, plan.bind(modules));
 
-        for (ModuleCandidate candidate : sortedModules) {
-            if (!this.checkDependencies(candidate, loadedModuleNames)) continue;
+        CompletableFuture<Boolean>[] results = this.loadExecutor == null
+                ? this.loadSequentially(plan, sortedModules)
+                : this.loadInParallel(plan, sortedModules, this.loadExecutor);
+        return this.trackLoads(plan, sortedModules, results);
+    }
 
-            ModuleData data = candidate.data();
-            ModuleEnvironment environment = this.environmentProvider.create(candidate.data(), this);
+    /**
+     * The plan of every module given to this manager to be loaded, whether it loaded successfully or not.
+     */
+    public @Nullable LoadPlan loadPlan() {
+        return this.plan;
+    }
 
-            Module module;
-            try {
-                module = candidate.creator().create(environment);
-            } catch (Exception exception) {
-                LOGGER.error("Failed to create module {}", data.name(), exception);
+    /**
+     * Adds the modules to the plan, resolving and sorting everything from scratch for the first modules and
+     * incrementally updating the existing plan for any modules loaded after that.
+     */
+    private synchronized @NotNull LoadPlan updatePlan(@NotNull Collection<LoadableModule> modules) {
+        LoadPlan current = this.plan;
+        Supplier<List<ModuleCandidate>> resolver = () -> {
+            long resolveStart = System.nanoTime();
+            List<ModuleCandidate> resolved = this.candidateResolver.resolveCandidates(modules);
+            this.listener.onResolve(resolved.size(), System.nanoTime() - resolveStart);
+            return resolved;
+        };
+        List<ModuleCandidate> resolved;
+        if (this.planCache == null) {
+            resolved = resolver.get();
+        } else {
+            Set<Class<? extends Module>> classes = new HashSet<>();
+            modules.forEach(module -> classes.add(module.clazz()));
+            resolved = this.planCache.getCandidates(new LoadPlanCache.CandidatesKey(this.candidateResolver.getClass(), classes),
+                    modules, resolver);
+        }
+
+        // Conditions differ between managers sharing a cache, so they are applied before the cached plan is looked up
+        List<ModuleCandidate> candidates = this.applyConditions(resolved);
+        Collection<LoadableModule> included = modules;
+        if (candidates.size() != resolved.size()) {
+            Set<Class<? extends Module>> excluded = new HashSet<>();
+            resolved.forEach(candidate -> excluded.add(candidate.clazz()));
+            candidates.forEach(candidate -> excluded.remove(candidate.clazz()));
+            included = modules.stream().filter(module -> !excluded.contains(module.clazz())).toList();
+        }
+
+        // Validation runs even when the plan is cached, as managers sharing a cache may validate differently
+        List<ModuleCandidate> valid = this.validate(included, candidates, current);
+        Supplier<LoadPlan> planner = () -> {
+            long sortStart = System.nanoTime();
+            LoadPlan result = current == null ? LoadPlan.create(this.sorter.sortModules(valid)) : current.withModules(valid);
+            this.listener.onSort(valid.size(), System.nanoTime() - sortStart);
+            return result;
+        };
+
+        LoadPlan updated;
+        if (this.planCache == null) {
+            updated = planner.get();
+        } else {
+            Set<Class<? extends Module>> classes = new HashSet<>();
+            if (current != null) current.entries().forEach(entry -> classes.add(entry.clazz()));
+            valid.forEach(candidate -> classes.add(candidate.clazz()));
+
+            LoadPlanCache.Key key = new LoadPlanCache.Key(this.candidateResolver.getClass(), this.sorter.getClass(), classes);
+            updated = this.planCache.get(key, planner);
+        }
+
+        this.plan = updated;
+        return updated;
+    }
+
+    /**
+     * Holds back lazy modules so that they are only loaded when first requested, unless a module that is being loaded
+     * now requires them.
+     *
+     * @return the modules to load now, in dependency order
+     */
+    private @NotNull List<ModuleCandidate> deferLazyModules(@NotNull LoadPlan plan, @NotNull List<ModuleCandidate> sortedModules) {
+        BitSet required = new BitSet(plan.size());
+        List<ModuleCandidate> eager = new ArrayList<>(sortedModules.size());
+
+        // Dependents always come after their dependencies, so going backwards marks everything needed before it is reached
+        for (int i = sortedModules.size() - 1; i >= 0; i--) {
+            ModuleCandidate candidate = sortedModules.get(i);
+            int index = plan.indexOf(candidate.clazz());
+
+            if (candidate.data().lazy() && !required.get(index)) {
+                this.lazyModules.put(candidate.clazz(), candidate);
                 continue;
             }
 
-            Instant loadStart = Instant.now();
-            boolean loadResult;
+            required.or(plan.requiredDependencies(index));
+            eager.add(candidate);
+        }
+
+        Collections.reverse(eager);
+        return eager;
+    }
+
+    /**
+     * Creates and loads a lazy module, along with any lazy modules it depends on, if it has not been loaded already.
+     * Requesting a lazy module with {@link #getModule(Class)} activates it automatically.
+     *
+     * <p>Activating a module that is already being activated returns the same future, so concurrent first requests
+     * only load the module once. Modules activated after {@link #onReady()} has been fired are also made ready. If the
+     * module fails to load, it can be activated again later.</p>
+     *
+     * @return a future that completes with whether the module is loaded
+     */
+    public @NotNull CompletableFuture<Boolean> activate(@NotNull Class<? extends Module> type) {
+        if (this.modules.get(type) != null) return CompletableFuture.completedFuture(true);
+
+        CompletableFuture<Boolean> existing = this.activations.get(type);
+        if (existing != null) return existing;
+
+        ModuleCandidate candidate = this.lazyModules.get(type);
+        if (candidate == null) return CompletableFuture.completedFuture(false);
+
+        CompletableFuture<Boolean> activation = new CompletableFuture<>();
+        existing = this.activations.putIfAbsent(type, activation);
+        if (existing != null) return existing; // Another thread started activating it first
+
+        LoadPlan plan = Objects.requireNonNull(this.plan);
+        List<CompletableFuture<Boolean>> dependencies = new ArrayList<>();
+        for (Dependency dependency : candidate.data().dependencies()) {
+            int index = plan.indexOf(dependency.name());
+            if (index == -1) continue;
+
+            Class<? extends Module> dependencyType = plan.entry(index).clazz();
+            if (this.lazyModules.containsKey(dependencyType)) dependencies.add(this.activate(dependencyType));
+        }
+
+        Function<Void, CompletionStage<Boolean>> load = ignored -> {
+            if (!this.checkDependencies(candidate)) return CompletableFuture.completedFuture(false);
+            return this.loadModule(candidate);
+        };
+        CompletableFuture<Void> waitForDependencies = CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new));
+        CompletableFuture<Boolean> loaded = this.loadExecutor == null
+                ? waitForDependencies.thenCompose(load)
+                : waitForDependencies.thenComposeAsync(load, this.loadExecutor);
+
+        loaded.whenComplete((result, exception) -> {
+            boolean success = exception == null && result;
+            // A failed module stays lazy, so that a later request tries to activate it again
+            if (success) this.lazyModules.remove(type);
+            this.activations.remove(type, activation);
+            activation.complete(success);
+        });
+        return activation;
+    }
+
+    /**
+     * Leaves out modules whose conditions do not match, along with every module that requires them, directly or
+     * indirectly, so that a whole unused part of the graph is left out rather than failing validation.
+     *
+     * @return the candidates to load, in the order they were given
+     */
+    private @NotNull List<ModuleCandidate> applyConditions(@NotNull List<ModuleCandidate> candidates) {
+        Set<String> excluded = new HashSet<>();
+        for (ModuleCandidate candidate : candidates) {
+            if (!this.matchesConditions(candidate)) excluded.add(candidate.data().name());
+        }
+        if (excluded.isEmpty()) return candidates;
+
+        Map<String, List<String>> requiredBy = new HashMap<>();
+        for (ModuleCandidate candidate : candidates) {
+            for (Dependency dependency : candidate.data().dependencies()) {
+                if (dependency.required()) requiredBy.computeIfAbsent(dependency.name(), name -> new ArrayList<>()).add(candidate.data().name());
+            }
+        }
+
+        ArrayDeque<String> queue = new ArrayDeque<>(excluded);
+        while (!queue.isEmpty()) {
+            for (String dependent : requiredBy.getOrDefault(queue.poll(), List.of())) {
+                if (excluded.add(dependent)) queue.add(dependent);
+            }
+        }
+
+        LOGGER.info("Not loading {} module(s) whose conditions do not match, or that require one that does not: {}",
+                excluded.size(), excluded);
+        List<ModuleCandidate> included = new ArrayList<>(candidates.size() - excluded.size());
+        for (ModuleCandidate candidate : candidates) {
+            if (!excluded.contains(candidate.data().name())) included.add(candidate);
+        }
+        return included;
+    }
+
+    private boolean matchesConditions(@NotNull ModuleCandidate candidate) {
+        for (ModuleCondition condition : this.conditions) {
             try {
-                loadResult = module.onLoad();
+                if (!condition.matches(candidate)) return false;
             } catch (Exception exception) {
+                LOGGER.error("Failed to check condition {} for module {}, so it will not be loaded", condition,
+                        candidate.data().name(), exception);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks the whole module graph before anything is created, reporting every problem at once.
+     * Cycles and duplicate names always fail, and any other problems fail with strict validation. Otherwise, modules
+     * that can never load are left out of the plan, so they are never created.
+     *
+     * @return the candidates that can be loaded
+     */
+    private @NotNull List<ModuleCandidate> validate(@NotNull Collection<LoadableModule> modules,
+                                                    @NotNull List<ModuleCandidate> candidates, @Nullable LoadPlan current) {
+        Set<String> existing = new HashSet<>();
+        if (current != null) current.entries().forEach(entry -> existing.add(entry.data().name()));
+        for (ModuleManager ancestor = this.parent; ancestor != null; ancestor = ancestor.parent) {
+            LoadPlan ancestorPlan = ancestor.plan;
+            if (ancestorPlan != null) ancestorPlan.entries().forEach(entry -> existing.add(entry.data().name()));
+        }
+
+        ModuleValidator.Result result = ModuleValidator.validate(modules, candidates, existing);
+        if (result.problems().isEmpty()) return candidates;
+        if (this.strictValidation || result.fatal()) throw new ModuleValidationException(result.problems());
+
+        LOGGER.error("Skipping {} module(s) that cannot load:\n - {}", modules.size() - result.loadable().size(),
+                String.join("\n - ", result.problems().stream().map(ModuleProblem::toString).toList()));
+        return result.loadable();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull CompletableFuture<Boolean>[] newResults(int size) {
+        // Arrays of generic types cannot be created directly, and this one never holds anything but boolean futures
+        return (CompletableFuture<Boolean>[]) new CompletableFuture<?>[size];
+    }
+
+    /**
+     * @return the result of each module by its index in the plan, which are all complete
+     */
+    private @NotNull CompletableFuture<Boolean>[] loadSequentially(@NotNull LoadPlan plan, @NotNull List<ModuleCandidate> sortedModules) {
+        CompletableFuture<Boolean>[] results = newResults(plan.size());
+        BitSet batch = this.indexesOf(plan, sortedModules);
+        BitSet skipped = new BitSet(plan.size());
+
+        for (ModuleCandidate candidate : sortedModules) {
+            int index = plan.indexOf(candidate.clazz());
+            if (skipped.get(index)) {
+                results[index] = CompletableFuture.completedFuture(false);
+                continue;
+            }
+
+            boolean loaded = this.checkDependencies(candidate) && this.loadModule(candidate).join();
+            if (!loaded) this.skipDependents(plan, index, batch, skipped);
+            results[index] = CompletableFuture.completedFuture(loaded);
+        }
+        return results;
+    }
+
+    /**
+     * Schedules every module as soon as all of its dependencies that are present in this load have finished, so that
+     * independent branches of the dependency graph load at the same time.
+     * This relies on the sorted order, as it guarantees that a module's dependencies have already been scheduled.
+     * Dependencies that are still loading from an earlier load, such as background modules, are waited for as well.
+     *
+     * <p>Asynchronous loads are composed rather than waited on, so a module that is waiting on a remote service does
+     * not hold up a thread, and its dependents start as soon as it completes.</p>
+     *
+     * <p>When a module fails, everything that requires it is cancelled before the failure is completed, by completing
+     * their results as not loaded. Modules that only optionally depend on them then start straight away.</p>
+     *
+     * @return the result of each module by its index in the plan
+     */
+    private @NotNull CompletableFuture<Boolean>[] loadInParallel(@NotNull LoadPlan plan, @NotNull List<ModuleCandidate> sortedModules, @NotNull Executor executor) {
+        CompletableFuture<Boolean>[] results = newResults(plan.size());
+        BitSet batch = this.indexesOf(plan, sortedModules);
+        BitSet skipped = new BitSet(plan.size());
+        long scheduleStart = System.nanoTime();
+
+        // Held while scheduling, so that a later load sees every module of this load that has not finished
+        synchronized (this.parallelLoads) {
+            for (ModuleCandidate candidate : sortedModules) {
+                this.scheduleInParallel(plan, candidate, results, batch, skipped, scheduleStart, executor);
+            }
+        }
+        return results;
+    }
+
+    private void scheduleInParallel(@NotNull LoadPlan plan, @NotNull ModuleCandidate candidate, @NotNull CompletableFuture<Boolean>[] results,
+                                    @NotNull BitSet batch, @NotNull BitSet skipped, long scheduleStart, @NotNull Executor executor) {
+        int index = plan.indexOf(candidate.clazz());
+
+        BitSet dependencyIndexes = plan.dependencies(index);
+        List<CompletableFuture<?>> dependencies = new ArrayList<>(dependencyIndexes.cardinality());
+        for (int dependency = dependencyIndexes.nextSetBit(0); dependency >= 0; dependency = dependencyIndexes.nextSetBit(dependency + 1)) {
+            if (results[dependency] != null) {
+                dependencies.add(results[dependency]);
+                continue;
+            }
+
+            // Dependencies from an earlier load may still be loading, such as background modules, so those are waited
+            // for too. Any others have already loaded or failed.
+            CompletableFuture<Boolean> earlier = this.parallelLoads.get(plan.entry(dependency).clazz());
+            if (earlier != null) dependencies.add(earlier);
+        }
+
+        results[index] = CompletableFuture.allOf(dependencies.toArray(CompletableFuture[]::new))
+                .thenComposeAsync(ignored -> {
+                    // The module may have been skipped before it was scheduled, so it could not be cancelled
+                    synchronized (skipped) {
+                        if (skipped.get(index)) return CompletableFuture.completedFuture(false);
+                    }
+
+                    this.listener.onDependencyWait(candidate.data(), System.nanoTime() - scheduleStart);
+                    CompletableFuture<Boolean> result = this.checkDependencies(candidate)
+                            ? this.loadModule(candidate)
+                            : CompletableFuture.completedFuture(false);
+                    return result.thenApply(loaded -> {
+                        if (loaded) return true;
+
+                        BitSet dependents = this.skipDependents(plan, index, batch, skipped);
+                        for (int dependent = dependents.nextSetBit(0); dependent >= 0; dependent = dependents.nextSetBit(dependent + 1)) {
+                            if (results[dependent] != null) results[dependent].complete(false);
+                        }
+                        return false;
+                    });
+                }, executor);
+
+        CompletableFuture<Boolean> load = results[index];
+        this.parallelLoads.put(candidate.clazz(), load);
+        load.whenComplete((loaded, exception) -> this.parallelLoads.remove(candidate.clazz(), load));
+    }
+
+    /**
+     * Adds the loads to the readiness groups, background loads, and loads that {@link #onUnload()} waits for.
+     *
+     * <p>Background modules that a module in this load depends on are waited for anyway, by the modules that depend
+     * on them. The rest can keep loading after startup, and can be waited for with {@link #backgroundLoads()}.</p>
+     *
+     * @return a future that completes once every module that is not in the background has finished loading
+     */
+    private @NotNull CompletableFuture<Void> trackLoads(@NotNull LoadPlan plan, @NotNull List<ModuleCandidate> sortedModules,
+                                                        @NotNull CompletableFuture<Boolean>[] results) {
+        List<CompletableFuture<Boolean>> foreground = new ArrayList<>(sortedModules.size());
+        List<CompletableFuture<Boolean>> background = new ArrayList<>();
+
+        synchronized (this) {
+            for (ModuleCandidate candidate : sortedModules) {
+                CompletableFuture<Boolean> result = results[plan.indexOf(candidate.clazz())];
+                // A background module that a more urgent module depends on is not loaded in the background
+                boolean inBackground = plan.priority(plan.indexOf(candidate.clazz())) == ModuleData.Priority.BACKGROUND;
+                (inBackground ? background : foreground).add(result);
+
+                String group = candidate.data().readinessGroup();
+                if (!group.isEmpty()) this.readinessGroups.merge(group, result, (first, second) -> first.thenCombine(second, Boolean::logicalAnd));
+            }
+
+            CompletableFuture<Void> backgroundResults = CompletableFuture.allOf(background.toArray(CompletableFuture[]::new));
+            CompletableFuture<Void> foregroundResults = CompletableFuture.allOf(foreground.toArray(CompletableFuture[]::new));
+            if (!background.isEmpty()) {
+                LOGGER.info("Loading {} module(s) in the background", background.size());
+                this.backgroundLoads = CompletableFuture.allOf(this.backgroundLoads, backgroundResults);
+            }
+            this.pendingLoads = CompletableFuture.allOf(this.pendingLoads, foregroundResults, backgroundResults);
+            return foregroundResults;
+        }
+    }
+
+    /**
+     * A future that completes once every module in the readiness group has finished loading, so that a host can, for
+     * example, start accepting players as soon as the modules they need are ready, while the rest are still loading.
+     * If {@link #onReady()} is fired once the group is ready, modules that finish loading after that are made ready
+     * as they finish.
+     *
+     * <p>Only modules that have started loading are part of the group, so a group with no modules is ready straight
+     * away. Lazy modules that were not loaded at startup are not part of it.</p>
+     *
+     * @return a future that completes with whether every module in the group loaded successfully
+     */
+    public synchronized @NotNull CompletableFuture<Boolean> readiness(@NotNull String group) {
+        CompletableFuture<Boolean> readiness = this.readinessGroups.get(group);
+        return readiness != null ? readiness.copy() : CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * A future that completes once every background module that has been started has finished loading, whether it
+     * loaded successfully or not. Background modules are only loaded in the background with parallel loading.
+     */
+    public @NotNull CompletableFuture<Void> backgroundLoads() {
+        return this.backgroundLoads;
+    }
+
+    private @NotNull BitSet indexesOf(@NotNull LoadPlan plan, @NotNull List<ModuleCandidate> candidates) {
+        BitSet indexes = new BitSet(plan.size());
+        for (ModuleCandidate candidate : candidates) {
+            indexes.set(plan.indexOf(candidate.clazz()));
+        }
+        return indexes;
+    }
+
+    /**
+     * Marks every module in this load that requires the failed module, directly or indirectly, as skipped, and reports
+     * all of them at once.
+     *
+     * @return the modules that were newly skipped
+     */
+    private @NotNull BitSet skipDependents(@NotNull LoadPlan plan, int failed, @NotNull BitSet batch, @NotNull BitSet skipped) {
+        BitSet dependents = plan.requiredDependents(failed);
+        dependents.and(batch);
+        synchronized (skipped) {
+            dependents.andNot(skipped);
+            skipped.or(dependents);
+        }
+        if (dependents.isEmpty()) return dependents;
+
+        List<ModuleData> skippedData = new ArrayList<>(dependents.cardinality());
+        for (int dependent = dependents.nextSetBit(0); dependent >= 0; dependent = dependents.nextSetBit(dependent + 1)) {
+            skippedData.add(plan.entry(dependent).data());
+        }
+
+        ModuleData failedData = plan.entry(failed).data();
+        LOGGER.error("Module {} failed to load, skipping {} module(s) that require it: {}", failedData.name(), skippedData.size(),
+                skippedData.stream().map(ModuleData::name).toList());
+        this.listener.onSkipped(failedData, skippedData);
+        return dependents;
+    }
+
+    /**
+     * Creates and loads the module, and adds it to the loaded modules, firing onReady if {@link #onReady()} has already
+     * been fired. The returned future never completes exceptionally, and completes with whether the module was
+     * successfully loaded.
+     */
+    private @NotNull CompletableFuture<Boolean> loadModule(@NotNull ModuleCandidate candidate) {
+        return this.createAndLoad(candidate, this).thenApply(module -> {
+            if (module == null) return false;
+
+            this.loadedModuleNames.add(candidate.data().name());
+            this.modules.put(ModuleKey.of(candidate.clazz()), module);
+
+            LoadedModule loaded = new LoadedModule(candidate, module);
+            boolean lateReady;
+            synchronized (this.loadOrder) {
+                // A module can only finish loading after its dependencies have, so this is always in dependency order
+                this.loadOrder.add(loaded);
+                lateReady = this.ready;
+            }
+            // Modules that finish loading after onReady, such as lazy and background modules, are made ready straight away
+            if (lateReady) this.lifecycleDispatcher.dispatchInOrder(ModulePhase.READY, List.of(loaded), Module::onReady);
+            return true;
+        });
+    }
+
+    /**
+     * Creates and loads the module without adding it to the loaded modules, retrying with a new instance according to
+     * the module's retry policy. The returned future never completes exceptionally, and completes with the module if it
+     * was successfully loaded.
+     */
+    private @NotNull CompletableFuture<@Nullable Module> createAndLoad(@NotNull ModuleCandidate candidate,
+                                                                      @NotNull ModuleProvider provider) {
+        RetryPolicy policy = this.retryPolicies.getOrDefault(candidate.clazz(), this.defaultRetryPolicy);
+        return this.attempt(candidate, provider, policy, 1, System.nanoTime());
+    }
+
+    /**
+     * Retries are scheduled after the backoff rather than waited for, so a module waiting to retry does not hold up a
+     * thread, or any module that does not require it.
+     */
+    private @NotNull CompletableFuture<@Nullable Module> attempt(@NotNull ModuleCandidate candidate, @NotNull ModuleProvider provider,
+                                                                @NotNull RetryPolicy policy, int attempt, long firstStart) {
+        CompletableFuture<@Nullable Module> result = this.loadScheduler != null
+                ? this.loadScheduler.submit(candidate.data(), this.priorityOf(candidate), () -> this.createAndLoadOnce(candidate, provider))
+                : this.createAndLoadOnce(candidate, provider);
+        return result.thenCompose(module -> {
+            if (module != null || attempt >= policy.maxAttempts()) return CompletableFuture.completedFuture(module);
+
+            ModuleData data = candidate.data();
+            long delay = policy.backoffNanos(attempt);
+            Duration deadline = policy.deadline();
+            if (deadline != null && System.nanoTime() + delay - firstStart > deadline.toNanos()) {
+                LOGGER.error("Giving up on module {} after {} attempt(s), as its retry deadline of {}ms has passed",
+                        data.name(), attempt, deadline.toMillis());
+                return CompletableFuture.completedFuture(null);
+            }
+
+            LOGGER.warn("Retrying module {} in {}ms (attempt {} of {})", data.name(), TimeUnit.NANOSECONDS.toMillis(delay),
+                    attempt + 1, policy.maxAttempts());
+            this.listener.onRetry(data, attempt, delay);
+
+            Executor delayed = this.loadExecutor != null
+                    ? CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, this.loadExecutor)
+                    : CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS);
+            return CompletableFuture.runAsync(() -> {}, delayed)
+                    .thenCompose(ignored -> this.attempt(candidate, provider, policy, attempt + 1, firstStart));
+        });
+    }
+
+    /**
+     * @return the priority from the plan, which includes the priorities of the module's dependents
+     */
+    private @NotNull ModuleData.Priority priorityOf(@NotNull ModuleCandidate candidate) {
+        LoadPlan plan = this.plan;
+        int index = plan != null ? plan.indexOf(candidate.clazz()) : -1;
+        return index != -1 ? plan.priority(index) : candidate.data().priority();
+    }
+
+    private @NotNull CompletableFuture<@Nullable Module> createAndLoadOnce(@NotNull ModuleCandidate candidate,
+                                                                          @NotNull ModuleProvider provider) {
+        ModuleData data = candidate.data();
+        ModuleExecutors executors = new ModuleExecutors(data.name(), this.scheduler);
+        ModuleEvents events = this.eventBus.forModule(data.name(), executors.executor());
+        ModuleResources resources = new ModuleResources(executors, events);
+
+        long createStart = System.nanoTime();
+        Module module;
+        try {
+            ModuleEnvironment environment = this.environmentProvider.create(data, provider, resources);
+            module = candidate.creator().create(environment);
+        } catch (Exception exception) {
+            LOGGER.error("Failed to create module {}", data.name(), exception);
+            this.listener.onFailure(data, ModulePhase.CREATE, exception);
+            events.close();
+            executors.close();
+            return CompletableFuture.completedFuture(null);
+        }
+        this.listener.onPhase(data, ModulePhase.CREATE, System.nanoTime() - createStart);
+        if (module instanceof PersistentState persistent) this.restoreState(data, persistent);
+
+        long loadStart = System.nanoTime();
+        CompletionStage<Boolean> loadResult;
+        try {
+            loadResult = module.onLoadAsync();
+        } catch (Exception exception) {
+            LOGGER.error("Failed to load module {}", data.name(), exception);
+            this.listener.onFailure(data, ModulePhase.LOAD, exception);
+            events.close();
+            executors.close();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return loadResult.toCompletableFuture().handle((result, exception) -> {
+            if (exception != null) {
                 LOGGER.error("Failed to load module {}", data.name(), exception);
+                this.listener.onFailure(data, ModulePhase.LOAD, exception);
+                events.close();
+                executors.close();
+                return null;
+            }
+            if (result == null || !result) { // Failed to load
+                this.listener.onFailure(data, ModulePhase.LOAD, null);
+                events.close();
+                executors.close();
+                return null;
+            }
+
+            long loadDuration = System.nanoTime() - loadStart;
+            this.resources.put(module, resources);
+            this.listener.onPhase(data, ModulePhase.LOAD, loadDuration);
+            LOGGER.info("Loaded module {} in {}ms", data.name(), TimeUnit.NANOSECONDS.toMillis(loadDuration));
+            return module;
+        });
+    }
+
+    /**
+     * Restores the state saved by the previous start, if there is any. State is only restored once, so that a module
+     * that is reloaded later does not go back to old state.
+     */
+    private void restoreState(@NotNull ModuleData data, @NotNull PersistentState module) {
+        StateFile.Entry entry = this.savedState.remove(data.name());
+        if (entry == null) return;
+        if (entry.version() != module.stateVersion()) {
+            LOGGER.info("Not restoring saved state for module {}, as it was saved with version {} rather than {}", data.name(),
+                    entry.version(), module.stateVersion());
+            return;
+        }
+
+        try {
+            module.readState(entry.state().duplicate());
+        } catch (Exception exception) {
+            LOGGER.error("Failed to restore saved state for module {}", data.name(), exception);
+        }
+    }
+
+    /**
+     * Saves the state of every loaded module that implements {@link PersistentState} to the state file, replacing the
+     * state saved before. This is also done when the manager is unloaded.
+     *
+     * @return whether the state was saved, which is always false without a state file
+     */
+    public boolean saveState() {
+        if (this.stateFile == null) return false;
+
+        Map<String, StateFile.Entry> entries = new HashMap<>();
+        for (LoadedModule loaded : this.loadOrder) {
+            if (!(loaded.module() instanceof PersistentState persistent)) continue;
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(bytes)) {
+                persistent.writeState(output);
+            } catch (Exception exception) {
+                LOGGER.error("Failed to save state for module {}", loaded.name(), exception);
                 continue;
             }
+            entries.put(loaded.name(), new StateFile.Entry(persistent.stateVersion(), ByteBuffer.wrap(bytes.toByteArray())));
+        }
+
+        try {
+            StateFile.write(this.stateFile, entries);
+        } catch (IOException exception) {
+            LOGGER.error("Failed to write module state to {}", this.stateFile, exception);
+            return false;
+        }
+        LOGGER.info("Saved state for {} module(s) to {}", entries.size(), this.stateFile);
+        return true;
+    }
+
+    /**
+     * Prepares every loaded module for the process to be checkpointed, dependents first, so that each module can still
+     * use its dependencies while it closes its connections.
+     *
+     * <p>If any module fails, the checkpoint should be abandoned, and {@link #afterRestore()} called to reopen what the
+     * other modules closed.</p>
+     *
+     * @return whether every module was prepared
+     */
+    public boolean beforeCheckpoint() {
+        return this.lifecycleDispatcher.dispatchInReverseOrder(ModulePhase.CHECKPOINT, this.loadOrder, Module::beforeCheckpoint);
+    }
+
+    /**
+     * Resumes every loaded module after the process was restored from a checkpoint, or a checkpoint failed, in
+     * dependency order.
+     */
+    public void afterRestore() {
+        this.lifecycleDispatcher.dispatchInOrder(ModulePhase.RESTORE, this.loadOrder, Module::afterRestore);
+    }
+
+    /**
+     * Unloads a loaded module at runtime, along with every loaded module that requires it, directly or indirectly.
+     * Dependents are unloaded before their dependencies, and modules that only optionally depend on it are kept.
+     *
+     * <p>The unloaded modules are also removed from the load plan, so they can be loaded again later with
+     * {@link #loadModules(Collection)}.</p>
+     *
+     * @return whether the module was loaded
+     */
+    public synchronized boolean unloadModule(@NotNull Class<? extends Module> type) {
+        LoadedModule target = this.findLoaded(type);
+        if (target == null) return false;
+
+        List<LoadedModule> affected = this.collectDependents(target, true);
+        List<ModuleKey<?>> keys = new ArrayList<>(affected.size());
+        Set<Class<? extends Module>> types = new HashSet<>();
+        for (LoadedModule loaded : affected) {
+            keys.add(ModuleKey.of(loaded.candidate().clazz()));
+            types.add(loaded.candidate().clazz());
+            this.loadedModuleNames.remove(loaded.name());
+            this.activations.remove(loaded.candidate().clazz());
+        }
+        this.modules.removeAll(keys);
+        this.loadOrder.removeAll(affected);
+
+        LoadPlan plan = this.plan;
+        if (plan != null) this.plan = plan.withoutModules(types);
+
+        LOGGER.info("Unloading modules {}", affected.stream().map(LoadedModule::name).toList());
+        this.lifecycleDispatcher.dispatchInReverseOrder(ModulePhase.UNLOAD, affected, this::unload);
+        return true;
+    }
+
+    /**
+     * Reloads a loaded module at runtime with the same creator.
+     *
+     * @see #reloadModule(Class, LoadableModule.Creator)
+     */
+    public boolean reloadModule(@NotNull Class<? extends Module> type) {
+        return this.reloadModule(type, null);
+    }
+
+    /**
+     * Reloads a loaded module at runtime, along with every loaded module that depends on it, directly or indirectly, so
+     * that none of them keep using the old instance.
+     *
+     * <p>The new instances are created and loaded in dependency order while the old instances keep running, then all
+     * of them replace the old instances at once, so {@link #getModule(Class)} returns either all old or all new
+     * instances. The old instances are only unloaded after this. If any of the new instances fail to load, the ones
+     * that did load are unloaded, and the old instances are kept.</p>
+     *
+     * @param creator the creator for the new instance of the module, or null to use the one it was created with
+     * @return whether the module was loaded and has been replaced
+     */
+    public synchronized boolean reloadModule(@NotNull Class<? extends Module> type, @Nullable LoadableModule.Creator creator) {
+        LoadedModule target = this.findLoaded(type);
+        if (target == null) return false;
+
+        List<LoadedModule> affected = this.collectDependents(target, false);
+        StagedModuleProvider staging = new StagedModuleProvider(this);
+        List<LoadedModule> replacements = new ArrayList<>(affected.size());
+
+        for (LoadedModule old : affected) {
+            ModuleCandidate candidate = old.candidate();
+            if (old == target && creator != null) candidate = new ModuleCandidate(candidate.clazz(), creator, candidate.data());
+
+            Module module = this.createAndLoad(candidate, staging).join();
+            if (module == null) {
+                LOGGER.error("Failed to reload module {}, keeping the loaded modules {}", target.name(),
+                        affected.stream().map(LoadedModule::name).toList());
+                staging.release();
+                this.lifecycleDispatcher.dispatchInReverseOrder(ModulePhase.UNLOAD, replacements, this::unload);
+                return false;
+            }
+
+            staging.stage(candidate.clazz(), module);
+            replacements.add(new LoadedModule(candidate, module));
+        }
+
+        Map<ModuleKey<?>, Module> swapped = new HashMap<>();
+        Map<LoadedModule, LoadedModule> replacementsByOld = new HashMap<>();
+        for (int i = 0; i < affected.size(); i++) {
+            swapped.put(ModuleKey.of(replacements.get(i).candidate().clazz()), replacements.get(i).module());
+            replacementsByOld.put(affected.get(i), replacements.get(i));
+        }
+        this.modules.putAll(swapped);
+        this.loadOrder.replaceAll(loaded -> replacementsByOld.getOrDefault(loaded, loaded));
+        staging.release();
+
+        LOGGER.info("Reloaded modules {}", affected.stream().map(LoadedModule::name).toList());
+        this.lifecycleDispatcher.dispatchInReverseOrder(ModulePhase.UNLOAD, affected, this::unload);
+        if (this.ready) this.lifecycleDispatcher.dispatchInOrder(ModulePhase.READY, replacements, Module::onReady);
+        return true;
+    }
+
+    /**
+     * @return the loaded modules, in the order they were loaded
+     */
+    @NotNull List<LoadedModule> loadedModules() {
+        return this.loadOrder;
+    }
+
+    /**
+     * @return whether {@link #onReady()} has been fired
+     */
+    boolean isReady() {
+        return this.ready;
+    }
+
+    private @Nullable LoadedModule findLoaded(@NotNull Class<? extends Module> type) {
+        for (LoadedModule loaded : this.loadOrder) {
+            if (loaded.candidate().clazz() == type) return loaded;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the module and every loaded module that depends on it, directly or indirectly, in dependency order.
+     */
+    private @NotNull List<LoadedModule> collectDependents(@NotNull LoadedModule target, boolean requiredOnly) {
+        List<LoadedModule> loadOrder = List.copyOf(this.loadOrder);
+        Set<String> affectedNames = new HashSet<>();
+        affectedNames.add(target.name());
+        List<LoadedModule> affected = new ArrayList<>();
+        affected.add(target);
 
-            Duration loadDuration = Duration.between(loadStart, Instant.now());
-            if (!loadResult) continue; // Failed to load
+        // Dependents are always loaded after their dependencies, so one pass from the target finds all of them
+        for (int i = loadOrder.indexOf(target) + 1; i < loadOrder.size(); i++) {
+            LoadedModule loaded = loadOrder.get(i);
+            for (Dependency dependency : loaded.candidate().data().dependencies()) {
+                if (requiredOnly && !dependency.required()) continue;
+                if (!affectedNames.contains(dependency.name())) continue;
 
-            loadedModuleNames.add(data.name());
-            this.modules.put(candidate.clazz(), module);
-            LOGGER.info("Loaded module {} in {}ms", data.name(), loadDuration.toMillis());
+                affectedNames.add(loaded.name());
+                affected.add(loaded);
+                break;
+            }
         }
+        return affected;
     }
 
-    private boolean checkDependencies(@NotNull ModuleCandidate candidate, @NotNull Set<String> loadedModuleNames) {
+    private boolean checkDependencies(@NotNull ModuleCandidate candidate) {
         for (Dependency dependency : candidate.data().dependencies()) {
             if (!dependency.required()) continue; // Only fail load for required dependencies
-            if (loadedModuleNames.contains(dependency.name())) continue; // Dependency is loaded
+            if (this.loadedModuleNames.contains(dependency.name())) continue; // Dependency is loaded
+            if (this.parent != null && this.parent.provide(dependency.name())) continue; // Dependency is shared by a parent
 
             LOGGER.error("Failed to load module {} due to missing dependency {}", candidate.data().name(), dependency.name());
             return false;
@@ -98,28 +967,133 @@ public final class ModuleManager implements ModuleProvider {
         return true;
     }
 
+    /**
+     * @return the event bus that modules loaded by this manager subscribe to
+     */
+    public @NotNull EventBus eventBus() {
+        return this.eventBus;
+    }
+
+    /**
+     * Gets a loaded module, activating it first if it is lazy and has not been loaded yet.
+     */
     @Override
     public <T extends Module> @Nullable T getModule(@NotNull Class<T> type) {
-        return type.cast(this.modules.get(type));
+        // Looked up by class, rather than through a key, so that types that were never loaded do not take a slot
+        T module = this.modules.get(type);
+        if (module == null && this.isActivatable(type)) {
+            this.activate(type).join();
+            module = this.modules.get(type);
+        }
+
+        if (module == null && this.parent != null) return this.parent.getModule(type);
+        return module;
     }
 
-    public void onReady() {
-        for (Module module : this.modules.values()) {
-            Instant readyStart = Instant.now();
-            module.onReady();
+    @Override
+    public <T extends Module> @Nullable T getModule(@NotNull ModuleKey<T> key) {
+        T module = this.modules.get(key);
+        if (module == null && this.isActivatable(key.type())) {
+            this.activate(key.type()).join();
+            module = this.modules.get(key);
+        }
+
+        if (module == null && this.parent != null) return this.parent.getModule(key);
+        return module;
+    }
+
+    /**
+     * Checked before activating, so that looking up a module that is not lazy, such as an optional module that was
+     * never registered, does not allocate or block.
+     */
+    private boolean isActivatable(@NotNull Class<? extends Module> type) {
+        return this.lazyModules.containsKey(type) || this.activations.containsKey(type);
+    }
+
+    /**
+     * Makes sure the module with the given name is loaded by this manager or one of its parents, activating it if it
+     * is lazy, for a child manager that requires it.
+     *
+     * @return whether the module is loaded
+     */
+    private boolean provide(@NotNull String name) {
+        if (this.loadedModuleNames.contains(name)) return true;
+
+        for (ModuleCandidate candidate : this.lazyModules.values()) {
+            if (candidate.data().name().equals(name)) return this.activate(candidate.clazz()).join();
+        }
+        return this.parent != null && this.parent.provide(name);
+    }
 
-            Duration readyDuration = Duration.between(readyStart, Instant.now());
-            LOGGER.info("Fired onReady for module {} in {}ms", module.getClass().getSimpleName(), readyDuration.toMillis());
+    /**
+     * Fires onReady for all loaded modules, with dependencies being fired before their dependents.
+     */
+    public void onReady() {
+        List<LoadedModule> loaded;
+        synchronized (this.loadOrder) {
+            this.ready = true;
+            loaded = List.copyOf(this.loadOrder);
         }
+        this.lifecycleDispatcher.dispatchInOrder(ModulePhase.READY, loaded, Module::onReady);
     }
 
+    /**
+     * Unloads all loaded modules, with dependents being unloaded before their dependencies.
+     */
     public void onUnload() {
-        for (Module module : this.modules.values()) {
-            Instant unloadStart = Instant.now();
+        this.awaitPendingLoads();
+        // Saved before unloading, while modules still have their state
+        if (this.stateFile != null) this.saveState();
+        this.lifecycleDispatcher.dispatchInReverseOrder(ModulePhase.UNLOAD, this.loadOrder, this::unload);
+        if (this.ownsScheduler) this.scheduler.shutdownNow();
+    }
+
+    /**
+     * Waits for modules that are still loading, such as background modules, so that they are unloaded with everything
+     * else rather than left running.
+     */
+    private void awaitPendingLoads() {
+        try {
+            this.pendingLoads.get(this.lifecycleTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            LOGGER.warn("Modules did not finish loading within {}ms, unloading without them",
+                    this.lifecycleTimeout.toMillis());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exception) {
+            // Loads never complete exceptionally
+        }
+    }
+
+    /**
+     * Unloads the module, then removes its listeners and shuts down its threads, even if unloading failed.
+     */
+    private void unload(@NotNull Module module) {
+        try {
             module.onUnload();
+        } finally {
+            ModuleResources resources = this.resources.remove(module);
+            if (resources != null) {
+                resources.events().close();
+                resources.executors().close();
+            }
+        }
+    }
+
+    /**
+     * Creates {@link BasicModuleEnvironment}s, which always need the module's resources.
+     */
+    private static final class BasicEnvironmentProvider implements ModuleEnvironmentProvider {
+
+        @Override
+        public @NotNull ModuleEnvironment create(@NotNull ModuleData data, @NotNull ModuleProvider provider) {
+            throw new UnsupportedOperationException("Basic environments are created with the module's resources");
+        }
 
-            Duration unloadDuration = Duration.between(unloadStart, Instant.now());
-            LOGGER.info("Unloaded module {} in {}ms", module.getClass().getSimpleName(), unloadDuration.toMillis());
+        @Override
+        public @NotNull ModuleEnvironment create(@NotNull ModuleData data, @NotNull ModuleProvider provider,
+                                                 @NotNull ModuleResources resources) {
+            return new BasicModuleEnvironment(data, provider, resources);
         }
     }
 
@@ -128,7 +1102,21 @@ public final class ModuleManager implements ModuleProvider {
         private @Nullable ModuleCandidateResolver candidateResolver;
         private @Nullable ModuleSorter sorter;
         private @Nullable ModuleEnvironmentProvider environmentProvider;
+        private @Nullable Executor loadExecutor;
+        private @Nullable ScheduledExecutorService scheduler;
+        private @Nullable EventBus eventBus;
+        private @Nullable Path stateFile;
+        private @Nullable ModuleManager parent;
+        private @Nullable Set<String> profiles;
+        private final List<ModuleCondition> conditions = new ArrayList<>();
+        private @Nullable Duration lifecycleTimeout;
+        private int cpuLoadLimit = Runtime.getRuntime().availableProcessors();
+        private @Nullable LoadPlanCache planCache;
+        private boolean strictValidation;
+        private @NotNull RetryPolicy defaultRetryPolicy = RetryPolicy.none();
 
+        private final List<ModuleLifecycleListener> listeners = new ArrayList<>();
+        private final Map<Class<? extends Module>, RetryPolicy> retryPolicies = new HashMap<>();
         private final Map<Class<? extends Module>, LoadableModule> modules = new HashMap<>();
 
         private Builder() {
@@ -149,19 +1137,192 @@ public final class ModuleManager implements ModuleProvider {
             return this;
         }
 
+        /**
+         * Loads independent modules at the same time, each on its own virtual thread.
+         */
+        public @NotNull Builder parallelLoading() {
+            return this.parallelLoading(task -> Thread.ofVirtual().name("module-loader").start(task));
+        }
+
+        /**
+         * Loads independent modules at the same time on the given executor.
+         * A module is still only loaded once all of its dependencies have finished loading.
+         * The executor is also used to fire onReady and onUnload across independent modules at the same time.
+         */
+        public @NotNull Builder parallelLoading(@NotNull Executor executor) {
+            this.loadExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Sets how many {@link ModuleData.Workload#CPU} modules may load at the same time with parallel loading, which
+         * is the number of available processors by default. IO bound modules are not limited.
+         */
+        public @NotNull Builder cpuLoadLimit(int cpuLoadLimit) {
+            if (cpuLoadLimit < 1) throw new IllegalArgumentException("CPU load limit must be at least 1");
+            this.cpuLoadLimit = cpuLoadLimit;
+            return this;
+        }
+
+        /**
+         * Sets the scheduler that modules schedule tasks on through {@link ModuleExecutors}, which can be shared with
+         * other managers. By default, the manager uses its parent's, or creates its own single thread scheduler, and
+         * shuts it down in {@link #onUnload()}.
+         */
+        public @NotNull Builder scheduler(@NotNull ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Sets the event bus that modules subscribe to and post events on, which can be shared with other managers.
+         * By default, the manager creates its own.
+         */
+        public @NotNull Builder eventBus(@NotNull EventBus eventBus) {
+            this.eventBus = eventBus;
+            return this;
+        }
+
+        /**
+         * Saves the state of modules that implement {@link PersistentState} to the given file when the manager is
+         * unloaded, and restores it from the file when they are next created.
+         */
+        public @NotNull Builder stateFile(@NotNull Path stateFile) {
+            this.stateFile = stateFile;
+            return this;
+        }
+
+        /**
+         * Sets the active profiles, which modules can require with a {@link Condition.Type#PROFILE} condition.
+         * By default, a child manager has the profiles of its parent, and other managers have none.
+         */
+        public @NotNull Builder profiles(@NotNull String... profiles) {
+            this.profiles = Set.of(profiles);
+            return this;
+        }
+
+        /**
+         * Adds a condition that every module must match to be loaded, as well as the conditions in its
+         * {@link ModuleData}.
+         */
+        public @NotNull Builder condition(@NotNull ModuleCondition condition) {
+            this.conditions.add(condition);
+            return this;
+        }
+
+        /**
+         * Makes this a child of the given manager, for running many isolated instances that share the parent's modules.
+         *
+         * <p>Modules that are not loaded by the child are looked up in the parent, so child modules can depend on and
+         * be injected with the parent's modules, which are only created once. Unless they are set on this builder, the
+         * child also uses the parent's candidate resolver, sorter, environment provider and scheduler, and shares a
+         * plan cache with the parent's other children, so children loading the same modules reuse the same resolved and
+         * sorted plan.</p>
+         *
+         * <p>Children should be unloaded before their parent, as the parent does not track them.</p>
+         */
+        public @NotNull Builder parent(@NotNull ModuleManager parent) {
+            this.parent = parent;
+            return this;
+        }
+
+        /**
+         * Sets how long each lifecycle phase, such as onReady and onUnload, may take for all modules.
+         * Modules still running after this are logged and no longer waited for. With parallel loading, phases always
+         * time out, after 30 seconds by default.
+         *
+         * <p>Without parallel loading, phases run on the calling thread unless this is set, in which case each module
+         * runs on its own virtual thread so that the wait can be bounded.</p>
+         */
+        public @NotNull Builder lifecycleTimeout(@NotNull Duration lifecycleTimeout) {
+            this.lifecycleTimeout = lifecycleTimeout;
+            return this;
+        }
+
+        /**
+         * Reuses load plans from the given cache, which can be shared with other managers loading the same modules.
+         */
+        public @NotNull Builder loadPlanCache(@NotNull LoadPlanCache planCache) {
+            this.planCache = planCache;
+            return this;
+        }
+
+        /**
+         * Fails loading with a {@link ModuleValidationException} if any module cannot be loaded because of a problem
+         * in the module graph, such as an unknown required dependency, rather than skipping the modules involved.
+         * Dependency cycles and duplicate names always fail.
+         */
+        public @NotNull Builder strictValidation() {
+            this.strictValidation = true;
+            return this;
+        }
+
+        /**
+         * Sets how modules that fail to create or load are retried, for modules without their own policy.
+         * By default, modules are not retried.
+         */
+        public @NotNull Builder retryPolicy(@NotNull RetryPolicy policy) {
+            this.defaultRetryPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Sets how the given module is retried if it fails to create or load.
+         */
+        public @NotNull Builder retryPolicy(@NotNull Class<? extends Module> type, @NotNull RetryPolicy policy) {
+            this.retryPolicies.put(type, policy);
+            return this;
+        }
+
+        /**
+         * Adds a listener that receives timings and failures from the module lifecycle.
+         */
+        public @NotNull Builder listener(@NotNull ModuleLifecycleListener listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
         public @NotNull Builder module(@NotNull Class<? extends Module> type, @NotNull LoadableModule.Creator creator) {
             this.modules.put(type, new LoadableModule(type, creator));
             return this;
         }
 
-        public @NotNull ModuleManager build() {
-            if (this.candidateResolver == null) this.candidateResolver = new DefaultModuleCandidateResolver();
-            if (this.sorter == null) this.sorter = new DefaultModuleSorter();
-            if (this.environmentProvider == null) this.environmentProvider = BasicModuleEnvironment::new;
+        /**
+         * Adds a module that is created by injecting its environment and dependencies into its constructor.
+         *
+         * @see dev.emortal.api.modules.internal.InjectingCreator
+         */
+        public @NotNull Builder module(@NotNull Class<? extends Module> type) {
+            this.modules.put(type, LoadableModule.injected(type));
+            return this;
+        }
 
-            ModuleManager manager = new ModuleManager(this.candidateResolver, this.sorter, this.environmentProvider);
+        /**
+         * Adds modules that have already been described, such as those discovered by
+         * {@link dev.emortal.api.modules.internal.JarModuleCandidateResolver}.
+         */
+        public @NotNull Builder modules(@NotNull Collection<LoadableModule> modules) {
+            for (LoadableModule module : modules) {
+                this.modules.put(module.clazz(), module);
+            }
+            return this;
+        }
+
+        public @NotNull ModuleManager build() {
+            ModuleManager manager = new ModuleManager(this);
             manager.loadModules(this.modules.values());
             return manager;
         }
+
+        /**
+         * Builds the manager and starts loading its modules without waiting for them, so that a host can wait for
+         * the {@link ModuleManager#readiness(String) readiness groups} it needs first.
+         * Without parallel loading, modules are still loaded before this returns.
+         */
+        public @NotNull ModuleManager buildAsync() {
+            ModuleManager manager = new ModuleManager(this);
+            manager.loadModulesAsync(this.modules.values());
+            return manager;
+        }
     }
 }
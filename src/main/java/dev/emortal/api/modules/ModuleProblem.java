@@ -0,0 +1,46 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A problem found while validating modules, before any of them are created.
+ *
+ * @param module the name of the module with the problem, or the class name if it has no name
+ */
+public record ModuleProblem(@NotNull Kind kind, @NotNull String module, @NotNull String message) {
+
+    /**
+     * Whether the problem stops every module from loading, rather than just the modules involved.
+     */
+    public boolean fatal() {
+        return this.kind == Kind.CYCLE || this.kind == Kind.DUPLICATE_NAME;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return this.kind + ": " + this.message;
+    }
+
+    public enum Kind {
+        /**
+         * The module could not be resolved, usually because it has no {@link dev.emortal.api.modules.annotation.ModuleData}.
+         */
+        UNRESOLVED,
+        /**
+         * The module has the same name as another module.
+         */
+        DUPLICATE_NAME,
+        /**
+         * The module requires a module that does not exist.
+         */
+        UNKNOWN_DEPENDENCY,
+        /**
+         * The module is part of a dependency cycle.
+         */
+        CYCLE,
+        /**
+         * The module requires, directly or indirectly, a module with one of the other problems.
+         */
+        UNLOADABLE
+    }
+}
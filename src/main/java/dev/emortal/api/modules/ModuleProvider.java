@@ -6,4 +6,11 @@ import org.jetbrains.annotations.Nullable;
 public interface ModuleProvider {
 
     <T extends Module> @Nullable T getModule(@NotNull Class<T> type);
+
+    /**
+     * Gets a module by its key. This is preferred over looking modules up by class on hot paths.
+     */
+    default <T extends Module> @Nullable T getModule(@NotNull ModuleKey<T> key) {
+        return this.getModule(key.type());
+    }
 }
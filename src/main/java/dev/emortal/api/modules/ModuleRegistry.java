@@ -0,0 +1,95 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores loaded modules in an array indexed by their key's slot.
+ *
+ * <p>Reads never lock, and are a single volatile read followed by array loads. Writes copy the array, as they only
+ * happen when modules are loaded or unloaded.</p>
+ *
+ * <p>Each slot holds the key next to the module, as slots are shared by every registry and reused once no registry
+ * holds the key. A reader that read a key's slot just before it was reused then finds a different key, rather than a
+ * module of the wrong type.</p>
+ */
+final class ModuleRegistry {
+
+    private volatile Object[] entries = new Object[0]; // The key and module of each slot, one after the other
+    private final Map<Class<?>, ModuleKey<?>> keysByType = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <T extends Module> @Nullable T get(@NotNull ModuleKey<T> key) {
+        Object[] entries = this.entries;
+        int index = key.slot() << 1;
+        if (index < 0 || index >= entries.length || entries[index] != key) return null;
+        return (T) entries[index + 1];
+    }
+
+    /**
+     * Gets a module by its class without creating a key for it, so looking up modules that were never loaded does not
+     * take a slot.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Module> @Nullable T get(@NotNull Class<T> type) {
+        ModuleKey<T> key = (ModuleKey<T>) this.keysByType.get(type);
+        return key != null ? this.get(key) : null;
+    }
+
+    synchronized void put(@NotNull ModuleKey<?> key, @NotNull Module module) {
+        this.putAll(Map.of(key, module));
+    }
+
+    /**
+     * Puts all the modules at once, so readers either see all of them or none of them.
+     */
+    synchronized void putAll(@NotNull Map<ModuleKey<?>, Module> modules) {
+        int length = this.entries.length;
+        for (ModuleKey<?> key : modules.keySet()) {
+            if (this.contains(key)) continue; // Replacing a module keeps the slot
+
+            ModuleKey.retain(key);
+            this.keysByType.put(key.type(), key);
+            length = Math.max(length, (key.slot() + 1) << 1);
+        }
+
+        Object[] entries = Arrays.copyOf(this.entries, length);
+        modules.forEach((key, module) -> {
+            entries[key.slot() << 1] = key;
+            entries[(key.slot() << 1) + 1] = module;
+        });
+        this.entries = entries;
+    }
+
+    /**
+     * Removes all the modules at once, so readers either see all of them or none of them.
+     */
+    synchronized void removeAll(@NotNull Collection<ModuleKey<?>> keys) {
+        Object[] entries = this.entries.clone();
+        List<ModuleKey<?>> removed = new ArrayList<>(keys.size());
+        for (ModuleKey<?> key : keys) {
+            if (!this.contains(key)) continue;
+
+            entries[key.slot() << 1] = null;
+            entries[(key.slot() << 1) + 1] = null;
+            this.keysByType.remove(key.type());
+            removed.add(key);
+        }
+        this.entries = entries;
+
+        // Only released once readers can no longer find them here, so the slots cannot be reused before that
+        removed.forEach(ModuleKey::release);
+    }
+
+    private boolean contains(@NotNull ModuleKey<?> key) {
+        int index = key.slot() << 1;
+        return index >= 0 && index < this.entries.length && this.entries[index] == key;
+    }
+}
@@ -0,0 +1,200 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the health of every loaded module, and restarts modules that stay unhealthy along with every module that
+ * depends on them, using {@link ModuleManager#reloadModule(Class)}.
+ *
+ * <p>All modules are checked by a single task on the scheduler, and the results are published as a
+ * {@link HealthSnapshot}, so readiness and liveness probes can read {@link #snapshot()} instead of running checks.</p>
+ */
+public final class ModuleSupervisor implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModuleSupervisor.class);
+
+    public static @NotNull Builder builder(@NotNull ModuleManager manager) {
+        return new Builder(manager);
+    }
+
+    private final @NotNull ModuleManager manager;
+    private final int failureThreshold;
+    private final @Nullable ScheduledExecutorService ownedScheduler;
+    private final @NotNull ScheduledFuture<?> task;
+
+    // Only accessed while checking, which is synchronized
+    private final Map<String, Integer> failures = new HashMap<>();
+    private final Set<String> failed = new HashSet<>();
+
+    private volatile @NotNull HealthSnapshot snapshot;
+
+    private ModuleSupervisor(@NotNull Builder builder) {
+        this.manager = builder.manager;
+        this.failureThreshold = builder.failureThreshold;
+
+        ScheduledExecutorService scheduler = builder.scheduler;
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("module-supervisor").daemon().factory());
+            this.ownedScheduler = scheduler;
+        } else {
+            this.ownedScheduler = null;
+        }
+
+        this.snapshot = this.check();
+        long interval = builder.interval.toNanos();
+        this.task = scheduler.scheduleWithFixedDelay(this::checkSafely, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the health of the modules as of the last check, without running any checks
+     */
+    public @NotNull HealthSnapshot snapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Checks every loaded module now, restarting any that have failed enough checks in a row, and publishes the result.
+     * This is also what the supervisor runs on every interval.
+     */
+    public synchronized @NotNull HealthSnapshot check() {
+        Map<String, HealthSnapshot.Status> statuses = new HashMap<>();
+        List<LoadedModule> restarts = new ArrayList<>();
+
+        for (LoadedModule loaded : this.manager.loadedModules()) {
+            String name = loaded.name();
+            if (this.isHealthy(loaded)) {
+                this.failures.remove(name);
+                this.failed.remove(name);
+                statuses.put(name, HealthSnapshot.Status.HEALTHY);
+                continue;
+            }
+            if (this.failed.contains(name)) {
+                // Restarting did not help before, so do not keep restarting it and its dependents
+                statuses.put(name, HealthSnapshot.Status.FAILED);
+                continue;
+            }
+
+            int count = this.failures.merge(name, 1, Integer::sum);
+            if (count >= this.failureThreshold) {
+                restarts.add(loaded);
+            } else {
+                statuses.put(name, HealthSnapshot.Status.UNHEALTHY);
+            }
+        }
+
+        // These are in load order, so a module is restarted before its dependents, which are restarted along with it
+        for (LoadedModule loaded : restarts) {
+            String name = loaded.name();
+            this.failures.remove(name);
+            if (!this.manager.loadedModules().contains(loaded)) {
+                statuses.put(name, HealthSnapshot.Status.HEALTHY);
+                continue;
+            }
+
+            LOGGER.warn("Module {} failed {} health checks in a row, restarting it", name, this.failureThreshold);
+            if (this.manager.reloadModule(loaded.candidate().clazz())) {
+                statuses.put(name, HealthSnapshot.Status.HEALTHY);
+            } else {
+                LOGGER.error("Failed to restart unhealthy module {}", name);
+                this.failed.add(name);
+                statuses.put(name, HealthSnapshot.Status.FAILED);
+            }
+        }
+
+        // Forget modules that have been unloaded
+        this.failures.keySet().retainAll(statuses.keySet());
+        this.failed.retainAll(statuses.keySet());
+
+        boolean healthy = !statuses.containsValue(HealthSnapshot.Status.UNHEALTHY) && this.failed.isEmpty();
+        HealthSnapshot result = new HealthSnapshot(this.manager.isReady() && healthy, this.failed.isEmpty(), statuses, System.nanoTime());
+        this.snapshot = result;
+        return result;
+    }
+
+    private boolean isHealthy(@NotNull LoadedModule loaded) {
+        try {
+            return loaded.module().checkHealth();
+        } catch (Exception exception) {
+            LOGGER.warn("Health check for module {} failed", loaded.name(), exception);
+            return false;
+        }
+    }
+
+    private void checkSafely() {
+        // An exception would stop the scheduled task from running again
+        try {
+            this.check();
+        } catch (Exception exception) {
+            LOGGER.error("Failed to check module health", exception);
+        }
+    }
+
+    /**
+     * Stops checking modules. The scheduler is only shut down if the supervisor created it.
+     */
+    @Override
+    public void close() {
+        this.task.cancel(false);
+        if (this.ownedScheduler != null) this.ownedScheduler.shutdown();
+    }
+
+    public static final class Builder {
+
+        private final @NotNull ModuleManager manager;
+        private @Nullable ScheduledExecutorService scheduler;
+        private @NotNull Duration interval = Duration.ofSeconds(10);
+        private int failureThreshold = 3;
+
+        private Builder(@NotNull ModuleManager manager) {
+            this.manager = manager;
+        }
+
+        /**
+         * Runs checks on the given scheduler, which can be shared with other tasks.
+         * By default, the supervisor creates its own single thread scheduler.
+         */
+        public @NotNull Builder scheduler(@NotNull ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Sets the time between the end of one check and the start of the next.
+         */
+        public @NotNull Builder interval(@NotNull Duration interval) {
+            if (interval.isNegative() || interval.isZero()) throw new IllegalArgumentException("Interval must be positive");
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * Sets how many checks in a row a module must fail before it is restarted.
+         */
+        public @NotNull Builder failureThreshold(int failureThreshold) {
+            if (failureThreshold < 1) throw new IllegalArgumentException("Failure threshold must be at least 1");
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * Checks the modules once, then starts checking them on every interval.
+         */
+        public @NotNull ModuleSupervisor start() {
+            return new ModuleSupervisor(this);
+        }
+    }
+}
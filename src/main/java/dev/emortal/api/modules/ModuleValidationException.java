@@ -0,0 +1,30 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Thrown when modules fail validation, with every problem that was found.
+ */
+public final class ModuleValidationException extends IllegalArgumentException {
+
+    private final @NotNull List<ModuleProblem> problems;
+
+    public ModuleValidationException(@NotNull List<ModuleProblem> problems) {
+        super(describe(problems));
+        this.problems = List.copyOf(problems);
+    }
+
+    public @NotNull List<ModuleProblem> problems() {
+        return this.problems;
+    }
+
+    private static @NotNull String describe(@NotNull List<ModuleProblem> problems) {
+        StringBuilder message = new StringBuilder("Found ").append(problems.size()).append(" module problem(s):");
+        for (ModuleProblem problem : problems) {
+            message.append("\n - ").append(problem);
+        }
+        return message.toString();
+    }
+}
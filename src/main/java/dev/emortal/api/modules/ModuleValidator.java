@@ -0,0 +1,160 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.internal.DependencyCycles;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Finds every problem with a set of modules in a single pass, before any of them are created, so that modules that
+ * could never load are not started only to be thrown away.
+ */
+final class ModuleValidator {
+
+    /**
+     * @param existing the names of modules that were already planned, which new modules may depend on
+     */
+    static @NotNull Result validate(@NotNull Collection<LoadableModule> modules, @NotNull List<ModuleCandidate> candidates,
+                                    @NotNull Set<String> existing) {
+        List<ModuleProblem> problems = new ArrayList<>();
+
+        Set<Class<? extends Module>> resolved = new HashSet<>();
+        for (ModuleCandidate candidate : candidates) {
+            resolved.add(candidate.clazz());
+        }
+        for (LoadableModule module : modules) {
+            if (resolved.contains(module.clazz())) continue;
+            problems.add(new ModuleProblem(ModuleProblem.Kind.UNRESOLVED, module.clazz().getName(),
+                    "Module class " + module.clazz().getName() + " could not be resolved, it may be missing @ModuleData"));
+        }
+
+        Map<String, Integer> indexByName = new HashMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            String name = candidates.get(i).data().name();
+            Integer duplicate = indexByName.putIfAbsent(name, i);
+            if (duplicate != null) {
+                problems.add(new ModuleProblem(ModuleProblem.Kind.DUPLICATE_NAME, name, "Module name " + name + " is used by both "
+                        + candidates.get(duplicate).clazz().getName() + " and " + candidates.get(i).clazz().getName()));
+            }
+        }
+
+        // Modules that can never load, either because of their own problem, or because they require one that cannot
+        boolean[] broken = new boolean[candidates.size()];
+        for (int i = 0; i < candidates.size(); i++) {
+            ModuleCandidate candidate = candidates.get(i);
+            for (Dependency dependency : candidate.data().dependencies()) {
+                if (!dependency.required()) continue;
+                if (indexByName.containsKey(dependency.name()) || existing.contains(dependency.name())) continue;
+
+                problems.add(new ModuleProblem(ModuleProblem.Kind.UNKNOWN_DEPENDENCY, candidate.data().name(),
+                        "Module " + candidate.data().name() + " requires unknown module " + dependency.name()));
+                broken[i] = true;
+            }
+        }
+
+        for (List<String> cycle : findCycles(candidates, indexByName)) {
+            problems.add(new ModuleProblem(ModuleProblem.Kind.CYCLE, cycle.getFirst(), "Module dependency cycle: " + String.join(" -> ", cycle)));
+            for (String name : cycle) {
+                broken[indexByName.get(name)] = true;
+            }
+        }
+
+        problems.addAll(propagate(candidates, indexByName, broken));
+
+        List<ModuleCandidate> loadable = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!broken[i]) loadable.add(candidates.get(i));
+        }
+        return new Result(List.copyOf(problems), loadable);
+    }
+
+    /**
+     * Marks every module that requires a broken module as broken too, reporting each one with the module that stops it.
+     */
+    private static @NotNull List<ModuleProblem> propagate(@NotNull List<ModuleCandidate> candidates,
+                                                         @NotNull Map<String, Integer> indexByName, boolean @NotNull [] broken) {
+        List<List<Integer>> requiredBy = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            requiredBy.add(new ArrayList<>());
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            for (Dependency dependency : candidates.get(i).data().dependencies()) {
+                Integer index = indexByName.get(dependency.name());
+                if (dependency.required() && index != null) requiredBy.get(index).add(i);
+            }
+        }
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (broken[i]) queue.add(i);
+        }
+
+        List<ModuleProblem> problems = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            for (int dependent : requiredBy.get(index)) {
+                if (broken[dependent]) continue;
+                broken[dependent] = true;
+                queue.add(dependent);
+
+                String name = candidates.get(dependent).data().name();
+                problems.add(new ModuleProblem(ModuleProblem.Kind.UNLOADABLE, name, "Module " + name
+                        + " cannot load because it requires " + candidates.get(index).data().name()));
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Finds every dependency cycle, including those through optional dependencies, as these cannot be sorted either.
+     */
+    private static @NotNull List<List<String>> findCycles(@NotNull List<ModuleCandidate> candidates,
+                                                        @NotNull Map<String, Integer> indexByName) {
+        int[][] dependencies = new int[candidates.size()][];
+        for (int i = 0; i < candidates.size(); i++) {
+            dependencies[i] = Arrays.stream(candidates.get(i).data().dependencies())
+                    .map(dependency -> indexByName.get(dependency.name()))
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .distinct()
+                    .toArray();
+        }
+
+        List<List<String>> cycles = new ArrayList<>();
+        for (int[] cycle : DependencyCycles.find(dependencies)) {
+            List<String> names = new ArrayList<>(cycle.length);
+            for (int node : cycle) {
+                names.add(candidates.get(node).data().name());
+            }
+            cycles.add(names);
+        }
+        return cycles;
+    }
+
+    /**
+     * @param loadable the candidates that can be loaded, in the order they were given
+     */
+    record Result(@NotNull List<ModuleProblem> problems, @NotNull List<ModuleCandidate> loadable) {
+
+        boolean fatal() {
+            for (ModuleProblem problem : this.problems) {
+                if (problem.fatal()) return true;
+            }
+            return false;
+        }
+    }
+
+    private ModuleValidator() {
+    }
+}
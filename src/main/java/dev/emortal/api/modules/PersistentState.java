@@ -0,0 +1,35 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by modules that can save state that is expensive to compute, such as warmed caches and lookup tables, so
+ * that the next start can restore it instead of computing it again.
+ *
+ * <p>State is only saved and restored if the manager has a state file. It is written when the manager is unloaded or
+ * {@link ModuleManager#saveState()} is called, and restored on the next start after the module is created, before it is
+ * loaded. This is a simpler alternative to checkpointing the whole process with CRaC.</p>
+ */
+public interface PersistentState {
+
+    /**
+     * The version of the format written by {@link #writeState(DataOutput)}.
+     * Saved state with a different version is not restored, so this should be changed whenever the format does.
+     */
+    default int stateVersion() {
+        return 0;
+    }
+
+    void writeState(@NotNull DataOutput output) throws IOException;
+
+    /**
+     * Restores saved state. This is called before {@link Module#onLoad()}, which can skip any work the state replaces.
+     *
+     * @param state a read only view of the saved state, which is mapped from the state file rather than copied
+     */
+    void readState(@NotNull ByteBuffer state);
+}
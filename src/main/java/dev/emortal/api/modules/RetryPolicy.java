@@ -0,0 +1,68 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How many times, and how often, a module that fails to create or load is tried again, so that a module depending on a
+ * service that is briefly unavailable is not dropped along with everything that requires it.
+ *
+ * <p>Each attempt creates a new instance of the module. The delay before each retry grows by the multiplier, up to the
+ * maximum backoff, and is randomly shortened by up to the jitter fraction, so that many instances restarting at once
+ * do not all retry at the same moment.</p>
+ *
+ * @param maxAttempts the maximum number of attempts, including the first
+ * @param deadline how long after the first attempt started a retry may still start, or null for no limit
+ */
+public record RetryPolicy(int maxAttempts, @NotNull Duration initialBackoff, @NotNull Duration maxBackoff, double multiplier,
+                          double jitter, @Nullable Duration deadline) {
+
+    private static final RetryPolicy NONE = new RetryPolicy(1, Duration.ZERO, Duration.ZERO, 1, 0, null);
+
+    /**
+     * A policy that never retries, which is used for modules without a policy.
+     */
+    public static @NotNull RetryPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * A policy that doubles the delay after each retry, with up to half of each delay taken off at random.
+     */
+    public static @NotNull RetryPolicy exponential(int maxAttempts, @NotNull Duration initialBackoff, @NotNull Duration maxBackoff) {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff, 2, 0.5, null);
+    }
+
+    public RetryPolicy {
+        if (maxAttempts < 1) throw new IllegalArgumentException("Max attempts must be at least 1, was " + maxAttempts);
+        if (initialBackoff.isNegative() || maxBackoff.isNegative()) throw new IllegalArgumentException("Backoff cannot be negative");
+        if (multiplier < 1) throw new IllegalArgumentException("Multiplier must be at least 1, was " + multiplier);
+        if (jitter < 0 || jitter > 1) throw new IllegalArgumentException("Jitter must be between 0 and 1, was " + jitter);
+        if (deadline != null && deadline.isNegative()) throw new IllegalArgumentException("Deadline cannot be negative");
+    }
+
+    public @NotNull RetryPolicy withMultiplier(double multiplier) {
+        return new RetryPolicy(this.maxAttempts, this.initialBackoff, this.maxBackoff, multiplier, this.jitter, this.deadline);
+    }
+
+    public @NotNull RetryPolicy withJitter(double jitter) {
+        return new RetryPolicy(this.maxAttempts, this.initialBackoff, this.maxBackoff, this.multiplier, jitter, this.deadline);
+    }
+
+    public @NotNull RetryPolicy withDeadline(@Nullable Duration deadline) {
+        return new RetryPolicy(this.maxAttempts, this.initialBackoff, this.maxBackoff, this.multiplier, this.jitter, deadline);
+    }
+
+    /**
+     * @param attempt the attempt that just failed, starting from 1
+     * @return the delay before the next attempt, in nanoseconds
+     */
+    long backoffNanos(int attempt) {
+        double backoff = this.initialBackoff.toNanos() * Math.pow(this.multiplier, attempt - 1);
+        backoff = Math.min(backoff, this.maxBackoff.toNanos());
+        return (long) (backoff * (1 - this.jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,49 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provides modules that are being reloaded before they replace the loaded modules, so that reloaded dependents see the
+ * reloaded versions of their dependencies.
+ *
+ * <p>Reloaded modules keep this as their provider, so once the reload is committed or abandoned, it is released and
+ * only delegates to the manager.</p>
+ */
+final class StagedModuleProvider implements ModuleProvider {
+
+    private final @NotNull ModuleProvider delegate;
+    private final Map<Class<? extends Module>, Module> staged = new ConcurrentHashMap<>();
+    private volatile boolean released;
+
+    StagedModuleProvider(@NotNull ModuleProvider delegate) {
+        this.delegate = delegate;
+    }
+
+    void stage(@NotNull Class<? extends Module> type, @NotNull Module module) {
+        this.staged.put(type, module);
+    }
+
+    void release() {
+        this.released = true;
+        this.staged.clear();
+    }
+
+    @Override
+    public <T extends Module> @Nullable T getModule(@NotNull Class<T> type) {
+        if (!this.released) {
+            Module staged = this.staged.get(type);
+            if (staged != null) return type.cast(staged);
+        }
+        return this.delegate.getModule(type);
+    }
+
+    @Override
+    public <T extends Module> @Nullable T getModule(@NotNull ModuleKey<T> key) {
+        if (this.released) return this.delegate.getModule(key);
+        return this.getModule(key.type());
+    }
+}
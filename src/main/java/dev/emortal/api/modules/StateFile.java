@@ -0,0 +1,105 @@
+package dev.emortal.api.modules;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the saved state of {@link PersistentState} modules as a memory mapped file, so that restoring state
+ * only maps the file rather than reading and copying it.
+ *
+ * <p>The file is a header of a magic number, the format version, and the number of entries, followed by each entry as
+ * the length and UTF-8 bytes of the module name, the state version, and the length and bytes of the state.</p>
+ */
+final class StateFile {
+    private static final int MAGIC = 0x4D4F4453; // MODS
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * @return the state of each module by name, or nothing if the file does not exist
+     * @throws IOException if the file could not be read, or is not a state file
+     */
+    static @NotNull Map<String, Entry> read(@NotNull Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException exception) {
+            return Map.of();
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) throw new IOException(path + " is not a module state file");
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) throw new IOException("Unsupported module state file version " + version);
+
+            int count = buffer.getInt();
+            Map<String, Entry> entries = new HashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                int stateVersion = buffer.getInt();
+                int length = buffer.getInt();
+
+                ByteBuffer state = buffer.slice(buffer.position(), length).asReadOnlyBuffer();
+                buffer.position(buffer.position() + length);
+                entries.put(new String(name, StandardCharsets.UTF_8), new Entry(stateVersion, state));
+            }
+            return entries;
+        } catch (RuntimeException exception) {
+            throw new IOException(path + " is truncated or corrupt", exception);
+        }
+    }
+
+    /**
+     * Writes to a temporary file first, and moves it over the old file once it is complete, so that a crash while
+     * writing leaves the old state rather than a partial file.
+     */
+    static void write(@NotNull Path path, @NotNull Map<String, Entry> entries) throws IOException {
+        List<Map.Entry<byte[], Entry>> encoded = new ArrayList<>(entries.size());
+        long size = 3 * Integer.BYTES;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (name.length > 0xFFFF) throw new IOException("Module name " + entry.getKey() + " is too long");
+
+            encoded.add(Map.entry(name, entry.getValue()));
+            size += Short.BYTES + name.length + 2 * Integer.BYTES + entry.getValue().state().remaining();
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(encoded.size());
+            for (Map.Entry<byte[], Entry> entry : encoded) {
+                buffer.putShort((short) entry.getKey().length).put(entry.getKey());
+                buffer.putInt(entry.getValue().version());
+                buffer.putInt(entry.getValue().state().remaining()).put(entry.getValue().state().duplicate());
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    record Entry(int version, @NotNull ByteBuffer state) {
+    }
+
+    private StateFile() {
+    }
+}
@@ -0,0 +1,37 @@
+package dev.emortal.api.modules.annotation;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A condition that must be met for a module to be loaded. Modules whose conditions are not met are left out before the
+ * modules are validated and sorted, along with every module that requires them, so none of them are ever created.
+ */
+public @interface Condition {
+
+    @NotNull Type type();
+
+    /**
+     * The name of the environment variable, system property or class, or the profile. For profiles, this can be a comma
+     * separated list, which is met if any of the profiles are active.
+     */
+    @NotNull String name();
+
+    /**
+     * The value the environment variable or system property must have, or empty if it only has to be set.
+     * This is ignored for classes and profiles.
+     */
+    @NotNull String value() default "";
+
+    enum Type {
+        ENVIRONMENT_VARIABLE,
+        SYSTEM_PROPERTY,
+        /**
+         * Met if the class can be loaded by the module's class loader.
+         */
+        CLASS_PRESENT,
+        /**
+         * Met if the profile is active in the module manager.
+         */
+        PROFILE
+    }
+}
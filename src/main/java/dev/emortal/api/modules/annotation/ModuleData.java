@@ -10,4 +10,55 @@ public @interface ModuleData {
     @NotNull String name();
 
     @NotNull Dependency[] dependencies() default {};
+
+    /**
+     * Whether the module is only created and loaded when it is first requested, rather than when the manager is built.
+     * Lazy modules are still loaded straight away if a module that is not lazy requires them.
+     */
+    boolean lazy() default false;
+
+    /**
+     * Conditions that must all be met for the module to be loaded.
+     */
+    @NotNull Condition[] conditions() default {};
+
+    /**
+     * How soon the module is needed. Modules that can load at the same time are started in priority order.
+     */
+    @NotNull Priority priority() default Priority.NORMAL;
+
+    /**
+     * What loading the module mostly spends its time on, which decides how many can load at the same time.
+     */
+    @NotNull Workload workload() default Workload.IO;
+
+    /**
+     * The readiness group the module is part of, if any, which can be waited for with
+     * {@link dev.emortal.api.modules.ModuleManager#readiness(String)}.
+     */
+    @NotNull String readinessGroup() default "";
+
+    enum Priority {
+        /**
+         * Needed before the server can accept players.
+         */
+        CRITICAL,
+        NORMAL,
+        /**
+         * Not needed to start, such as caches and analytics. With parallel loading, the manager does not wait for
+         * background modules to load, unless a module that is not in the background requires them.
+         */
+        BACKGROUND
+    }
+
+    enum Workload {
+        /**
+         * Computes while loading, so loads at most as many at a time as the manager's CPU load limit.
+         */
+        CPU,
+        /**
+         * Mostly waits while loading, such as on a database or remote service, so any number load at a time.
+         */
+        IO
+    }
 }
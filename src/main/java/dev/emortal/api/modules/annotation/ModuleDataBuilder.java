@@ -0,0 +1,176 @@
+package dev.emortal.api.modules.annotation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates {@link ModuleData} instances without reading them from an annotated class.
+ *
+ * <p>This is used by generated module indexes, and anything else that needs to describe a module without
+ * reflection.</p>
+ */
+public final class ModuleDataBuilder {
+
+    public static @NotNull ModuleDataBuilder builder(@NotNull String name) {
+        return new ModuleDataBuilder(name);
+    }
+
+    private final @NotNull String name;
+    private final List<Dependency> dependencies = new ArrayList<>();
+    private boolean lazy;
+    private final List<Condition> conditions = new ArrayList<>();
+    private @NotNull ModuleData.Priority priority = ModuleData.Priority.NORMAL;
+    private @NotNull ModuleData.Workload workload = ModuleData.Workload.IO;
+    private @NotNull String readinessGroup = "";
+
+    private ModuleDataBuilder(@NotNull String name) {
+        this.name = name;
+    }
+
+    public @NotNull ModuleDataBuilder dependency(@NotNull String name) {
+        return this.dependency(name, true);
+    }
+
+    public @NotNull ModuleDataBuilder dependency(@NotNull String name, boolean required) {
+        this.dependencies.add(new DependencyValue(name, required));
+        return this;
+    }
+
+    public @NotNull ModuleDataBuilder lazy(boolean lazy) {
+        this.lazy = lazy;
+        return this;
+    }
+
+    public @NotNull ModuleDataBuilder condition(@NotNull Condition.Type type, @NotNull String name) {
+        return this.condition(type, name, "");
+    }
+
+    public @NotNull ModuleDataBuilder condition(@NotNull Condition.Type type, @NotNull String name, @NotNull String value) {
+        this.conditions.add(new ConditionValue(type, name, value));
+        return this;
+    }
+
+    public @NotNull ModuleDataBuilder priority(@NotNull ModuleData.Priority priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public @NotNull ModuleDataBuilder workload(@NotNull ModuleData.Workload workload) {
+        this.workload = workload;
+        return this;
+    }
+
+    public @NotNull ModuleDataBuilder readinessGroup(@NotNull String readinessGroup) {
+        this.readinessGroup = readinessGroup;
+        return this;
+    }
+
+    public @NotNull ModuleData build() {
+        return new ModuleDataValue(this.name, this.dependencies.toArray(Dependency[]::new), this.lazy,
+                this.conditions.toArray(Condition[]::new), this.priority, this.workload, this.readinessGroup);
+    }
+
+    private record ModuleDataValue(@NotNull String name, @NotNull Dependency[] dependencies, boolean lazy,
+                                   @NotNull Condition[] conditions, @NotNull Priority priority, @NotNull Workload workload,
+                                   @NotNull String readinessGroup) implements ModuleData, Serializable {
+
+        @Override
+        public @NotNull Dependency[] dependencies() {
+            return this.dependencies.clone();
+        }
+
+        @Override
+        public @NotNull Condition[] conditions() {
+            return this.conditions.clone();
+        }
+
+        @Override
+        public @NotNull Class<? extends Annotation> annotationType() {
+            return ModuleData.class;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ModuleData data)) return false;
+            return this.name.equals(data.name()) && Arrays.equals(this.dependencies, data.dependencies()) && this.lazy == data.lazy()
+                    && Arrays.equals(this.conditions, data.conditions()) && this.priority == data.priority()
+                    && this.workload == data.workload() && this.readinessGroup.equals(data.readinessGroup());
+        }
+
+        @Override
+        public int hashCode() {
+            // As specified by Annotation.hashCode
+            return (127 * "name".hashCode() ^ this.name.hashCode())
+                    + (127 * "dependencies".hashCode() ^ Arrays.hashCode(this.dependencies))
+                    + (127 * "lazy".hashCode() ^ Boolean.hashCode(this.lazy))
+                    + (127 * "conditions".hashCode() ^ Arrays.hashCode(this.conditions))
+                    + (127 * "priority".hashCode() ^ this.priority.hashCode())
+                    + (127 * "workload".hashCode() ^ this.workload.hashCode())
+                    + (127 * "readinessGroup".hashCode() ^ this.readinessGroup.hashCode());
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "@" + ModuleData.class.getName() + "(name=\"" + this.name + "\", dependencies=" + Arrays.toString(this.dependencies)
+                    + ", lazy=" + this.lazy + ", conditions=" + Arrays.toString(this.conditions)
+                    + ", priority=" + this.priority + ", workload=" + this.workload
+                    + ", readinessGroup=\"" + this.readinessGroup + "\")";
+        }
+    }
+
+    private record DependencyValue(@NotNull String name, boolean required) implements Dependency, Serializable {
+
+        @Override
+        public @NotNull Class<? extends Annotation> annotationType() {
+            return Dependency.class;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Dependency dependency)) return false;
+            return this.name.equals(dependency.name()) && this.required == dependency.required();
+        }
+
+        @Override
+        public int hashCode() {
+            // As specified by Annotation.hashCode
+            return (127 * "name".hashCode() ^ this.name.hashCode()) + (127 * "required".hashCode() ^ Boolean.hashCode(this.required));
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "@" + Dependency.class.getName() + "(name=\"" + this.name + "\", required=" + this.required + ")";
+        }
+    }
+
+    private record ConditionValue(@NotNull Condition.Type type, @NotNull String name, @NotNull String value) implements Condition, Serializable {
+
+        @Override
+        public @NotNull Class<? extends Annotation> annotationType() {
+            return Condition.class;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Condition condition)) return false;
+            return this.type == condition.type() && this.name.equals(condition.name()) && this.value.equals(condition.value());
+        }
+
+        @Override
+        public int hashCode() {
+            // As specified by Annotation.hashCode
+            return (127 * "type".hashCode() ^ this.type.hashCode()) + (127 * "name".hashCode() ^ this.name.hashCode())
+                    + (127 * "value".hashCode() ^ this.value.hashCode());
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "@" + Condition.class.getName() + "(type=" + this.type + ", name=\"" + this.name + "\", value=\"" + this.value + "\")";
+        }
+    }
+}
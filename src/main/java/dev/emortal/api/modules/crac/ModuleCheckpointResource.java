@@ -0,0 +1,50 @@
+package dev.emortal.api.modules.crac;
+
+import dev.emortal.api.modules.ModuleManager;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Prepares a module manager's modules for a CRaC checkpoint, and resumes them after restoring, using
+ * {@link ModuleManager#beforeCheckpoint()} and {@link ModuleManager#afterRestore()}.
+ *
+ * <p>CRaC only holds resources weakly, so the resource returned by {@link #register(ModuleManager)} must be kept for as
+ * long as the manager is. This requires the CRaC API, which is an optional dependency of this library. On a JVM without
+ * CRaC support, the resource is never called.</p>
+ */
+public final class ModuleCheckpointResource implements Resource {
+
+    /**
+     * Creates a resource for the manager, and registers it with the global CRaC context.
+     */
+    public static @NotNull ModuleCheckpointResource register(@NotNull ModuleManager manager) {
+        ModuleCheckpointResource resource = new ModuleCheckpointResource(manager);
+        Core.getGlobalContext().register(resource);
+        return resource;
+    }
+
+    private final @NotNull ModuleManager manager;
+
+    public ModuleCheckpointResource(@NotNull ModuleManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * @throws IllegalStateException if any module could not be prepared, which stops the checkpoint
+     */
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        if (this.manager.beforeCheckpoint()) return;
+
+        // CRaC does not restore a resource that failed, so the modules that were prepared have to be resumed here
+        this.manager.afterRestore();
+        throw new IllegalStateException("Failed to prepare all modules for checkpoint");
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        this.manager.afterRestore();
+    }
+}
@@ -2,10 +2,16 @@ package dev.emortal.api.modules.env;
 
 import dev.emortal.api.modules.annotation.ModuleData;
 import dev.emortal.api.modules.ModuleProvider;
+import dev.emortal.api.modules.event.ModuleEvents;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * The basic environment that only includes the required fields.
  */
-public record BasicModuleEnvironment(@NotNull ModuleData data, @NotNull ModuleProvider moduleProvider) implements ModuleEnvironment {
+public record BasicModuleEnvironment(@NotNull ModuleData data, @NotNull ModuleProvider moduleProvider,
+                                     @NotNull ModuleExecutors executors, @NotNull ModuleEvents events) implements ModuleEnvironment {
+
+    public BasicModuleEnvironment(@NotNull ModuleData data, @NotNull ModuleProvider moduleProvider, @NotNull ModuleResources resources) {
+        this(data, moduleProvider, resources.executors(), resources.events());
+    }
 }
@@ -2,6 +2,7 @@ package dev.emortal.api.modules.env;
 
 import dev.emortal.api.modules.annotation.ModuleData;
 import dev.emortal.api.modules.ModuleProvider;
+import dev.emortal.api.modules.event.ModuleEvents;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -18,4 +19,23 @@ public interface ModuleEnvironment {
      * Provides access to existing modules to facilitate module dependencies.
      */
     @NotNull ModuleProvider moduleProvider();
+
+    /**
+     * Threads owned by the module manager for the module to run its work on, which are shut down when it is unloaded.
+     *
+     * @throws UnsupportedOperationException if the environment was not created with the module's resources
+     */
+    default @NotNull ModuleExecutors executors() {
+        throw new UnsupportedOperationException(this.getClass().getName() + " does not provide executors");
+    }
+
+    /**
+     * The manager's event bus, for sending events to and receiving events from other modules.
+     * Listeners subscribed through this are removed when the module is unloaded.
+     *
+     * @throws UnsupportedOperationException if the environment was not created with the module's resources
+     */
+    default @NotNull ModuleEvents events() {
+        throw new UnsupportedOperationException(this.getClass().getName() + " does not provide events");
+    }
 }
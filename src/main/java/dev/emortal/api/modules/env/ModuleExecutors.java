@@ -0,0 +1,108 @@
+package dev.emortal.api.modules.env;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threads for a module to run its work on, owned by the module manager, so that modules do not need to create and
+ * shut down their own thread pools.
+ *
+ * <p>Work submitted to {@link #executor()} runs on its own virtual thread. Scheduled tasks share a single scheduler
+ * thread with every other module, so should be short, and hand anything that blocks to the executor.</p>
+ *
+ * <p>Everything is shut down by the manager straight after the module is unloaded: scheduled tasks are cancelled, and
+ * tasks and scopes that are still running are interrupted.</p>
+ */
+public final class ModuleExecutors implements AutoCloseable {
+    private final @NotNull String name;
+    private final @NotNull ThreadFactory threadFactory;
+    private final @NotNull ExecutorService executor;
+    private final @NotNull ScheduledExecutorService scheduler;
+    private final Set<Future<?>> scheduled = ConcurrentHashMap.newKeySet();
+    private final Set<TaskScope> scopes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Created by the module manager for each module instance.
+     *
+     * @param scheduler the scheduler shared by every module, which is not shut down with this
+     */
+    public ModuleExecutors(@NotNull String name, @NotNull ScheduledExecutorService scheduler) {
+        this.name = name;
+        this.threadFactory = Thread.ofVirtual().name("module-" + name + "-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(this.threadFactory);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return an executor that runs each task on a new virtual thread
+     */
+    public @NotNull ExecutorService executor() {
+        return this.executor;
+    }
+
+    public @NotNull ScheduledFuture<?> schedule(@NotNull Runnable task, @NotNull Duration delay) {
+        return this.track(this.scheduler.schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    public @NotNull ScheduledFuture<?> scheduleAtFixedRate(@NotNull Runnable task, @NotNull Duration initialDelay,
+                                                           @NotNull Duration period) {
+        return this.track(this.scheduler.scheduleAtFixedRate(task, initialDelay.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    public @NotNull ScheduledFuture<?> scheduleWithFixedDelay(@NotNull Runnable task, @NotNull Duration initialDelay,
+                                                              @NotNull Duration delay) {
+        return this.track(this.scheduler.scheduleWithFixedDelay(task, initialDelay.toNanos(), delay.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    private @NotNull ScheduledFuture<?> track(@NotNull ScheduledFuture<?> future) {
+        if (this.executor.isShutdown()) {
+            future.cancel(false);
+            throw new RejectedExecutionException("Module " + this.name + " has been unloaded");
+        }
+
+        this.scheduled.removeIf(Future::isDone);
+        this.scheduled.add(future);
+        return future;
+    }
+
+    /**
+     * Opens a scope for running subtasks on virtual threads, which is also closed when the module is unloaded.
+     */
+    public @NotNull TaskScope newScope() {
+        if (this.executor.isShutdown()) throw new RejectedExecutionException("Module " + this.name + " has been unloaded");
+
+        this.scopes.removeIf(TaskScope::isClosed);
+        TaskScope scope = new TaskScope(this.threadFactory);
+        this.scopes.add(scope);
+        return scope;
+    }
+
+    /**
+     * Cancels scheduled tasks, and interrupts any tasks and scopes that are still running.
+     */
+    @Override
+    public void close() {
+        for (Future<?> future : this.scheduled) {
+            future.cancel(false);
+        }
+        this.scheduled.clear();
+
+        for (TaskScope scope : this.scopes) {
+            scope.close();
+        }
+        this.scopes.clear();
+
+        this.executor.shutdownNow();
+    }
+}
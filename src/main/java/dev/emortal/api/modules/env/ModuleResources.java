@@ -0,0 +1,16 @@
+package dev.emortal.api.modules.env;
+
+import dev.emortal.api.modules.event.ModuleEvents;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The resources the module manager owns for a module instance, which it closes when the module is unloaded.
+ *
+ * <p>Anything else the manager gives to modules is added here, so that
+ * {@link dev.emortal.api.modules.extension.ModuleEnvironmentProvider}s do not need to change when it is.</p>
+ *
+ * @param executors the threads owned by the manager for this module
+ * @param events    the module's view of the manager's event bus
+ */
+public record ModuleResources(@NotNull ModuleExecutors executors, @NotNull ModuleEvents events) {
+}
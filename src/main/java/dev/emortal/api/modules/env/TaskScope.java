@@ -0,0 +1,79 @@
+package dev.emortal.api.modules.env;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a group of subtasks on virtual threads, and waits for all of them together.
+ * If any subtask fails, the others are interrupted, and {@link #join()} throws the first failure.
+ *
+ * <p>This follows the shutdown on failure policy of {@code StructuredTaskScope}, which is still a preview API.
+ * Scopes are meant to be used with try-with-resources, and closing a scope interrupts any subtasks still running.</p>
+ */
+public final class TaskScope implements AutoCloseable {
+
+    private final @NotNull ExecutorService executor;
+    private volatile @Nullable Throwable failure;
+
+    TaskScope(@NotNull ThreadFactory threadFactory) {
+        this.executor = Executors.newThreadPerTaskExecutor(threadFactory);
+    }
+
+    /**
+     * Starts the task in a new virtual thread.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the scope has already been joined or closed
+     */
+    public <T> @NotNull Future<T> fork(@NotNull Callable<T> task) {
+        return this.executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Throwable throwable) {
+                this.fail(throwable);
+                throw throwable;
+            }
+        });
+    }
+
+    private synchronized void fail(@NotNull Throwable throwable) {
+        if (this.failure != null) return;
+
+        this.failure = throwable;
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Waits for every subtask to finish. No more subtasks can be forked after this.
+     *
+     * @throws ExecutionException if any subtask failed, with the first failure as the cause
+     */
+    public void join() throws InterruptedException, ExecutionException {
+        this.executor.shutdown();
+        while (!this.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            // Keep waiting, as subtasks are expected to finish or be interrupted by their owner closing the scope
+        }
+
+        Throwable failure = this.failure;
+        if (failure != null) throw new ExecutionException(failure);
+    }
+
+    boolean isClosed() {
+        return this.executor.isShutdown();
+    }
+
+    /**
+     * Interrupts any subtasks that are still running.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,90 @@
+package dev.emortal.api.modules.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Delivers typed events between modules, owned by the module manager.
+ *
+ * <p>Listeners receive every event that is an instance of the type they subscribed to, in the order they subscribed.
+ * The listeners for each event class are collected into an array the first time that class is posted, and reused until
+ * a listener is added or removed, which normally only happens when modules load or unload. Posting an event therefore
+ * only looks up that array and calls each listener, without allocating, unless a listener is asynchronous.</p>
+ *
+ * <p>The arrays are also dropped whenever a module is unloaded, whether or not it had any listeners, so that the event
+ * classes of unloaded modules, and their class loaders, are not kept reachable by the bus.</p>
+ *
+ * <p>Modules subscribe through {@link dev.emortal.api.modules.env.ModuleEnvironment#events()}, so that their listeners
+ * are removed when they are unloaded.</p>
+ */
+public final class EventBus {
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    // Guarded by this
+    private final List<Subscription> subscriptions = new ArrayList<>();
+
+    // Replaced whenever subscriptions change, so that an array collected before a change is never cached after it
+    private volatile ConcurrentHashMap<Class<?>, Subscription[]> dispatch = new ConcurrentHashMap<>();
+
+    /**
+     * Delivers the event to every listener subscribed to its class, or any of its supertypes.
+     * Synchronous listeners are called on this thread before this returns.
+     */
+    public void post(@NotNull Object event) {
+        for (Subscription subscription : this.subscriptionsFor(event.getClass())) {
+            subscription.deliver(event);
+        }
+    }
+
+    /**
+     * Creates the view of this bus for a module, which tracks its subscriptions.
+     *
+     * @param owner the name of the module, used when logging listener failures
+     * @param asyncExecutor the executor that asynchronous listeners of the module are called on
+     */
+    public @NotNull ModuleEvents forModule(@NotNull String owner, @NotNull Executor asyncExecutor) {
+        return new ModuleEvents(this, owner, asyncExecutor);
+    }
+
+    @NotNull Subscription @NotNull [] subscriptionsFor(@NotNull Class<?> eventType) {
+        ConcurrentHashMap<Class<?>, Subscription[]> dispatch = this.dispatch;
+        Subscription[] subscriptions = dispatch.get(eventType);
+        if (subscriptions != null) return subscriptions;
+
+        return dispatch.computeIfAbsent(eventType, this::collect);
+    }
+
+    private synchronized @NotNull Subscription @NotNull [] collect(@NotNull Class<?> eventType) {
+        List<Subscription> matching = new ArrayList<>();
+        for (Subscription subscription : this.subscriptions) {
+            if (subscription.eventType().isAssignableFrom(eventType)) matching.add(subscription);
+        }
+        return matching.isEmpty() ? NO_SUBSCRIPTIONS : matching.toArray(Subscription[]::new);
+    }
+
+    synchronized void subscribe(@NotNull Subscription subscription) {
+        this.subscriptions.add(subscription);
+        this.dispatch = new ConcurrentHashMap<>();
+    }
+
+    synchronized void unsubscribe(@NotNull Subscription subscription) {
+        if (this.subscriptions.remove(subscription)) this.dispatch = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Called when a module is unloaded, so drops every cached array even if the module had no listeners.
+     */
+    synchronized void unsubscribeAll(@NotNull Collection<Subscription> subscriptions) {
+        this.subscriptions.removeAll(subscriptions);
+        this.dispatch = new ConcurrentHashMap<>();
+    }
+
+    boolean isCached(@NotNull Class<?> eventType) {
+        return this.dispatch.containsKey(eventType);
+    }
+}
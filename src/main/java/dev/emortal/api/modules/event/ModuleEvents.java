@@ -0,0 +1,80 @@
+package dev.emortal.api.modules.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * A module's view of the manager's {@link EventBus}. Every listener subscribed through this is unsubscribed when the
+ * module is unloaded.
+ */
+public final class ModuleEvents implements AutoCloseable {
+
+    private final @NotNull EventBus bus;
+    private final @NotNull String owner;
+    private final @NotNull Executor asyncExecutor;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private boolean closed; // Guarded by this
+
+    ModuleEvents(@NotNull EventBus bus, @NotNull String owner, @NotNull Executor asyncExecutor) {
+        this.bus = bus;
+        this.owner = owner;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * Calls the listener on the posting thread for every event that is an instance of the type.
+     *
+     * @throws IllegalStateException if the module has been unloaded
+     */
+    public <E> @NotNull Subscription subscribe(@NotNull Class<E> type, @NotNull Consumer<? super E> listener) {
+        return this.add(new Subscription(this, type, event -> listener.accept(type.cast(event)), null));
+    }
+
+    /**
+     * Calls the listener on a new virtual thread for every event that is an instance of the type, so that posting the
+     * event does not wait for it. Listeners still running when the module is unloaded are interrupted.
+     *
+     * @throws IllegalStateException if the module has been unloaded
+     */
+    public <E> @NotNull Subscription subscribeAsync(@NotNull Class<E> type, @NotNull Consumer<? super E> listener) {
+        return this.add(new Subscription(this, type, event -> listener.accept(type.cast(event)), this.asyncExecutor));
+    }
+
+    private synchronized @NotNull Subscription add(@NotNull Subscription subscription) {
+        if (this.closed) throw new IllegalStateException("Module " + this.owner + " has been unloaded, so cannot subscribe to events");
+
+        this.subscriptions.add(subscription);
+        this.bus.subscribe(subscription);
+        return subscription;
+    }
+
+    /**
+     * @see EventBus#post(Object)
+     */
+    public void post(@NotNull Object event) {
+        this.bus.post(event);
+    }
+
+    @NotNull String owner() {
+        return this.owner;
+    }
+
+    void unsubscribe(@NotNull Subscription subscription) {
+        this.subscriptions.remove(subscription);
+        this.bus.unsubscribe(subscription);
+    }
+
+    /**
+     * Unsubscribes every listener subscribed through this view, and rejects any that are subscribed after.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.bus.unsubscribeAll(this.subscriptions);
+        this.subscriptions.clear();
+    }
+}
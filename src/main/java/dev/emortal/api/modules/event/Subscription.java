@@ -0,0 +1,60 @@
+package dev.emortal.api.modules.event;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * A listener subscribed to an event bus, which can be closed to unsubscribe it.
+ */
+public final class Subscription implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Subscription.class);
+
+    private final @NotNull ModuleEvents owner;
+    private final @NotNull Class<?> eventType;
+    private final @NotNull Consumer<Object> listener;
+    private final @Nullable Executor executor;
+
+    Subscription(@NotNull ModuleEvents owner, @NotNull Class<?> eventType, @NotNull Consumer<Object> listener,
+                 @Nullable Executor executor) {
+        this.owner = owner;
+        this.eventType = eventType;
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    @NotNull Class<?> eventType() {
+        return this.eventType;
+    }
+
+    void deliver(@NotNull Object event) {
+        if (this.executor == null) {
+            this.accept(event);
+            return;
+        }
+
+        try {
+            this.executor.execute(() -> this.accept(event));
+        } catch (RejectedExecutionException exception) {
+            // The owning module is being unloaded, and will be unsubscribed shortly
+        }
+    }
+
+    private void accept(@NotNull Object event) {
+        try {
+            this.listener.accept(event);
+        } catch (Exception exception) {
+            LOGGER.error("Listener for {} in module {} failed", this.eventType.getSimpleName(), this.owner.owner(), exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.owner.unsubscribe(this);
+    }
+}
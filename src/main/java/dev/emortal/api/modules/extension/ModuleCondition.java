@@ -0,0 +1,15 @@
+package dev.emortal.api.modules.extension;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decides whether a module should be loaded, so that one artifact can load different modules in different deployments.
+ *
+ * <p>Conditions are checked after modules are resolved, and before they are validated and sorted. A module that does
+ * not match is left out along with every module that requires it, so none of them are ever created.</p>
+ */
+@FunctionalInterface
+public interface ModuleCondition {
+
+    boolean matches(@NotNull ModuleCandidate candidate);
+}
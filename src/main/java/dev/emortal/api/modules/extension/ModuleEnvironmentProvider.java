@@ -3,9 +3,21 @@ package dev.emortal.api.modules.extension;
 import dev.emortal.api.modules.ModuleProvider;
 import dev.emortal.api.modules.annotation.ModuleData;
 import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.env.ModuleResources;
 import org.jetbrains.annotations.NotNull;
 
 public interface ModuleEnvironmentProvider {
 
     @NotNull ModuleEnvironment create(@NotNull ModuleData data, @NotNull ModuleProvider provider);
+
+    /**
+     * Creates the environment with the resources the manager owns for the module, which is what the manager calls.
+     * By default, this ignores the resources, so providers whose environments expose them must override this.
+     *
+     * @param resources the resources owned by the manager for this module
+     */
+    default @NotNull ModuleEnvironment create(@NotNull ModuleData data, @NotNull ModuleProvider provider,
+                                              @NotNull ModuleResources resources) {
+        return this.create(data, provider);
+    }
 }
@@ -0,0 +1,32 @@
+package dev.emortal.api.modules.extension;
+
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.annotation.ModuleData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * A precomputed index of modules, usually generated at compile time by the module-system-processor artifact.
+ */
+public interface ModuleIndex {
+
+    /**
+     * Loads every module index registered as a service on the given class loader.
+     */
+    static @NotNull List<ModuleIndex> load(@NotNull ClassLoader classLoader) {
+        List<ModuleIndex> indexes = new ArrayList<>();
+        ServiceLoader.load(ModuleIndex.class, classLoader).forEach(indexes::add);
+        return indexes;
+    }
+
+    /**
+     * The modules in this index, with every module appearing after all of its dependencies in the index.
+     */
+    @NotNull List<Entry> entries();
+
+    record Entry(@NotNull Class<? extends Module> clazz, @NotNull ModuleData data) {
+    }
+}
@@ -0,0 +1,69 @@
+package dev.emortal.api.modules.extension;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Receives timings and failures from the module lifecycle, for metrics and tracing.
+ *
+ * <p>All durations are in nanoseconds. Listeners may be called from several threads at once when modules are loaded in
+ * parallel, and are called on the lifecycle's hot path, so should return quickly.</p>
+ */
+public interface ModuleLifecycleListener {
+
+    /**
+     * A listener that ignores everything.
+     */
+    ModuleLifecycleListener NONE = new ModuleLifecycleListener() {
+    };
+
+    /**
+     * Called after module candidates are resolved.
+     */
+    default void onResolve(int candidates, long durationNanos) {
+    }
+
+    /**
+     * Called after module candidates are sorted.
+     */
+    default void onSort(int candidates, long durationNanos) {
+    }
+
+    /**
+     * Called after a module has finished waiting for its dependencies to load. Only called when loading in parallel.
+     */
+    default void onDependencyWait(@NotNull ModuleData data, long durationNanos) {
+    }
+
+    /**
+     * Called after a module has successfully completed a phase.
+     */
+    default void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+    }
+
+    /**
+     * Called when a module fails a phase, either by throwing, or by returning false from loading.
+     *
+     * @param cause the exception thrown, if there was one
+     */
+    default void onFailure(@NotNull ModuleData data, @NotNull ModulePhase phase, @Nullable Throwable cause) {
+    }
+
+    /**
+     * Called once when a module fails to load, with every module that will not be loaded because it requires the failed
+     * module, directly or indirectly. These modules are never created.
+     */
+    default void onSkipped(@NotNull ModuleData failed, @NotNull List<ModuleData> skipped) {
+    }
+
+    /**
+     * Called when a module has failed to create or load, and will be tried again after the delay.
+     *
+     * @param attempt the attempt that failed, starting from 1
+     */
+    default void onRetry(@NotNull ModuleData data, int attempt, long delayNanos) {
+    }
+}
@@ -0,0 +1,14 @@
+package dev.emortal.api.modules.extension;
+
+/**
+ * A point in a module's lifecycle that can be timed or fail.
+ */
+public enum ModulePhase {
+
+    CREATE,
+    LOAD,
+    READY,
+    UNLOAD,
+    CHECKPOINT,
+    RESTORE
+}
@@ -5,6 +5,11 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Collection;
 import java.util.List;
 
+/**
+ * Orders modules so that every module comes after its dependencies.
+ * Where the dependencies allow, more urgent {@link dev.emortal.api.modules.annotation.ModuleData#priority()}s should
+ * come first, as modules are started in this order.
+ */
 public interface ModuleSorter {
 
     @NotNull List<ModuleCandidate> sortModules(@NotNull Collection<ModuleCandidate> modules);
@@ -0,0 +1,63 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.annotation.Condition;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleCondition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * Matches modules whose {@link Condition}s from their {@link dev.emortal.api.modules.annotation.ModuleData} are all met.
+ */
+public final class AnnotationModuleCondition implements ModuleCondition {
+
+    private final @NotNull Set<String> profiles;
+
+    /**
+     * @param profiles the active profiles
+     */
+    public AnnotationModuleCondition(@NotNull Set<String> profiles) {
+        this.profiles = Set.copyOf(profiles);
+    }
+
+    @Override
+    public boolean matches(@NotNull ModuleCandidate candidate) {
+        for (Condition condition : candidate.data().conditions()) {
+            if (!this.isMet(condition, candidate)) return false;
+        }
+        return true;
+    }
+
+    private boolean isMet(@NotNull Condition condition, @NotNull ModuleCandidate candidate) {
+        return switch (condition.type()) {
+            case ENVIRONMENT_VARIABLE -> matchesValue(System.getenv(condition.name()), condition.value());
+            case SYSTEM_PROPERTY -> matchesValue(System.getProperty(condition.name()), condition.value());
+            case CLASS_PRESENT -> isPresent(condition.name(), candidate.clazz().getClassLoader());
+            case PROFILE -> this.isActive(condition.name());
+        };
+    }
+
+    private static boolean matchesValue(@Nullable String actual, @NotNull String expected) {
+        if (actual == null) return false;
+        return expected.isEmpty() || expected.equals(actual);
+    }
+
+    private static boolean isPresent(@NotNull String className, @Nullable ClassLoader loader) {
+        try {
+            // Not initialized, as the module may never use it
+            Class.forName(className, false, loader);
+            return true;
+        } catch (ClassNotFoundException | LinkageError exception) {
+            return false;
+        }
+    }
+
+    private boolean isActive(@NotNull String profiles) {
+        for (String profile : profiles.split(",")) {
+            if (this.profiles.contains(profile.trim())) return true;
+        }
+        return false;
+    }
+}
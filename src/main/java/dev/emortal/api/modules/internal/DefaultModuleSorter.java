@@ -4,48 +4,186 @@ import dev.emortal.api.modules.annotation.Dependency;
 import dev.emortal.api.modules.extension.ModuleCandidate;
 import dev.emortal.api.modules.extension.ModuleSorter;
 import org.jetbrains.annotations.NotNull;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DirectedAcyclicGraph;
-import org.jgrapht.traverse.TopologicalOrderIterator;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Sorts modules so that every module comes after its dependencies, using Kahn's algorithm over int-indexed arrays.
+ *
+ * <p>Modules that could be loaded at the same point are ordered by priority and then by name, so that more urgent
+ * modules are started first, and the order is the same every time for the same set of modules. A module has the most
+ * urgent priority of itself and every module that depends on it, so that it does not hold up a more urgent module.
+ * Dependencies on modules that are not being sorted are ignored.</p>
+ */
 public final class DefaultModuleSorter implements ModuleSorter {
 
     @Override
     public @NotNull List<ModuleCandidate> sortModules(@NotNull Collection<ModuleCandidate> modules) {
-        List<ModuleCandidate> sortedCandidates = new ArrayList<>(modules);
-        sortedCandidates.sort(Comparator.comparing(candidate -> candidate.data().name()));
+        // Sorting by name first means that, within a priority, the lowest ready index is always the next module by name
+        ModuleCandidate[] nodes = modules.toArray(ModuleCandidate[]::new);
+        Arrays.sort(nodes, Comparator.comparing(candidate -> candidate.data().name()));
+        int count = nodes.length;
 
-        Graph<ModuleCandidate, DefaultEdge> graph = new DirectedAcyclicGraph<>(DefaultEdge.class);
-        Map<String, ModuleCandidate> moduleMap = new HashMap<>();
-        for (ModuleCandidate module : modules) {
-            moduleMap.put(module.data().name(), module);
+        Map<String, Integer> indexByName = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            indexByName.put(nodes[i].data().name(), i);
         }
 
-        for (ModuleCandidate module : modules) {
-            graph.addVertex(module);
-
-            for (Dependency dependency : module.data().dependencies()) {
-                // find the LoadableModule for the dependency's Class
-                ModuleCandidate dependencyModule = moduleMap.get(dependency.name());
-                if (dependencyModule == null) continue;
+        // The indexes of each module's dependencies, and how many modules depend on each module
+        int[][] dependencies = new int[count][];
+        int[] dependentCounts = new int[count];
+        int[] remainingDependencies = new int[count];
+        for (int i = 0; i < count; i++) {
+            dependencies[i] = this.resolveDependencies(nodes[i], indexByName);
+            remainingDependencies[i] = dependencies[i].length;
+            for (int dependency : dependencies[i]) {
+                dependentCounts[dependency]++;
+            }
+        }
 
-                graph.addVertex(dependencyModule);
-                graph.addEdge(dependencyModule, module);
+        // Edges from each dependency to its dependents, stored as offsets into a single array
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = offsets[i] + dependentCounts[i];
+        }
+        int[] dependents = new int[offsets[count]];
+        int[] filled = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (int dependency : dependencies[i]) {
+                dependents[offsets[dependency] + filled[dependency]++] = i;
             }
         }
-        TopologicalOrderIterator<ModuleCandidate, DefaultEdge> iterator = new TopologicalOrderIterator<>(graph);
 
-        List<ModuleCandidate> sorted = new ArrayList<>();
-        iterator.forEachRemaining(sorted::add);
+        // Ready modules are keyed by priority and then index, so the heap always gives the most urgent module first
+        int[] priorities = this.inheritPriorities(nodes, dependencies);
+        IntMinHeap ready = new IntMinHeap(count);
+        for (int i = 0; i < count; i++) {
+            if (remainingDependencies[i] == 0) ready.add(priorities[i] * count + i);
+        }
+
+        List<ModuleCandidate> sorted = new ArrayList<>(count);
+        while (!ready.isEmpty()) {
+            int node = ready.poll() % count;
+            sorted.add(nodes[node]);
 
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int dependent = dependents[i];
+                if (--remainingDependencies[dependent] == 0) ready.add(priorities[dependent] * count + dependent);
+            }
+        }
+
+        if (sorted.size() != count) {
+            throw new IllegalArgumentException("Module dependency cycles found: " + this.describeCycles(nodes, dependencies));
+        }
         return sorted;
     }
+
+    /**
+     * Gives every module the most urgent priority of itself and its dependents, as the ordinal of the priority.
+     * This runs before the modules are sorted, and may run on a graph with cycles, so priorities are pushed to
+     * dependencies until nothing changes. A priority can only become more urgent, so this always ends.
+     */
+    private int @NotNull [] inheritPriorities(ModuleCandidate @NotNull [] nodes, int @NotNull [][] dependencies) {
+        int count = nodes.length;
+        int[] priorities = new int[count];
+        ArrayDeque<Integer> changed = new ArrayDeque<>(count);
+        for (int i = 0; i < count; i++) {
+            priorities[i] = nodes[i].data().priority().ordinal();
+            changed.add(i);
+        }
+
+        while (!changed.isEmpty()) {
+            int node = changed.poll();
+            for (int dependency : dependencies[node]) {
+                if (priorities[dependency] <= priorities[node]) continue;
+
+                priorities[dependency] = priorities[node];
+                changed.add(dependency);
+            }
+        }
+        return priorities;
+    }
+
+    private int @NotNull [] resolveDependencies(@NotNull ModuleCandidate candidate, @NotNull Map<String, Integer> indexByName) {
+        Dependency[] declared = candidate.data().dependencies();
+        int[] resolved = new int[declared.length];
+        int count = 0;
+
+        for (Dependency dependency : declared) {
+            Integer index = indexByName.get(dependency.name());
+            if (index == null) continue;
+
+            boolean duplicate = false;
+            for (int i = 0; i < count; i++) {
+                if (resolved[i] == index) duplicate = true;
+            }
+            if (!duplicate) resolved[count++] = index;
+        }
+
+        return count == resolved.length ? resolved : Arrays.copyOf(resolved, count);
+    }
+
+    private @NotNull String describeCycles(ModuleCandidate @NotNull [] nodes, int @NotNull [][] dependencies) {
+        List<String> cycles = new ArrayList<>();
+        for (int[] cycle : DependencyCycles.find(dependencies)) {
+            StringBuilder description = new StringBuilder();
+            for (int i = 0; i < cycle.length; i++) {
+                if (i > 0) description.append(" -> ");
+                description.append(nodes[cycle[i]].data().name());
+            }
+            cycles.add(description.toString());
+        }
+        return String.join(", ", cycles);
+    }
+
+    private static final class IntMinHeap {
+
+        private final int[] values;
+        private int size;
+
+        IntMinHeap(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        void add(int value) {
+            int index = this.size++;
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (this.values[parent] <= value) break;
+
+                this.values[index] = this.values[parent];
+                index = parent;
+            }
+            this.values[index] = value;
+        }
+
+        int poll() {
+            int result = this.values[0];
+            int last = this.values[--this.size];
+
+            int index = 0;
+            int half = this.size >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                if (child + 1 < this.size && this.values[child + 1] < this.values[child]) child++;
+                if (last <= this.values[child]) break;
+
+                this.values[index] = this.values[child];
+                index = child;
+            }
+            this.values[index] = last;
+            return result;
+        }
+    }
 }
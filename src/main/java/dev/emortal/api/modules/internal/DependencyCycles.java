@@ -0,0 +1,176 @@
+package dev.emortal.api.modules.internal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the dependency cycles in a graph of int-indexed modules.
+ *
+ * <p>The modules are first split into strongly connected components with Tarjan's algorithm, as every cycle lies
+ * within a single component. Within each component, the shortest cycle through each module not already in a reported
+ * cycle is reported, so cycles that share a module are all reported, and every module in a cycle is in at least one
+ * reported cycle, without listing every elementary cycle, which can grow exponentially.</p>
+ */
+public final class DependencyCycles {
+
+    /**
+     * @param dependencies the indexes of each module's dependencies
+     * @return each cycle as a path of module indexes, with the first module repeated at the end, ordered by the lowest
+     * index of a module in the cycle
+     */
+    public static @NotNull List<int[]> find(int @NotNull [][] dependencies) {
+        int count = dependencies.length;
+        int[] components = components(dependencies);
+        int[] componentSizes = new int[count];
+        for (int component : components) {
+            componentSizes[component]++;
+        }
+
+        List<int[]> cycles = new ArrayList<>();
+        boolean[] covered = new boolean[count];
+        int[] parents = new int[count];
+        Arrays.fill(parents, -1);
+
+        for (int start = 0; start < count; start++) {
+            if (covered[start]) continue;
+            // A module alone in its component can only be in a cycle with itself
+            if (componentSizes[components[start]] == 1 && !contains(dependencies[start], start)) continue;
+
+            int[] cycle = shortestCycle(start, dependencies, components, parents);
+            if (cycle == null) continue;
+
+            for (int node : cycle) {
+                covered[node] = true;
+            }
+            cycles.add(cycle);
+        }
+        return cycles;
+    }
+
+    /**
+     * Gives every module the index of its strongly connected component, without recursion so deep graphs cannot
+     * overflow the stack.
+     */
+    private static int @NotNull [] components(int @NotNull [][] dependencies) {
+        int count = dependencies.length;
+        int[] order = new int[count];
+        Arrays.fill(order, -1);
+        int[] low = new int[count];
+        int[] components = new int[count];
+        boolean[] onStack = new boolean[count];
+        int[] stack = new int[count];
+        int stackSize = 0;
+
+        // The modules being explored, and how many of each one's dependencies have been followed
+        int[] path = new int[count];
+        int[] followed = new int[count];
+        int next = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < count; root++) {
+            if (order[root] != -1) continue;
+
+            int depth = 0;
+            path[depth] = root;
+            followed[depth++] = 0;
+            order[root] = low[root] = next++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (followed[depth - 1] < dependencies[node].length) {
+                    int dependency = dependencies[node][followed[depth - 1]++];
+                    if (order[dependency] == -1) {
+                        order[dependency] = low[dependency] = next++;
+                        stack[stackSize++] = dependency;
+                        onStack[dependency] = true;
+                        path[depth] = dependency;
+                        followed[depth++] = 0;
+                    } else if (onStack[dependency]) {
+                        low[node] = Math.min(low[node], order[dependency]);
+                    }
+                    continue;
+                }
+
+                if (low[node] == order[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        components[member] = componentCount;
+                    } while (member != node);
+                    componentCount++;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Searches breadth first from the module, within its component, for the shortest path back to it.
+     *
+     * @param parents every entry is -1, and is left that way on return
+     */
+    private static int @Nullable [] shortestCycle(int start, int @NotNull [][] dependencies, int @NotNull [] components,
+                                                  int @NotNull [] parents) {
+        int[] queue = new int[dependencies.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+
+        int[] cycle = null;
+        search:
+        while (head < tail) {
+            int node = queue[head++];
+            for (int dependency : dependencies[node]) {
+                if (components[dependency] != components[start]) continue;
+
+                if (dependency == start) {
+                    int length = 1;
+                    for (int current = node; current != start; current = parents[current]) {
+                        length++;
+                    }
+
+                    cycle = new int[length + 1];
+                    cycle[0] = start;
+                    cycle[length] = start;
+                    int position = length - 1;
+                    for (int current = node; current != start; current = parents[current]) {
+                        cycle[position--] = current;
+                    }
+                    break search;
+                }
+
+                if (parents[dependency] != -1) continue;
+                parents[dependency] = node;
+                queue[tail++] = dependency;
+            }
+        }
+
+        for (int i = 1; i < tail; i++) {
+            parents[queue[i]] = -1;
+        }
+        return cycle;
+    }
+
+    private static boolean contains(int @NotNull [] values, int value) {
+        for (int candidate : values) {
+            if (candidate == value) return true;
+        }
+        return false;
+    }
+
+    private DependencyCycles() {
+    }
+}
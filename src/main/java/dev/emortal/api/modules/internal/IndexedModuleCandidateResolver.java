@@ -0,0 +1,71 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleCandidateResolver;
+import dev.emortal.api.modules.extension.ModuleIndex;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves candidates from precomputed module indexes rather than reading annotations at runtime.
+ * Candidates are returned in index order.
+ */
+public final class IndexedModuleCandidateResolver implements ModuleCandidateResolver {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexedModuleCandidateResolver.class);
+
+    private final Map<Class<? extends Module>, IndexedData> dataByClass = new HashMap<>();
+
+    /**
+     * Uses every module index registered on the context class loader.
+     */
+    public IndexedModuleCandidateResolver() {
+        this(ModuleIndex.load(Thread.currentThread().getContextClassLoader()));
+    }
+
+    public IndexedModuleCandidateResolver(@NotNull ModuleIndex index) {
+        this(List.of(index));
+    }
+
+    public IndexedModuleCandidateResolver(@NotNull Collection<ModuleIndex> indexes) {
+        for (ModuleIndex index : indexes) {
+            for (ModuleIndex.Entry entry : index.entries()) {
+                this.dataByClass.putIfAbsent(entry.clazz(), new IndexedData(entry.data(), this.dataByClass.size()));
+            }
+        }
+    }
+
+    @Override
+    public @NotNull List<ModuleCandidate> resolveCandidates(@NotNull Collection<LoadableModule> modules) {
+        // Placing candidates at their index position puts them in index order without sorting
+        ModuleCandidate[] byPosition = new ModuleCandidate[this.dataByClass.size()];
+
+        for (LoadableModule module : modules) {
+            IndexedData data = this.dataByClass.get(module.clazz());
+            if (data == null) {
+                LOGGER.error("Module class {} not found in any module index", module.clazz().getSimpleName());
+                continue;
+            }
+
+            byPosition[data.position()] = new ModuleCandidate(module.clazz(), module.creator(), data.data());
+        }
+
+        List<ModuleCandidate> result = new ArrayList<>(modules.size());
+        for (ModuleCandidate candidate : byPosition) {
+            if (candidate != null) result.add(candidate);
+        }
+        return result;
+    }
+
+    private record IndexedData(@NotNull ModuleData data, int position) {
+    }
+}
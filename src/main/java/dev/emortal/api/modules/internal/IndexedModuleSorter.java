@@ -0,0 +1,40 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleIndex;
+import dev.emortal.api.modules.extension.ModuleSorter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sorts modules using the order precomputed in a module index, without building a dependency graph.
+ */
+public final class IndexedModuleSorter implements ModuleSorter {
+
+    private final Map<Class<? extends Module>, Integer> positionByClass = new HashMap<>();
+
+    public IndexedModuleSorter(@NotNull ModuleIndex index) {
+        for (ModuleIndex.Entry entry : index.entries()) {
+            this.positionByClass.put(entry.clazz(), this.positionByClass.size());
+        }
+    }
+
+    @Override
+    public @NotNull List<ModuleCandidate> sortModules(@NotNull Collection<ModuleCandidate> modules) {
+        List<ModuleCandidate> sorted = new ArrayList<>(modules);
+        for (ModuleCandidate module : sorted) {
+            if (!this.positionByClass.containsKey(module.clazz())) {
+                throw new IllegalArgumentException("Module " + module.data().name() + " is not in the module index");
+            }
+        }
+
+        sorted.sort((first, second) -> Integer.compare(this.positionByClass.get(first.clazz()), this.positionByClass.get(second.clazz())));
+        return sorted;
+    }
+}
@@ -0,0 +1,167 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.ModuleKey;
+import dev.emortal.api.modules.ModuleProvider;
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Creates modules by calling their constructor with their dependencies already resolved.
+ *
+ * <p>The constructor may take, in any order:</p>
+ * <ul>
+ *     <li>the {@link ModuleEnvironment}</li>
+ *     <li>a module type, for a required dependency, which is never null</li>
+ *     <li>an {@link Optional} of a module type, for an optional dependency</li>
+ * </ul>
+ *
+ * <p>Every module parameter must match a dependency declared in the module's {@link ModuleData}: a required dependency
+ * for a module type, and an optional one for an {@link Optional}. This is checked when the creator is created, so that
+ * a parameter the sorter does not know about fails at registration rather than when the module is created.</p>
+ *
+ * <p>The constructor is inspected once, when the creator is created, and is then called through a method handle.</p>
+ */
+public final class InjectingCreator implements LoadableModule.Creator {
+
+    private final @NotNull Class<? extends Module> type;
+    private final @NotNull MethodHandle constructor;
+    private final Parameter @NotNull [] parameters;
+
+    /**
+     * Creates a creator for a module whose data, and the data of its dependencies, is read from their
+     * {@link ModuleData} annotations.
+     *
+     * @throws IllegalArgumentException if the constructor cannot be injected, or does not match the declared
+     *                                  dependencies
+     */
+    public InjectingCreator(@NotNull Class<? extends Module> type) {
+        this(type, clazz -> clazz.getAnnotation(ModuleData.class));
+    }
+
+    /**
+     * @param dataLookup gets the data of the module and its dependencies, or null for classes that are not modules
+     * @throws IllegalArgumentException if the constructor cannot be injected, or does not match the declared
+     *                                  dependencies
+     */
+    public InjectingCreator(@NotNull Class<? extends Module> type,
+                            @NotNull Function<Class<? extends Module>, @Nullable ModuleData> dataLookup) {
+        this.type = type;
+
+        ModuleData data = dataLookup.apply(type);
+        if (data == null) throw new IllegalArgumentException("Module " + type.getName() + " has no module data to check its constructor against");
+        Map<String, Boolean> declared = new HashMap<>();
+        for (Dependency dependency : data.dependencies()) {
+            declared.put(dependency.name(), dependency.required());
+        }
+
+        Constructor<?>[] constructors = type.getDeclaredConstructors();
+        if (constructors.length != 1) {
+            throw new IllegalArgumentException("Module " + type.getName() + " must have exactly one constructor to be injected");
+        }
+        Constructor<?> constructor = constructors[0];
+
+        Type[] parameterTypes = constructor.getGenericParameterTypes();
+        this.parameters = new Parameter[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            this.parameters[i] = this.resolveParameter(parameterTypes[i]);
+            this.checkDeclared(this.parameters[i], declared, dataLookup);
+        }
+
+        try {
+            constructor.setAccessible(true);
+            this.constructor = MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, parameterTypes.length);
+        } catch (IllegalAccessException | RuntimeException exception) {
+            throw new IllegalArgumentException("Module " + type.getName() + " constructor cannot be accessed", exception);
+        }
+    }
+
+    private @NotNull Parameter resolveParameter(@NotNull Type parameterType) {
+        if (parameterType == ModuleEnvironment.class) return new Parameter(null, false);
+
+        if (parameterType instanceof Class<?> clazz && Module.class.isAssignableFrom(clazz)) {
+            return new Parameter(ModuleKey.of(clazz.asSubclass(Module.class)), true);
+        }
+
+        if (parameterType instanceof ParameterizedType parameterized && parameterized.getRawType() == Optional.class
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> clazz && Module.class.isAssignableFrom(clazz)) {
+            return new Parameter(ModuleKey.of(clazz.asSubclass(Module.class)), false);
+        }
+
+        throw new IllegalArgumentException("Module " + this.type.getName() + " constructor has parameter of type "
+                + parameterType.getTypeName() + ", which cannot be injected");
+    }
+
+    private void checkDeclared(@NotNull Parameter parameter, @NotNull Map<String, Boolean> declared,
+                               @NotNull Function<Class<? extends Module>, @Nullable ModuleData> dataLookup) {
+        if (parameter.key() == null) return;
+
+        Class<? extends Module> dependencyType = parameter.key().type();
+        ModuleData dependencyData = dataLookup.apply(dependencyType);
+        if (dependencyData == null) {
+            throw new IllegalArgumentException("Module " + this.type.getName() + " constructor has parameter of type "
+                    + dependencyType.getName() + ", which has no module data");
+        }
+
+        String name = dependencyData.name();
+        Boolean required = declared.get(name);
+        if (required == null) {
+            throw new IllegalArgumentException("Module " + this.type.getName() + " constructor takes module " + name
+                    + ", which is not a declared dependency");
+        }
+        if (required != parameter.required()) {
+            throw new IllegalArgumentException("Module " + this.type.getName() + " constructor takes module " + name
+                    + (required ? " as an Optional, but it is a required dependency" : " directly, but it is an optional dependency, so must be an Optional"));
+        }
+    }
+
+    @Override
+    public @NotNull Module create(@NotNull ModuleEnvironment environment) throws Exception {
+        ModuleProvider provider = environment.moduleProvider();
+
+        Object[] arguments = new Object[this.parameters.length];
+        for (int i = 0; i < this.parameters.length; i++) {
+            Parameter parameter = this.parameters[i];
+            if (parameter.key() == null) {
+                arguments[i] = environment;
+                continue;
+            }
+
+            Module dependency = provider.getModule(parameter.key());
+            if (parameter.required() && dependency == null) {
+                throw new IllegalStateException("Required module " + parameter.key().type().getSimpleName()
+                        + " was not available to inject into " + this.type.getSimpleName());
+            }
+            arguments[i] = parameter.required() ? dependency : Optional.ofNullable(dependency);
+        }
+
+        try {
+            return (Module) this.constructor.invoke(arguments);
+        } catch (Exception exception) {
+            throw exception;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Failed to create module " + this.type.getSimpleName(), throwable);
+        }
+    }
+
+    /**
+     * @param key the module to inject, or null to inject the environment
+     */
+    private record Parameter(ModuleKey<?> key, boolean required) {
+    }
+}
@@ -0,0 +1,291 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.annotation.Condition;
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleCandidateResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Discovers modules from a directory of JARs, giving each JAR its own class loader.
+ *
+ * <p>Each JAR must contain the text index at {@value #INDEX_PATH} that is generated by the module-system-processor
+ * artifact, so modules can be found and their class loaders set up without scanning or loading any classes. Modules
+ * required from other JARs must be listed in the processor's {@code modules.externalModules} option. The indexes of
+ * all JARs are read at the same time.</p>
+ *
+ * <p>A JAR's class loader can only see classes from the parent class loader, the JAR itself, and the JARs that hold the
+ * modules it depends on. Once its modules have been unloaded, either with
+ * {@link dev.emortal.api.modules.ModuleManager#unloadModule(Class)} or by unloading the manager, and this resolver has
+ * been closed, the class loaders and their classes can be garbage collected. A
+ * {@link dev.emortal.api.modules.LoadPlanCache} holding plans for the modules keeps them reachable until it is
+ * cleared.</p>
+ *
+ * <p>The discovered modules are created by constructor injection, and can be registered with
+ * {@link dev.emortal.api.modules.ModuleManager.Builder#modules(Collection)}.</p>
+ */
+public final class JarModuleCandidateResolver implements ModuleCandidateResolver, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarModuleCandidateResolver.class);
+
+    public static final String INDEX_PATH = "META-INF/modules.index";
+
+    private final List<JarModuleClassLoader> classLoaders = new ArrayList<>();
+    private final Map<Class<? extends Module>, ModuleData> dataByClass = new LinkedHashMap<>();
+
+    /**
+     * Discovers modules from the JARs in the directory, with the class loader of the module system as their parent.
+     */
+    public JarModuleCandidateResolver(@NotNull Path directory) throws IOException {
+        this(directory, JarModuleCandidateResolver.class.getClassLoader());
+    }
+
+    public JarModuleCandidateResolver(@NotNull Path directory, @NotNull ClassLoader parent) throws IOException {
+        List<Path> jars;
+        try (Stream<Path> files = Files.list(directory)) {
+            jars = files.filter(file -> file.getFileName().toString().endsWith(".jar")).sorted().toList();
+        }
+
+        List<JarIndex> indexes = readIndexes(jars);
+        Map<String, JarIndex> jarByModule = new HashMap<>();
+        for (JarIndex index : indexes) {
+            for (IndexLine line : index.lines()) {
+                jarByModule.putIfAbsent(line.data().name(), index);
+            }
+        }
+
+        try {
+            // Every loader is created before linking them, as JARs may depend on each other. Cycles between the modules
+            // themselves are left for the module sorter to report.
+            Map<JarIndex, JarModuleClassLoader> loaders = new HashMap<>();
+            for (JarIndex index : indexes) {
+                JarModuleClassLoader loader = new JarModuleClassLoader(index.jar(), parent);
+                loaders.put(index, loader);
+                this.classLoaders.add(loader);
+            }
+            for (JarIndex index : indexes) {
+                loaders.get(index).dependsOn(index.dependencies(jarByModule).stream().map(loaders::get).toList());
+            }
+
+            for (JarIndex index : indexes) {
+                this.loadModules(index, loaders.get(index));
+            }
+        } catch (IOException | RuntimeException exception) {
+            // Nothing else holds the loaders yet, so they would stay open
+            try {
+                this.close();
+            } catch (IOException closeException) {
+                exception.addSuppressed(closeException);
+            }
+            throw exception;
+        }
+    }
+
+    private static @NotNull List<JarIndex> readIndexes(@NotNull List<Path> jars) throws IOException {
+        List<JarIndex> indexes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<JarIndex>> results = new ArrayList<>(jars.size());
+            for (Path jar : jars) {
+                results.add(executor.submit(() -> readIndex(jar)));
+            }
+
+            for (Future<JarIndex> result : results) {
+                JarIndex index = result.get();
+                if (index != null) indexes.add(index);
+            }
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException cause) throw cause;
+            throw new IllegalStateException("Failed to read module JARs", exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading module JARs", exception);
+        }
+        return indexes;
+    }
+
+    private static @Nullable JarIndex readIndex(@NotNull Path jar) throws IOException {
+        String text;
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            ZipEntry entry = zip.getEntry(INDEX_PATH);
+            if (entry == null) {
+                LOGGER.warn("Ignoring {} as it does not contain a module index", jar.getFileName());
+                return null;
+            }
+
+            try (InputStream input = zip.getInputStream(entry)) {
+                text = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+
+        List<IndexLine> lines = new ArrayList<>();
+        for (String line : text.split("\n")) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            lines.add(IndexLine.parse(jar, line));
+        }
+        return new JarIndex(jar, lines);
+    }
+
+    private void loadModules(@NotNull JarIndex index, @NotNull JarModuleClassLoader loader) {
+        for (IndexLine line : index.lines()) {
+            try {
+                Class<?> type = Class.forName(line.className(), false, loader);
+                this.dataByClass.put(type.asSubclass(Module.class), line.data());
+            } catch (ClassNotFoundException | ClassCastException exception) {
+                throw new IllegalArgumentException("Module class " + line.className() + " in " + index.jar().getFileName()
+                        + " is not a module", exception);
+            }
+        }
+    }
+
+    /**
+     * The discovered modules, which are created by injecting their dependencies into their constructor.
+     */
+    public @NotNull List<LoadableModule> modules() {
+        List<LoadableModule> modules = new ArrayList<>(this.dataByClass.size());
+        for (Class<? extends Module> type : this.dataByClass.keySet()) {
+            // Dependencies outside of module JARs, such as modules of the host, are read from their annotation
+            modules.add(new LoadableModule(type, new InjectingCreator(type, clazz -> {
+                ModuleData data = this.dataByClass.get(clazz);
+                return data != null ? data : clazz.getAnnotation(ModuleData.class);
+            })));
+        }
+        return modules;
+    }
+
+    @Override
+    public @NotNull List<ModuleCandidate> resolveCandidates(@NotNull Collection<LoadableModule> modules) {
+        List<ModuleCandidate> candidates = new ArrayList<>(modules.size());
+        for (LoadableModule module : modules) {
+            ModuleData data = this.dataByClass.get(module.clazz());
+            if (data == null) {
+                LOGGER.error("Module class {} was not discovered in any module JAR", module.clazz().getName());
+                continue;
+            }
+
+            candidates.add(new ModuleCandidate(module.clazz(), module.creator(), data));
+        }
+        return candidates;
+    }
+
+    /**
+     * Closes the class loaders of all discovered JARs. Modules should be unloaded before this.
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (JarModuleClassLoader loader : this.classLoaders) {
+            try {
+                loader.close();
+            } catch (IOException exception) {
+                if (failure == null) failure = exception;
+                else failure.addSuppressed(exception);
+            }
+        }
+
+        this.classLoaders.clear();
+        this.dataByClass.clear();
+        if (failure != null) throw failure;
+    }
+
+    private record JarIndex(@NotNull Path jar, @NotNull List<IndexLine> lines) {
+
+        /**
+         * The other JARs that hold the modules this JAR depends on.
+         */
+        @NotNull List<JarIndex> dependencies(@NotNull Map<String, JarIndex> jarByModule) {
+            List<JarIndex> dependencies = new ArrayList<>();
+            for (IndexLine line : this.lines) {
+                for (Dependency dependency : line.data().dependencies()) {
+                    JarIndex jar = jarByModule.get(dependency.name());
+                    if (jar != null && jar != this && !dependencies.contains(jar)) dependencies.add(jar);
+                }
+            }
+            return dependencies;
+        }
+    }
+
+    private record IndexLine(@NotNull String className, @NotNull ModuleData data) {
+
+        static @NotNull IndexLine parse(@NotNull Path jar, @NotNull String line) throws IOException {
+            String[] fields = line.split("\t");
+            if (fields.length < 2) throw new IOException("Invalid module index line in " + jar.getFileName() + ": " + line);
+
+            ModuleDataBuilder builder = ModuleDataBuilder.builder(fields[1]);
+            for (int i = 2; i < fields.length; i++) {
+                int separator = fields[i].indexOf('=');
+                if (separator == -1) continue;
+
+                String value = fields[i].substring(separator + 1);
+                switch (fields[i].substring(0, separator)) {
+                    case "lazy" -> builder.lazy(Boolean.parseBoolean(value));
+                    case "requires" -> builder.dependency(value, true);
+                    case "optional" -> builder.dependency(value, false);
+                    case "when" -> parseCondition(jar, builder, value);
+                    case "priority" -> builder.priority(parseConstant(jar, ModuleData.Priority.class, value));
+                    case "workload" -> builder.workload(parseConstant(jar, ModuleData.Workload.class, value));
+                    case "group" -> builder.readinessGroup(value);
+                    default -> {
+                        // Fields added by newer versions are ignored
+                    }
+                }
+            }
+            return new IndexLine(fields[0], builder.build());
+        }
+
+        private static <E extends Enum<E>> @NotNull E parseConstant(@NotNull Path jar, @NotNull Class<E> type,
+                                                                    @NotNull String value) throws IOException {
+            try {
+                return Enum.valueOf(type, value);
+            } catch (IllegalArgumentException exception) {
+                throw new IOException("Unknown " + type.getSimpleName() + " in " + jar.getFileName() + ": " + value, exception);
+            }
+        }
+
+        private static void parseCondition(@NotNull Path jar, @NotNull ModuleDataBuilder builder, @NotNull String condition) throws IOException {
+            int typeEnd = condition.indexOf(':');
+            if (typeEnd == -1) throw new IOException("Invalid module condition in " + jar.getFileName() + ": " + condition);
+
+            Condition.Type type;
+            try {
+                type = Condition.Type.valueOf(condition.substring(0, typeEnd));
+            } catch (IllegalArgumentException exception) {
+                throw new IOException("Unknown module condition type in " + jar.getFileName() + ": " + condition, exception);
+            }
+
+            String rest = condition.substring(typeEnd + 1);
+            int nameEnd = rest.indexOf('=');
+            if (nameEnd == -1) {
+                builder.condition(type, rest);
+            } else {
+                builder.condition(type, rest.substring(0, nameEnd), rest.substring(nameEnd + 1));
+            }
+        }
+    }
+}
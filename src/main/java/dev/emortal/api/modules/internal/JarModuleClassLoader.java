@@ -0,0 +1,82 @@
+package dev.emortal.api.modules.internal;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads the classes of a single module JAR.
+ *
+ * <p>Classes are looked up in the parent first, which holds the module system and anything shared between modules,
+ * then in the JAR itself, and then in the loaders of the JARs that hold this JAR's dependencies. Classes from JARs that
+ * are not dependencies are never visible. JARs may depend on each other in both directions, as long as the modules
+ * in them do not.</p>
+ */
+final class JarModuleClassLoader extends URLClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private volatile @NotNull List<JarModuleClassLoader> dependencies = List.of();
+
+    JarModuleClassLoader(@NotNull Path jar, @NotNull ClassLoader parent) throws MalformedURLException {
+        super("module:" + jar.getFileName(), new URL[]{jar.toUri().toURL()}, parent);
+    }
+
+    /**
+     * Sets the loaders of the JARs this JAR depends on, which is done after every loader has been created so that JARs
+     * can depend on each other. This must be called before any class is loaded.
+     */
+    void dependsOn(@NotNull List<JarModuleClassLoader> dependencies) {
+        this.dependencies = List.copyOf(dependencies);
+    }
+
+    @Override
+    protected @NotNull Class<?> loadClass(@NotNull String name, boolean resolve) throws ClassNotFoundException {
+        Class<?> loaded;
+        try {
+            loaded = this.getParent().loadClass(name);
+        } catch (ClassNotFoundException exception) {
+            loaded = this.findInModule(name, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+
+        if (loaded == null) throw new ClassNotFoundException(name);
+        if (resolve) this.resolveClass(loaded);
+        return loaded;
+    }
+
+    /**
+     * Finds a class in this JAR or in the JARs of its dependencies, without going through the parent.
+     *
+     * @param visited the loaders already searched, so that JARs that depend on each other are only searched once
+     */
+    private @Nullable Class<?> findInModule(@NotNull String name, @NotNull Set<JarModuleClassLoader> visited) {
+        if (!visited.add(this)) return null;
+
+        synchronized (this.getClassLoadingLock(name)) {
+            Class<?> loaded = this.findLoadedClass(name);
+            if (loaded != null) return loaded;
+
+            try {
+                return this.findClass(name);
+            } catch (ClassNotFoundException ignored) {
+                // Not in this JAR, so try the dependencies
+            }
+        }
+
+        for (JarModuleClassLoader dependency : this.dependencies) {
+            Class<?> loaded = dependency.findInModule(name, visited);
+            if (loaded != null) return loaded;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,135 @@
+package dev.emortal.api.modules.metrics;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Emits lifecycle timings and failures as JDK Flight Recorder events, so that startup can be inspected in a recording.
+ *
+ * <p>The events are only committed when they are enabled in the recording, which they are by default.</p>
+ */
+public final class JfrLifecycleListener implements ModuleLifecycleListener {
+
+    @Override
+    public void onResolve(int candidates, long durationNanos) {
+        PlanEvent event = new PlanEvent();
+        if (!event.isEnabled()) return;
+
+        event.step = "resolve";
+        event.candidates = candidates;
+        event.duration = durationNanos;
+        event.commit();
+    }
+
+    @Override
+    public void onSort(int candidates, long durationNanos) {
+        PlanEvent event = new PlanEvent();
+        if (!event.isEnabled()) return;
+
+        event.step = "sort";
+        event.candidates = candidates;
+        event.duration = durationNanos;
+        event.commit();
+    }
+
+    @Override
+    public void onDependencyWait(@NotNull ModuleData data, long durationNanos) {
+        DependencyWaitEvent event = new DependencyWaitEvent();
+        if (!event.isEnabled()) return;
+
+        event.module = data.name();
+        event.duration = durationNanos;
+        event.commit();
+    }
+
+    @Override
+    public void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+        PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled()) return;
+
+        event.module = data.name();
+        event.phase = phase.name();
+        event.duration = durationNanos;
+        event.commit();
+    }
+
+    @Override
+    public void onFailure(@NotNull ModuleData data, @NotNull ModulePhase phase, @Nullable Throwable cause) {
+        FailureEvent event = new FailureEvent();
+        if (!event.isEnabled()) return;
+
+        event.module = data.name();
+        event.phase = phase.name();
+        event.cause = cause != null ? cause.toString() : null;
+        event.commit();
+    }
+
+    // The durations are measured by the module manager, so these events are committed without being started and ended
+
+    @Name("dev.emortal.modules.Plan")
+    @Label("Module Plan")
+    @Description("Resolving or sorting module candidates")
+    @Category("Modules")
+    @StackTrace(false)
+    static final class PlanEvent extends Event {
+        @Label("Step")
+        String step;
+        @Label("Candidates")
+        int candidates;
+        @Label("Duration")
+        @Timespan
+        long duration;
+    }
+
+    @Name("dev.emortal.modules.DependencyWait")
+    @Label("Module Dependency Wait")
+    @Description("Time a module spent waiting for its dependencies to load")
+    @Category("Modules")
+    @StackTrace(false)
+    static final class DependencyWaitEvent extends Event {
+        @Label("Module")
+        String module;
+        @Label("Duration")
+        @Timespan
+        long duration;
+    }
+
+    @Name("dev.emortal.modules.Phase")
+    @Label("Module Phase")
+    @Description("A module completing a lifecycle phase")
+    @Category("Modules")
+    @StackTrace(false)
+    static final class PhaseEvent extends Event {
+        @Label("Module")
+        String module;
+        @Label("Phase")
+        String phase;
+        @Label("Duration")
+        @Timespan
+        long duration;
+    }
+
+    @Name("dev.emortal.modules.Failure")
+    @Label("Module Failure")
+    @Description("A module failing a lifecycle phase")
+    @Category("Modules")
+    @StackTrace(false)
+    static final class FailureEvent extends Event {
+        @Label("Module")
+        String module;
+        @Label("Phase")
+        String phase;
+        @Label("Cause")
+        String cause;
+    }
+}
@@ -0,0 +1,104 @@
+package dev.emortal.api.modules.metrics;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records lifecycle timings and failures to a Micrometer registry.
+ *
+ * <p>Phase timings are recorded to {@code modules.phase}, tagged with the module and the phase, and dependency waits to
+ * {@code modules.dependency.wait}, tagged with the module. Resolving and sorting are recorded to
+ * {@code modules.resolve} and {@code modules.sort}, and failures are counted in {@code modules.failures}, tagged with
+ * the module and the phase that failed. Modules skipped because a module they require failed are counted in
+ * {@code modules.skipped}, tagged with the module that failed, and retries are counted in {@code modules.retries}, tagged
+ * with the module.</p>
+ *
+ * <p>This requires Micrometer, which is an optional dependency of this library.</p>
+ */
+public final class MicrometerLifecycleListener implements ModuleLifecycleListener {
+
+    private final @NotNull MeterRegistry registry;
+    private final @NotNull Timer resolveTimer;
+    private final @NotNull Timer sortTimer;
+
+    public MicrometerLifecycleListener(@NotNull MeterRegistry registry) {
+        this.registry = registry;
+        this.resolveTimer = Timer.builder("modules.resolve")
+                .description("Time taken to resolve module candidates")
+                .register(registry);
+        this.sortTimer = Timer.builder("modules.sort")
+                .description("Time taken to sort module candidates")
+                .register(registry);
+    }
+
+    @Override
+    public void onResolve(int candidates, long durationNanos) {
+        this.resolveTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onSort(int candidates, long durationNanos) {
+        this.sortTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onDependencyWait(@NotNull ModuleData data, long durationNanos) {
+        Timer.builder("modules.dependency.wait")
+                .description("Time a module spent waiting for its dependencies to load")
+                .tag("module", data.name())
+                .register(this.registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+        Timer.builder("modules.phase")
+                .description("Time taken by a module to complete a lifecycle phase")
+                .tag("module", data.name())
+                .tag("phase", tagValue(phase))
+                .register(this.registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onFailure(@NotNull ModuleData data, @NotNull ModulePhase phase, @Nullable Throwable cause) {
+        Counter.builder("modules.failures")
+                .description("Number of times a module failed a lifecycle phase")
+                .tag("module", data.name())
+                .tag("phase", tagValue(phase))
+                .register(this.registry)
+                .increment();
+    }
+
+    @Override
+    public void onSkipped(@NotNull ModuleData failed, @NotNull List<ModuleData> skipped) {
+        Counter.builder("modules.skipped")
+                .description("Number of modules skipped because a module they require failed to load")
+                .tag("cause", failed.name())
+                .register(this.registry)
+                .increment(skipped.size());
+    }
+
+    @Override
+    public void onRetry(@NotNull ModuleData data, int attempt, long delayNanos) {
+        Counter.builder("modules.retries")
+                .description("Number of times a module was tried again after failing to load")
+                .tag("module", data.name())
+                .register(this.registry)
+                .increment();
+    }
+
+    private static @NotNull String tagValue(@NotNull ModulePhase phase) {
+        return phase.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,61 @@
+package dev.emortal.api.modules.metrics;
+
+import dev.emortal.api.modules.LoadPlan;
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how long each module takes to create and load, for creating a {@link StartupReport}.
+ *
+ * <p>This must be added as a listener before the manager is built, as modules are loaded by the builder.</p>
+ */
+public final class StartupRecorder implements ModuleLifecycleListener {
+
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    // The time taken to create each module in its current attempt, until the attempt finishes loading
+    private final Map<String, Long> creating = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+        // Creating the module has to finish before loading starts, so both count towards its time on the critical path.
+        // Only the attempt that loads is recorded, so failed attempts and earlier loads do not add to it.
+        switch (phase) {
+            case CREATE -> this.creating.put(data.name(), durationNanos);
+            case LOAD -> {
+                Long createNanos = this.creating.remove(data.name());
+                this.durations.put(data.name(), (createNanos != null ? createNanos : 0) + durationNanos);
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void onFailure(@NotNull ModuleData data, @NotNull ModulePhase phase, @Nullable Throwable cause) {
+        if (phase == ModulePhase.CREATE || phase == ModulePhase.LOAD) this.creating.remove(data.name());
+    }
+
+    /**
+     * The time taken to create and load each module that has been loaded so far, in nanoseconds by name. Only the
+     * attempt that loaded the module is counted, and a module that is loaded again replaces its earlier time.
+     */
+    public @NotNull Map<String, Long> durations() {
+        return Map.copyOf(this.durations);
+    }
+
+    /**
+     * Creates a report for every module the manager has planned to load.
+     */
+    public @NotNull StartupReport report(@NotNull ModuleManager manager) {
+        LoadPlan plan = manager.loadPlan();
+        if (plan == null) throw new IllegalStateException("The manager has not loaded any modules");
+        return StartupReport.create(plan, this.durations());
+    }
+}
@@ -0,0 +1,276 @@
+package dev.emortal.api.modules.metrics;
+
+import dev.emortal.api.modules.LoadPlan;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Analyses how long startup took, using the dependency graph from a load plan and the measured load time of each
+ * module.
+ *
+ * <p>The critical path is the chain of dependencies with the longest total load time. Even with unlimited parallelism,
+ * startup can never be faster than this chain, so it is where time should be saved first. The saving for each module is
+ * how much shorter the critical path would be if that module took no time at all, for example by loading it
+ * asynchronously or lazily.</p>
+ *
+ * @see StartupRecorder
+ */
+public final class StartupReport {
+
+    /**
+     * Creates a report for the modules in the plan.
+     *
+     * @param durations the load time of each module in nanoseconds by name. Modules without a duration are counted as
+     *                  taking no time, which is the case for modules that failed to load.
+     */
+    public static @NotNull StartupReport create(@NotNull LoadPlan plan, @NotNull Map<String, Long> durations) {
+        int count = plan.size();
+        long[] weights = new long[count];
+        for (int i = 0; i < count; i++) {
+            weights[i] = durations.getOrDefault(plan.entry(i).data().name(), 0L);
+        }
+
+        BitSet[] dependencies = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            dependencies[i] = plan.dependencies(i);
+        }
+
+        long[] starts = new long[count];
+        int[] previous = new int[count];
+        long criticalPath = longestPath(weights, dependencies, starts, previous);
+
+        // The critical path is walked back from the module that finishes last
+        BitSet critical = new BitSet(count);
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            if (last == -1 || starts[i] + weights[i] > starts[last] + weights[last]) last = i;
+        }
+        for (int i = last; i != -1; i = previous[i]) {
+            critical.set(i);
+        }
+
+        // Making a module that is not on the critical path faster can never shorten it, so only these are checked
+        long[] savings = new long[count];
+        for (int i = critical.nextSetBit(0); i >= 0; i = critical.nextSetBit(i + 1)) {
+            long weight = weights[i];
+            weights[i] = 0;
+            savings[i] = criticalPath - longestPath(weights, dependencies, new long[count], new int[count]);
+            weights[i] = weight;
+        }
+
+        List<ModuleTiming> modules = new ArrayList<>(count);
+        List<String> criticalNames = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            List<String> dependencyNames = new ArrayList<>();
+            for (int dependency = dependencies[i].nextSetBit(0); dependency >= 0; dependency = dependencies[i].nextSetBit(dependency + 1)) {
+                dependencyNames.add(plan.entry(dependency).data().name());
+            }
+
+            String name = plan.entry(i).data().name();
+            modules.add(new ModuleTiming(name, List.copyOf(dependencyNames), weights[i], starts[i], critical.get(i), savings[i]));
+            if (critical.get(i)) criticalNames.add(name);
+            total += weights[i];
+        }
+
+        return new StartupReport(List.copyOf(modules), List.copyOf(criticalNames), total, criticalPath);
+    }
+
+    /**
+     * Calculates the earliest start of every module with unlimited parallelism, relying on the plan being in
+     * dependency order.
+     *
+     * @return the length of the longest path
+     */
+    private static long longestPath(long @NotNull [] weights, BitSet @NotNull [] dependencies, long @NotNull [] starts,
+                                    int @NotNull [] previous) {
+        long longest = 0;
+        for (int i = 0; i < weights.length; i++) {
+            long start = 0;
+            int slowest = -1;
+            for (int dependency = dependencies[i].nextSetBit(0); dependency >= 0; dependency = dependencies[i].nextSetBit(dependency + 1)) {
+                long finish = starts[dependency] + weights[dependency];
+                if (slowest == -1 || finish > start) {
+                    start = finish;
+                    slowest = dependency;
+                }
+            }
+
+            starts[i] = start;
+            previous[i] = slowest;
+            longest = Math.max(longest, start + weights[i]);
+        }
+        return longest;
+    }
+
+    private final @NotNull List<ModuleTiming> modules;
+    private final @NotNull List<String> criticalPath;
+    private final long totalNanos;
+    private final long criticalPathNanos;
+
+    private StartupReport(@NotNull List<ModuleTiming> modules, @NotNull List<String> criticalPath, long totalNanos,
+                          long criticalPathNanos) {
+        this.modules = modules;
+        this.criticalPath = criticalPath;
+        this.totalNanos = totalNanos;
+        this.criticalPathNanos = criticalPathNanos;
+    }
+
+    /**
+     * The timings of every module, in dependency order.
+     */
+    public @NotNull List<ModuleTiming> modules() {
+        return this.modules;
+    }
+
+    /**
+     * The names of the modules on the critical path, in dependency order.
+     */
+    public @NotNull List<String> criticalPath() {
+        return this.criticalPath;
+    }
+
+    /**
+     * The total load time of all modules, which is how long loading them sequentially takes.
+     */
+    public long totalNanos() {
+        return this.totalNanos;
+    }
+
+    /**
+     * The load time of the critical path, which is how long loading with unlimited parallelism takes.
+     */
+    public long criticalPathNanos() {
+        return this.criticalPathNanos;
+    }
+
+    /**
+     * How many times faster loading with unlimited parallelism is than loading sequentially.
+     */
+    public double theoreticalSpeedup() {
+        if (this.criticalPathNanos == 0) return 1;
+        return (double) this.totalNanos / this.criticalPathNanos;
+    }
+
+    /**
+     * The module that would shorten the critical path the most if it took no time to load.
+     */
+    public @Nullable ModuleTiming bottleneck() {
+        ModuleTiming bottleneck = null;
+        for (ModuleTiming module : this.modules) {
+            if (bottleneck == null || module.savingNanos() > bottleneck.savingNanos()) bottleneck = module;
+        }
+        return bottleneck;
+    }
+
+    public @NotNull String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"totalNanos\":").append(this.totalNanos)
+                .append(",\"criticalPathNanos\":").append(this.criticalPathNanos)
+                .append(",\"theoreticalSpeedup\":").append(String.format(Locale.ROOT, "%.3f", this.theoreticalSpeedup()))
+                .append(",\"criticalPath\":[");
+        for (int i = 0; i < this.criticalPath.size(); i++) {
+            if (i > 0) json.append(',');
+            appendJsonString(json, this.criticalPath.get(i));
+        }
+
+        json.append("],\"modules\":[");
+        for (int i = 0; i < this.modules.size(); i++) {
+            ModuleTiming module = this.modules.get(i);
+            if (i > 0) json.append(',');
+
+            json.append("{\"name\":");
+            appendJsonString(json, module.name());
+            json.append(",\"dependencies\":[");
+            for (int j = 0; j < module.dependencies().size(); j++) {
+                if (j > 0) json.append(',');
+                appendJsonString(json, module.dependencies().get(j));
+            }
+            json.append("],\"durationNanos\":").append(module.durationNanos())
+                    .append(",\"startNanos\":").append(module.startNanos())
+                    .append(",\"critical\":").append(module.critical())
+                    .append(",\"savingNanos\":").append(module.savingNanos())
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Exports the dependency graph in Graphviz DOT format, with edges from each dependency to its dependents, and the
+     * critical path highlighted.
+     */
+    public @NotNull String toDot() {
+        StringBuilder dot = new StringBuilder("digraph modules {\n    rankdir=LR;\n    node [shape=box];\n");
+        for (ModuleTiming module : this.modules) {
+            dot.append("    ").append(dotId(module.name()))
+                    .append(" [label=").append(dotId(module.name() + "\\n" + formatMillis(module.durationNanos())))
+                    .append(module.critical() ? ", color=red, penwidth=2" : "")
+                    .append("];\n");
+        }
+
+        for (ModuleTiming module : this.modules) {
+            for (String dependency : module.dependencies()) {
+                boolean critical = module.critical() && this.isCriticalEdge(dependency, module.name());
+                dot.append("    ").append(dotId(dependency)).append(" -> ").append(dotId(module.name()))
+                        .append(critical ? " [color=red, penwidth=2]" : "")
+                        .append(";\n");
+            }
+        }
+        return dot.append("}\n").toString();
+    }
+
+    private boolean isCriticalEdge(@NotNull String dependency, @NotNull String dependent) {
+        int index = this.criticalPath.indexOf(dependent);
+        return index > 0 && this.criticalPath.get(index - 1).equals(dependency);
+    }
+
+    private static void appendJsonString(@NotNull StringBuilder json, @NotNull String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private static @NotNull String dotId(@NotNull String value) {
+        return '"' + value.replace("\"", "\\\"") + '"';
+    }
+
+    private static @NotNull String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return "StartupReport{totalNanos=" + this.totalNanos + ", criticalPathNanos=" + this.criticalPathNanos
+                + ", criticalPath=" + this.criticalPath + "}";
+    }
+
+    /**
+     * The load timing of a single module.
+     *
+     * @param startNanos  the earliest the module could start loading with unlimited parallelism
+     * @param critical    whether the module is on the critical path
+     * @param savingNanos how much shorter the critical path would be if this module took no time to load
+     */
+    public record ModuleTiming(@NotNull String name, @NotNull List<String> dependencies, long durationNanos,
+                               long startNanos, boolean critical, long savingNanos) {
+    }
+}
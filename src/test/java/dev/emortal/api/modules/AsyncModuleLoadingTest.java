@@ -0,0 +1,101 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class AsyncModuleLoadingTest {
+
+    @Test
+    void testAsyncModuleLoadsSequentially() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(DelayedModule.class, env -> new DelayedModule(env, true))
+                .module(DependentModule.class, DependentModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(DelayedModule.class));
+        assertNotNull(manager.getModule(DependentModule.class));
+    }
+
+    @Test
+    void testAsyncModuleLoadsInParallel() {
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(DelayedModule.class, env -> new DelayedModule(env, true))
+                .module(DependentModule.class, DependentModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(DelayedModule.class));
+        assertNotNull(manager.getModule(DependentModule.class));
+    }
+
+    @Test
+    void testFailedAsyncModuleOnlySkipsItsDependents() {
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(DelayedModule.class, env -> new DelayedModule(env, false))
+                .module(DependentModule.class, DependentModule::new)
+                .module(UnrelatedModule.class, UnrelatedModule::new)
+                .build();
+
+        assertNull(manager.getModule(DelayedModule.class));
+        assertNull(manager.getModule(DependentModule.class));
+        assertNotNull(manager.getModule(UnrelatedModule.class));
+    }
+
+    @ModuleData(name = "delayed")
+    private static final class DelayedModule extends AsyncModule {
+
+        private final boolean succeed;
+
+        DelayedModule(@NotNull ModuleEnvironment environment, boolean succeed) {
+            super(environment);
+            this.succeed = succeed;
+        }
+
+        @Override
+        public @NotNull CompletionStage<Boolean> onLoadAsync() {
+            return CompletableFuture.supplyAsync(() -> {
+                if (!this.succeed) throw new IllegalStateException("Remote service unavailable");
+                return true;
+            }, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public void onUnload() {
+            // do nothing
+        }
+    }
+
+    @ModuleData(name = "dependent", dependencies = {@Dependency(name = "delayed")})
+    private static final class DependentModule extends DummyModule {
+
+        DependentModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        @Override
+        public boolean onLoad() {
+            assertNotNull(this.getModule(DelayedModule.class));
+            return true;
+        }
+    }
+
+    @ModuleData(name = "unrelated")
+    private static final class UnrelatedModule extends DummyModule {
+
+        UnrelatedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.crac.ModuleCheckpointResource;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class CheckpointTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testCheckpointHooksFiredInDependencyOrder() {
+        List<String> events = new CopyOnWriteArrayList<>();
+        ModuleManager manager = ModuleManager.builder()
+                .module(ConnectionModule.class, env -> new ConnectionModule(env, events, false))
+                .module(ServiceModule.class, env -> new ServiceModule(env, events))
+                .build();
+
+        assertTrue(manager.beforeCheckpoint());
+        manager.afterRestore();
+
+        assertEquals(List.of("service closed", "connection closed", "connection opened", "service opened"), events);
+    }
+
+    @Test
+    void testFailedCheckpointRestoresModules() {
+        List<String> events = new CopyOnWriteArrayList<>();
+        ModuleManager manager = ModuleManager.builder()
+                .module(ConnectionModule.class, env -> new ConnectionModule(env, events, true))
+                .module(ServiceModule.class, env -> new ServiceModule(env, events))
+                .build();
+
+        ModuleCheckpointResource resource = new ModuleCheckpointResource(manager);
+        assertThrows(IllegalStateException.class, () -> resource.beforeCheckpoint(null));
+
+        assertEquals(List.of("service closed", "connection opened", "service opened"), events);
+    }
+
+    @Test
+    void testStateRestoredOnNextStart() {
+        Path stateFile = this.directory.resolve("state").resolve("modules.state");
+
+        ModuleManager first = ModuleManager.builder()
+                .stateFile(stateFile)
+                .module(LookupTableModule.class, env -> new LookupTableModule(env, 1))
+                .build();
+        LookupTableModule computed = first.getModule(LookupTableModule.class);
+        assertNotNull(computed);
+        assertFalse(computed.restored);
+        first.onUnload();
+        assertTrue(Files.exists(stateFile));
+
+        ModuleManager second = ModuleManager.builder()
+                .stateFile(stateFile)
+                .module(LookupTableModule.class, env -> new LookupTableModule(env, 1))
+                .build();
+        LookupTableModule restored = second.getModule(LookupTableModule.class);
+        assertNotNull(restored);
+        assertTrue(restored.restored);
+        assertArrayEquals(computed.table, restored.table);
+    }
+
+    @Test
+    void testStateFromOtherVersionNotRestored() {
+        Path stateFile = this.directory.resolve("modules.state");
+
+        ModuleManager first = ModuleManager.builder()
+                .stateFile(stateFile)
+                .module(LookupTableModule.class, env -> new LookupTableModule(env, 1))
+                .build();
+        assertTrue(first.saveState());
+
+        ModuleManager second = ModuleManager.builder()
+                .stateFile(stateFile)
+                .module(LookupTableModule.class, env -> new LookupTableModule(env, 2))
+                .build();
+        LookupTableModule module = second.getModule(LookupTableModule.class);
+        assertNotNull(module);
+        assertFalse(module.restored);
+    }
+
+    @Test
+    void testCorruptStateFileIgnored() throws IOException {
+        Path stateFile = Files.writeString(this.directory.resolve("modules.state"), "not a state file");
+
+        ModuleManager manager = ModuleManager.builder()
+                .stateFile(stateFile)
+                .module(LookupTableModule.class, env -> new LookupTableModule(env, 1))
+                .build();
+        LookupTableModule module = manager.getModule(LookupTableModule.class);
+        assertNotNull(module);
+        assertFalse(module.restored);
+    }
+
+    @ModuleData(name = "connection")
+    private static final class ConnectionModule extends DummyModule {
+        private final List<String> events;
+        private final boolean failCheckpoint;
+
+        ConnectionModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events, boolean failCheckpoint) {
+            super(environment);
+            this.events = events;
+            this.failCheckpoint = failCheckpoint;
+        }
+
+        @Override
+        public void beforeCheckpoint() {
+            if (this.failCheckpoint) throw new IllegalStateException("Connection is busy");
+            this.events.add("connection closed");
+        }
+
+        @Override
+        public void afterRestore() {
+            this.events.add("connection opened");
+        }
+    }
+
+    @ModuleData(name = "service", dependencies = {@Dependency(name = "connection")})
+    private static final class ServiceModule extends DummyModule {
+        private final List<String> events;
+
+        ServiceModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment);
+            this.events = events;
+        }
+
+        @Override
+        public void beforeCheckpoint() {
+            this.events.add("service closed");
+        }
+
+        @Override
+        public void afterRestore() {
+            this.events.add("service opened");
+        }
+    }
+
+    @ModuleData(name = "lookup-table")
+    private static final class LookupTableModule extends DummyModule implements PersistentState {
+        private final int version;
+        private int[] table;
+        private boolean restored;
+
+        LookupTableModule(@NotNull ModuleEnvironment environment, int version) {
+            super(environment);
+            this.version = version;
+        }
+
+        @Override
+        public boolean onLoad() {
+            if (this.table == null) {
+                this.table = new int[64];
+                for (int i = 0; i < this.table.length; i++) {
+                    this.table[i] = i * i;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int stateVersion() {
+            return this.version;
+        }
+
+        @Override
+        public void writeState(@NotNull DataOutput output) throws IOException {
+            output.writeInt(this.table.length);
+            for (int value : this.table) {
+                output.writeInt(value);
+            }
+        }
+
+        @Override
+        public void readState(@NotNull ByteBuffer state) {
+            this.table = new int[state.getInt()];
+            state.asIntBuffer().get(this.table);
+            this.restored = true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class ChildManagerTest {
+
+    @Test
+    void testChildrenShareParentModulesAndPlan() {
+        AtomicInteger sharedCreations = new AtomicInteger();
+        ModuleManager parent = ModuleManager.builder()
+                .module(SharedModule.class, env -> {
+                    sharedCreations.incrementAndGet();
+                    return new SharedModule(env);
+                })
+                .build();
+
+        ModuleManager first = ModuleManager.builder().parent(parent).module(InstanceModule.class).build();
+        ModuleManager second = ModuleManager.builder().parent(parent).module(InstanceModule.class).build();
+
+        InstanceModule firstInstance = first.getModule(InstanceModule.class);
+        InstanceModule secondInstance = second.getModule(InstanceModule.class);
+        assertNotNull(firstInstance);
+        assertNotNull(secondInstance);
+        assertNotSame(firstInstance, secondInstance);
+
+        assertEquals(1, sharedCreations.get());
+        assertSame(parent.getModule(SharedModule.class), first.getModule(SharedModule.class));
+        assertSame(parent.getModule(SharedModule.class), firstInstance.shared);
+        assertSame(firstInstance.shared, secondInstance.shared);
+
+        // The second child loads the same modules, so reuses the plan resolved and sorted for the first
+        assertSame(first.loadPlan(), second.loadPlan());
+
+        // The parent cannot see its children's modules
+        assertNull(parent.getModule(InstanceModule.class));
+    }
+
+    @Test
+    void testChildActivatesLazyParentModule() {
+        ModuleManager parent = ModuleManager.builder()
+                .module(LazySharedModule.class, LazySharedModule::new)
+                .build();
+
+        ModuleManager child = ModuleManager.builder().parent(parent).module(LazyDependentModule.class).build();
+
+        assertNotNull(child.getModule(LazyDependentModule.class));
+        assertNotNull(parent.getModule(LazySharedModule.class));
+    }
+
+    @Test
+    void testChildModuleWithUnknownDependencySkipped() {
+        ModuleManager parent = ModuleManager.builder()
+                .module(LazySharedModule.class, LazySharedModule::new)
+                .build();
+
+        ModuleManager child = ModuleManager.builder().parent(parent).module(InstanceModule.class).build();
+
+        assertNull(child.getModule(InstanceModule.class));
+    }
+
+    @ModuleData(name = "shared")
+    private static final class SharedModule extends DummyModule {
+
+        SharedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "instance", dependencies = {@Dependency(name = "shared")})
+    public static final class InstanceModule extends DummyModule {
+        final SharedModule shared;
+
+        public InstanceModule(@NotNull ModuleEnvironment environment, @NotNull SharedModule shared) {
+            super(environment);
+            this.shared = shared;
+        }
+    }
+
+    @ModuleData(name = "lazy-shared", lazy = true)
+    private static final class LazySharedModule extends DummyModule {
+
+        LazySharedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "lazy-dependent", dependencies = {@Dependency(name = "lazy-shared")})
+    public static final class LazyDependentModule extends DummyModule {
+
+        public LazyDependentModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Condition;
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class ConditionalLoadingTest {
+
+    @Test
+    void testModuleLoadedForActiveProfile() {
+        ModuleManager manager = ModuleManager.builder()
+                .profiles("lobby")
+                .module(LobbyModule.class, LobbyModule::new)
+                .module(LobbyDependentModule.class, LobbyDependentModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(LobbyModule.class));
+        assertNotNull(manager.getModule(LobbyDependentModule.class));
+    }
+
+    @Test
+    void testModuleAndDependentsNotLoadedForInactiveProfile() {
+        AtomicInteger creations = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .profiles("game")
+                .strictValidation()
+                .module(LobbyModule.class, env -> {
+                    creations.incrementAndGet();
+                    return new LobbyModule(env);
+                })
+                .module(LobbyDependentModule.class, env -> {
+                    creations.incrementAndGet();
+                    return new LobbyDependentModule(env);
+                })
+                .module(UnconditionalModule.class, UnconditionalModule::new)
+                .build();
+
+        assertNull(manager.getModule(LobbyModule.class));
+        assertNull(manager.getModule(LobbyDependentModule.class));
+        assertNotNull(manager.getModule(UnconditionalModule.class));
+        assertEquals(0, creations.get());
+    }
+
+    @Test
+    void testChildrenWithDifferentProfilesPlannedSeparately() {
+        ModuleManager parent = ModuleManager.builder().build();
+
+        ModuleManager lobby = ModuleManager.builder()
+                .parent(parent)
+                .profiles("lobby")
+                .module(LobbyModule.class, LobbyModule::new)
+                .module(UnconditionalModule.class, UnconditionalModule::new)
+                .build();
+        ModuleManager game = ModuleManager.builder()
+                .parent(parent)
+                .profiles("game")
+                .module(LobbyModule.class, LobbyModule::new)
+                .module(UnconditionalModule.class, UnconditionalModule::new)
+                .build();
+
+        assertNotNull(lobby.getModule(LobbyModule.class));
+        assertNull(game.getModule(LobbyModule.class));
+        assertNotNull(game.getModule(UnconditionalModule.class));
+        assertEquals(2, Objects.requireNonNull(lobby.loadPlan()).size());
+        assertEquals(1, Objects.requireNonNull(game.loadPlan()).size());
+    }
+
+    @Test
+    void testEnvironmentVariableCondition() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(PathModule.class, PathModule::new)
+                .module(UnsetVariableModule.class, UnsetVariableModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(PathModule.class));
+        assertNull(manager.getModule(UnsetVariableModule.class));
+    }
+
+    @Test
+    void testClassPresentCondition() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(PresentClassModule.class, PresentClassModule::new)
+                .module(MissingClassModule.class, MissingClassModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(PresentClassModule.class));
+        assertNull(manager.getModule(MissingClassModule.class));
+    }
+
+    @Test
+    void testSystemPropertyCondition() {
+        System.setProperty("modules.test.region", "eu");
+        try {
+            ModuleManager manager = ModuleManager.builder()
+                    .module(RegionModule.class, RegionModule::new)
+                    .build();
+            assertNotNull(manager.getModule(RegionModule.class));
+
+            System.setProperty("modules.test.region", "us");
+            ModuleManager other = ModuleManager.builder()
+                    .module(RegionModule.class, RegionModule::new)
+                    .build();
+            assertNull(other.getModule(RegionModule.class));
+        } finally {
+            System.clearProperty("modules.test.region");
+        }
+    }
+
+    @Test
+    void testCustomCondition() {
+        ModuleManager manager = ModuleManager.builder()
+                .condition(candidate -> !candidate.data().name().equals("unconditional"))
+                .module(UnconditionalModule.class, UnconditionalModule::new)
+                .module(PathModule.class, PathModule::new)
+                .build();
+
+        assertNull(manager.getModule(UnconditionalModule.class));
+        assertNotNull(manager.getModule(PathModule.class));
+    }
+
+    @ModuleData(name = "lobby", conditions = {@Condition(type = Condition.Type.PROFILE, name = "lobby, hub")})
+    private static final class LobbyModule extends DummyModule {
+
+        LobbyModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "lobby-dependent", dependencies = {@Dependency(name = "lobby")})
+    private static final class LobbyDependentModule extends DummyModule {
+
+        LobbyDependentModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "unconditional", dependencies = {@Dependency(name = "lobby", required = false)})
+    private static final class UnconditionalModule extends DummyModule {
+
+        UnconditionalModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "path", conditions = {@Condition(type = Condition.Type.ENVIRONMENT_VARIABLE, name = "PATH")})
+    private static final class PathModule extends DummyModule {
+
+        PathModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "unset-variable",
+            conditions = {@Condition(type = Condition.Type.ENVIRONMENT_VARIABLE, name = "MODULES_TEST_UNSET_VARIABLE")})
+    private static final class UnsetVariableModule extends DummyModule {
+
+        UnsetVariableModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "present-class",
+            conditions = {@Condition(type = Condition.Type.CLASS_PRESENT, name = "dev.emortal.testing.DummyModule")})
+    private static final class PresentClassModule extends DummyModule {
+
+        PresentClassModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "missing-class",
+            conditions = {@Condition(type = Condition.Type.CLASS_PRESENT, name = "dev.emortal.testing.MissingClass")})
+    private static final class MissingClassModule extends DummyModule {
+
+        MissingClassModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "region",
+            conditions = {@Condition(type = Condition.Type.SYSTEM_PROPERTY, name = "modules.test.region", value = "eu")})
+    private static final class RegionModule extends DummyModule {
+
+        RegionModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
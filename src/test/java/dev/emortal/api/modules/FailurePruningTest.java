@@ -0,0 +1,97 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class FailurePruningTest {
+
+    @Test
+    void testDependentsOfFailedModuleSkippedSequentially() {
+        this.testDependentsSkipped(ModuleManager.builder());
+    }
+
+    @Test
+    void testDependentsOfFailedModuleSkippedInParallel() {
+        this.testDependentsSkipped(ModuleManager.builder().parallelLoading());
+    }
+
+    private void testDependentsSkipped(@NotNull ModuleManager.Builder builder) {
+        AtomicInteger dependentCreations = new AtomicInteger();
+        List<String> reports = Collections.synchronizedList(new ArrayList<>());
+
+        ModuleManager manager = builder
+                .listener(new ModuleLifecycleListener() {
+                    @Override
+                    public void onSkipped(@NotNull ModuleData failed, @NotNull List<ModuleData> skipped) {
+                        reports.add(failed.name() + ":" + skipped.stream().map(ModuleData::name).toList());
+                    }
+                })
+                .module(FailingModule.class, FailingModule::new)
+                .module(DirectModule.class, env -> {
+                    dependentCreations.incrementAndGet();
+                    return new DirectModule(env);
+                })
+                .module(IndirectModule.class, env -> {
+                    dependentCreations.incrementAndGet();
+                    return new IndirectModule(env);
+                })
+                .module(OptionalModule.class, OptionalModule::new)
+                .build();
+
+        assertEquals(0, dependentCreations.get());
+        assertEquals(List.of("failing:[direct, indirect]"), reports);
+        assertNull(manager.getModule(IndirectModule.class));
+        assertNotNull(manager.getModule(OptionalModule.class));
+    }
+
+    @ModuleData(name = "failing")
+    private static final class FailingModule extends DummyModule {
+
+        FailingModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        @Override
+        public boolean onLoad() {
+            throw new IllegalStateException("Database is down");
+        }
+    }
+
+    @ModuleData(name = "direct", dependencies = {@Dependency(name = "failing")})
+    private static final class DirectModule extends DummyModule {
+
+        DirectModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "indirect", dependencies = {@Dependency(name = "direct")})
+    private static final class IndirectModule extends DummyModule {
+
+        IndirectModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "optional", dependencies = {@Dependency(name = "direct", required = false)})
+    private static final class OptionalModule extends DummyModule {
+
+        OptionalModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LazyModuleTest {
+
+    @Test
+    void testLazyModulesCreatedOnFirstRequest() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = ModuleManager.builder()
+                .module(LazyBaseModule.class, env -> new LazyBaseModule(env, events))
+                .module(LazyDependentModule.class, env -> new LazyDependentModule(env, events))
+                .build();
+        assertEquals(List.of(), events);
+
+        assertNotNull(manager.getModule(LazyDependentModule.class));
+        assertEquals(List.of("load:lazy-base", "load:lazy-dependent"), events);
+    }
+
+    @Test
+    void testLazyModuleRequiredByEagerModuleLoadedStraightAway() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager.builder()
+                .module(LazyBaseModule.class, env -> new LazyBaseModule(env, events))
+                .module(EagerModule.class, EagerModule::new)
+                .build();
+
+        assertEquals(List.of("load:lazy-base"), events);
+    }
+
+    @Test
+    void testConcurrentActivationsLoadOnce() {
+        AtomicInteger creations = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(SlowLazyModule.class, env -> {
+                    creations.incrementAndGet();
+                    return new SlowLazyModule(env);
+                })
+                .build();
+
+        List<CompletableFuture<SlowLazyModule>> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(CompletableFuture.supplyAsync(() -> manager.getModule(SlowLazyModule.class)));
+        }
+
+        SlowLazyModule first = requests.get(0).join();
+        assertNotNull(first);
+        for (CompletableFuture<SlowLazyModule> request : requests) {
+            assertSame(first, request.join());
+        }
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void testModuleActivatedAfterReadyIsMadeReady() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = ModuleManager.builder()
+                .module(LazyBaseModule.class, env -> new LazyBaseModule(env, events))
+                .build();
+        manager.onReady();
+
+        assertTrue(manager.activate(LazyBaseModule.class).join());
+        assertEquals(List.of("load:lazy-base", "ready:lazy-base"), events);
+    }
+
+    @Test
+    void testFailedActivationCanBeRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .module(FlakyLazyModule.class, env -> new FlakyLazyModule(env, attempts.incrementAndGet() > 1))
+                .build();
+
+        assertFalse(manager.activate(FlakyLazyModule.class).join());
+        assertTrue(manager.activate(FlakyLazyModule.class).join());
+        assertNotNull(manager.getModule(FlakyLazyModule.class));
+        assertEquals(2, attempts.get());
+    }
+
+    private static abstract class RecordingModule extends DummyModule {
+
+        private final List<String> events;
+
+        RecordingModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment);
+            this.events = events;
+        }
+
+        @Override
+        public boolean onLoad() {
+            this.events.add("load:" + this.environment.data().name());
+            return true;
+        }
+
+        @Override
+        public void onReady() {
+            this.events.add("ready:" + this.environment.data().name());
+        }
+    }
+
+    @ModuleData(name = "lazy-base", lazy = true)
+    private static final class LazyBaseModule extends RecordingModule {
+
+        LazyBaseModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+
+    @ModuleData(name = "lazy-dependent", dependencies = {@Dependency(name = "lazy-base")}, lazy = true)
+    private static final class LazyDependentModule extends RecordingModule {
+
+        LazyDependentModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+
+    @ModuleData(name = "eager", dependencies = {@Dependency(name = "lazy-base")})
+    private static final class EagerModule extends DummyModule {
+
+        EagerModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "slow-lazy", lazy = true)
+    private static final class SlowLazyModule extends AsyncModule {
+
+        SlowLazyModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        @Override
+        public @NotNull CompletionStage<Boolean> onLoadAsync() {
+            return CompletableFuture.supplyAsync(() -> true, CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public void onUnload() {
+            // do nothing
+        }
+    }
+
+    @ModuleData(name = "flaky-lazy", lazy = true)
+    private static final class FlakyLazyModule extends DummyModule {
+
+        private final boolean loads;
+
+        FlakyLazyModule(@NotNull ModuleEnvironment environment, boolean loads) {
+            super(environment);
+            this.loads = loads;
+        }
+
+        @Override
+        public boolean onLoad() {
+            return this.loads;
+        }
+    }
+}
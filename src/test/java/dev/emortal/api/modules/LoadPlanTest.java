@@ -0,0 +1,247 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.internal.DefaultModuleCandidateResolver;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class LoadPlanTest {
+
+    private static final DefaultModuleCandidateResolver RESOLVER = new DefaultModuleCandidateResolver();
+
+    @Test
+    void testPlanStoresDependencyIndexes() {
+        LoadPlan plan = LoadPlan.create(candidates(FirstModule.class, SecondModule.class, ThirdModule.class));
+
+        assertEquals(3, plan.size());
+        assertEquals(bits(), plan.dependencies(0));
+        assertEquals(bits(0), plan.dependencies(1));
+        assertEquals(bits(1), plan.dependencies(2));
+        assertEquals(bits(), plan.requiredDependencies(2)); // third only optionally depends on second
+    }
+
+    @Test
+    void testModuleInsertedAfterItsDependencies() {
+        LoadPlan plan = LoadPlan.create(candidates(FirstModule.class, UnrelatedModule.class))
+                .withModules(candidates(SecondModule.class));
+
+        assertEquals(List.of(FirstModule.class, SecondModule.class, UnrelatedModule.class), classes(plan));
+        assertEquals(bits(0), plan.dependencies(1));
+    }
+
+    @Test
+    void testPlanSortedAgainIfExistingModuleDependsOnAddedModule() {
+        LoadPlan plan = LoadPlan.create(candidates(ThirdModule.class, FirstModule.class, UnrelatedModule.class))
+                .withModules(candidates(SecondModule.class));
+
+        assertEquals(List.of(FirstModule.class, SecondModule.class, ThirdModule.class, UnrelatedModule.class), classes(plan));
+        assertEquals(bits(1), plan.dependencies(2));
+    }
+
+    @Test
+    void testPriorityInheritedFromDependents() {
+        LoadPlan plan = LoadPlan.create(List.of(
+                candidate(FirstModule.class, ModuleDataBuilder.builder("first").priority(ModuleData.Priority.BACKGROUND)),
+                candidate(SecondModule.class, ModuleDataBuilder.builder("second").dependency("first")),
+                candidate(ThirdModule.class, ModuleDataBuilder.builder("third").dependency("second", false)
+                        .priority(ModuleData.Priority.CRITICAL)),
+                candidate(UnrelatedModule.class, ModuleDataBuilder.builder("unrelated").priority(ModuleData.Priority.BACKGROUND))
+        ));
+
+        assertEquals(ModuleData.Priority.CRITICAL, plan.priority(0));
+        assertEquals(ModuleData.Priority.CRITICAL, plan.priority(1));
+        assertEquals(ModuleData.Priority.CRITICAL, plan.priority(2));
+        assertEquals(ModuleData.Priority.BACKGROUND, plan.priority(3));
+    }
+
+    @Test
+    void testModuleRemovedFromPlan() {
+        LoadPlan plan = LoadPlan.create(candidates(FirstModule.class, SecondModule.class, ThirdModule.class))
+                .withoutModule(FirstModule.class);
+
+        assertEquals(List.of(SecondModule.class, ThirdModule.class), classes(plan));
+        assertEquals(bits(), plan.dependencies(0));
+        assertEquals(bits(0), plan.dependencies(1));
+    }
+
+    @Test
+    void testPlanSurvivesSerialization() throws IOException, ClassNotFoundException {
+        LoadPlan plan = LoadPlan.create(candidates(FirstModule.class, SecondModule.class));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(plan);
+        }
+
+        LoadPlan read;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (LoadPlan) input.readObject();
+        }
+
+        assertEquals(classes(plan), classes(read));
+        assertEquals(bits(0), read.dependencies(1));
+        assertEquals("second", read.entry(1).data().name());
+    }
+
+    @Test
+    void testCachedPlanReusedAcrossManagers() {
+        LoadPlanCache cache = new LoadPlanCache();
+        AtomicInteger resolves = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            ModuleManager manager = ModuleManager.builder()
+                    .loadPlanCache(cache)
+                    .candidateResolver(modules -> {
+                        resolves.incrementAndGet();
+                        return RESOLVER.resolveCandidates(modules);
+                    })
+                    .module(FirstModule.class, FirstModule::new)
+                    .module(SecondModule.class, SecondModule::new)
+                    .build();
+
+            assertNotNull(manager.getModule(SecondModule.class));
+            assertEquals(1, cache.size());
+        }
+
+        assertEquals(1, resolves.get());
+    }
+
+    @Test
+    void testCachedPlanUsesEachManagersCreators() {
+        LoadPlanCache cache = new LoadPlanCache();
+        AtomicInteger firstCreations = new AtomicInteger();
+        AtomicInteger secondCreations = new AtomicInteger();
+
+        ModuleManager first = ModuleManager.builder()
+                .loadPlanCache(cache)
+                .module(FirstModule.class, env -> {
+                    firstCreations.incrementAndGet();
+                    return new FirstModule(env);
+                })
+                .build();
+        ModuleManager second = ModuleManager.builder()
+                .loadPlanCache(cache)
+                .module(FirstModule.class, env -> {
+                    secondCreations.incrementAndGet();
+                    return new FirstModule(env);
+                })
+                .build();
+
+        assertNotNull(first.getModule(FirstModule.class));
+        assertNotNull(second.getModule(FirstModule.class));
+        assertEquals(1, firstCreations.get());
+        assertEquals(1, secondCreations.get());
+    }
+
+    @Test
+    void testCachedPlanStillValidatedStrictly() {
+        LoadPlanCache cache = new LoadPlanCache();
+        ModuleManager lenient = ModuleManager.builder()
+                .loadPlanCache(cache)
+                .module(FirstModule.class, FirstModule::new)
+                .module(BrokenModule.class, BrokenModule::new)
+                .build();
+        assertNotNull(lenient.getModule(FirstModule.class));
+
+        assertThrows(ModuleValidationException.class, () -> ModuleManager.builder()
+                .loadPlanCache(cache)
+                .strictValidation()
+                .module(FirstModule.class, FirstModule::new)
+                .module(BrokenModule.class, BrokenModule::new)
+                .build());
+    }
+
+    @Test
+    void testModulesLoadedLaterCanDependOnEarlierModules() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(FirstModule.class, FirstModule::new)
+                .build();
+        manager.loadModules(List.of(new LoadableModule(SecondModule.class, SecondModule::new)));
+
+        assertNotNull(manager.getModule(SecondModule.class));
+        assertEquals(List.of(FirstModule.class, SecondModule.class), classes(manager.loadPlan()));
+    }
+
+    @SafeVarargs
+    private static @NotNull List<ModuleCandidate> candidates(@NotNull Class<? extends Module>... types) {
+        List<LoadableModule> modules = Arrays.stream(types)
+                .map(type -> new LoadableModule(type, DummyModule::new))
+                .toList();
+        return RESOLVER.resolveCandidates(modules);
+    }
+
+    private static @NotNull ModuleCandidate candidate(@NotNull Class<? extends Module> type, @NotNull ModuleDataBuilder data) {
+        return new ModuleCandidate(type, DummyModule::new, data.build());
+    }
+
+    private static @NotNull List<Class<? extends Module>> classes(@NotNull LoadPlan plan) {
+        return plan.entries().stream().<Class<? extends Module>>map(LoadPlan.Entry::clazz).toList();
+    }
+
+    private static @NotNull BitSet bits(int... indexes) {
+        BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+
+    @ModuleData(name = "first")
+    private static final class FirstModule extends DummyModule {
+
+        FirstModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "second", dependencies = {@Dependency(name = "first")})
+    private static final class SecondModule extends DummyModule {
+
+        SecondModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "third", dependencies = {@Dependency(name = "second", required = false)})
+    private static final class ThirdModule extends DummyModule {
+
+        ThirdModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "broken", dependencies = {@Dependency(name = "missing")})
+    private static final class BrokenModule extends DummyModule {
+
+        BrokenModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "unrelated")
+    private static final class UnrelatedModule extends DummyModule {
+
+        UnrelatedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class LoadSchedulerTest {
+
+    @Test
+    void testWaitingCpuLoadsStartedByPriority() {
+        LoadScheduler scheduler = new LoadScheduler(Runnable::run, 1);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Boolean> blocker = new CompletableFuture<>();
+        ModuleData blockerData = cpu("blocker", ModuleData.Priority.NORMAL);
+        scheduler.submit(blockerData, blockerData.priority(), () -> blocker);
+        for (ModuleData data : List.of(cpu("background", ModuleData.Priority.BACKGROUND), cpu("normal", ModuleData.Priority.NORMAL),
+                cpu("critical", ModuleData.Priority.CRITICAL))) {
+            scheduler.submit(data, data.priority(), () -> {
+                started.add(data.name());
+                return CompletableFuture.completedFuture(true);
+            });
+        }
+
+        assertTrue(started.isEmpty());
+        blocker.complete(true);
+        assertEquals(List.of("critical", "normal", "background"), started);
+        assertEquals(0, scheduler.running());
+    }
+
+    @Test
+    void testInheritedPriorityUsedForWaitingLoads() {
+        LoadScheduler scheduler = new LoadScheduler(Runnable::run, 1);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Boolean> blocker = new CompletableFuture<>();
+        scheduler.submit(cpu("blocker", ModuleData.Priority.NORMAL), ModuleData.Priority.NORMAL, () -> blocker);
+        for (String name : List.of("normal", "dependency")) {
+            // The dependency is background itself, but is submitted with the priority of the critical module that requires it
+            ModuleData.Priority priority = name.equals("dependency") ? ModuleData.Priority.CRITICAL : ModuleData.Priority.NORMAL;
+            scheduler.submit(cpu(name, ModuleData.Priority.BACKGROUND), priority, () -> {
+                started.add(name);
+                return CompletableFuture.completedFuture(true);
+            });
+        }
+
+        blocker.complete(true);
+        assertEquals(List.of("dependency", "normal"), started);
+    }
+
+    @Test
+    void testThrowingLoadReleasesSlot() {
+        LoadScheduler scheduler = new LoadScheduler(Runnable::run, 1);
+
+        CompletableFuture<Boolean> failed = scheduler.submit(cpu("failing", ModuleData.Priority.NORMAL), ModuleData.Priority.NORMAL, () -> {
+            throw new IllegalStateException("Failed to create environment");
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, scheduler.running());
+
+        CompletableFuture<Boolean> next = scheduler.submit(cpu("next", ModuleData.Priority.NORMAL), ModuleData.Priority.NORMAL,
+                () -> CompletableFuture.completedFuture(true));
+        assertTrue(next.join());
+    }
+
+    @Test
+    void testIoLoadsNotLimited() {
+        LoadScheduler scheduler = new LoadScheduler(Runnable::run, 1);
+        scheduler.submit(cpu("blocker", ModuleData.Priority.NORMAL), ModuleData.Priority.NORMAL, CompletableFuture::new);
+
+        AtomicBoolean started = new AtomicBoolean();
+        scheduler.submit(ModuleDataBuilder.builder("io").build(), ModuleData.Priority.NORMAL, () -> {
+            started.set(true);
+            return CompletableFuture.completedFuture(true);
+        });
+        assertTrue(started.get());
+    }
+
+    @Test
+    void testConcurrentCpuLoadsLimited() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .cpuLoadLimit(2)
+                .module(FirstCpuModule.class, env -> new FirstCpuModule(env, running, maxRunning))
+                .module(SecondCpuModule.class, env -> new SecondCpuModule(env, running, maxRunning))
+                .module(ThirdCpuModule.class, env -> new ThirdCpuModule(env, running, maxRunning))
+                .module(FourthCpuModule.class, env -> new FourthCpuModule(env, running, maxRunning))
+                .build();
+
+        assertEquals(4, manager.loadedModules().size());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void testStartupDoesNotWaitForBackgroundModules() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean backgroundReady = new AtomicBoolean();
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(CriticalModule.class, CriticalModule::new)
+                .module(LeaderboardModule.class, env -> new LeaderboardModule(env, release, backgroundReady))
+                .build();
+
+        assertNotNull(manager.getModule(CriticalModule.class));
+        assertNull(manager.getModule(LeaderboardModule.class));
+        assertFalse(manager.backgroundLoads().isDone());
+
+        manager.onReady();
+        release.countDown();
+        manager.backgroundLoads().orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertNotNull(manager.getModule(LeaderboardModule.class));
+        assertTrue(backgroundReady.get());
+    }
+
+    @Test
+    void testBackgroundModuleWaitedForWhenRequired() {
+        CountDownLatch release = new CountDownLatch(1);
+        release.countDown();
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(LeaderboardModule.class, env -> new LeaderboardModule(env, release, new AtomicBoolean()))
+                .module(LeaderboardCommandModule.class, LeaderboardCommandModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(LeaderboardModule.class));
+        assertNotNull(manager.getModule(LeaderboardCommandModule.class));
+    }
+
+    @Test
+    void testLaterLoadWaitsForBackgroundModuleStillLoading() {
+        CountDownLatch release = new CountDownLatch(1);
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(LeaderboardModule.class, env -> new LeaderboardModule(env, release, new AtomicBoolean()))
+                .build();
+        assertFalse(manager.backgroundLoads().isDone());
+
+        CompletableFuture<Void> dependentLoad = manager.loadModulesAsync(List.of(
+                new LoadableModule(LeaderboardCommandModule.class, LeaderboardCommandModule::new)));
+        assertFalse(dependentLoad.isDone());
+
+        release.countDown();
+        dependentLoad.orTimeout(5, TimeUnit.SECONDS).join();
+        assertNotNull(manager.getModule(LeaderboardCommandModule.class));
+    }
+
+    private static @NotNull ModuleData cpu(@NotNull String name, @NotNull ModuleData.Priority priority) {
+        return ModuleDataBuilder.builder(name).priority(priority).workload(ModuleData.Workload.CPU).build();
+    }
+
+    private abstract static class CpuModule extends DummyModule {
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        CpuModule(@NotNull ModuleEnvironment environment, @NotNull AtomicInteger running, @NotNull AtomicInteger maxRunning) {
+            super(environment);
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public boolean onLoad() {
+            this.maxRunning.accumulateAndGet(this.running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            this.running.decrementAndGet();
+            return true;
+        }
+    }
+
+    @ModuleData(name = "first-cpu", workload = ModuleData.Workload.CPU)
+    private static final class FirstCpuModule extends CpuModule {
+
+        FirstCpuModule(@NotNull ModuleEnvironment environment, @NotNull AtomicInteger running, @NotNull AtomicInteger maxRunning) {
+            super(environment, running, maxRunning);
+        }
+    }
+
+    @ModuleData(name = "second-cpu", workload = ModuleData.Workload.CPU)
+    private static final class SecondCpuModule extends CpuModule {
+
+        SecondCpuModule(@NotNull ModuleEnvironment environment, @NotNull AtomicInteger running, @NotNull AtomicInteger maxRunning) {
+            super(environment, running, maxRunning);
+        }
+    }
+
+    @ModuleData(name = "third-cpu", workload = ModuleData.Workload.CPU)
+    private static final class ThirdCpuModule extends CpuModule {
+
+        ThirdCpuModule(@NotNull ModuleEnvironment environment, @NotNull AtomicInteger running, @NotNull AtomicInteger maxRunning) {
+            super(environment, running, maxRunning);
+        }
+    }
+
+    @ModuleData(name = "fourth-cpu", workload = ModuleData.Workload.CPU)
+    private static final class FourthCpuModule extends CpuModule {
+
+        FourthCpuModule(@NotNull ModuleEnvironment environment, @NotNull AtomicInteger running, @NotNull AtomicInteger maxRunning) {
+            super(environment, running, maxRunning);
+        }
+    }
+
+    @ModuleData(name = "critical", priority = ModuleData.Priority.CRITICAL)
+    private static final class CriticalModule extends DummyModule {
+
+        CriticalModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "leaderboard", priority = ModuleData.Priority.BACKGROUND)
+    private static final class LeaderboardModule extends DummyModule {
+        private final CountDownLatch release;
+        private final AtomicBoolean ready;
+
+        LeaderboardModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch release, @NotNull AtomicBoolean ready) {
+            super(environment);
+            this.release = release;
+            this.ready = ready;
+        }
+
+        @Override
+        public boolean onLoad() {
+            try {
+                return this.release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void onReady() {
+            this.ready.set(true);
+        }
+    }
+
+    @ModuleData(name = "leaderboard-command", dependencies = {@Dependency(name = "leaderboard")})
+    private static final class LeaderboardCommandModule extends DummyModule {
+
+        LeaderboardCommandModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
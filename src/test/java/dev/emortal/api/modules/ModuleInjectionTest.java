@@ -0,0 +1,131 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleInjectionTest {
+
+    @Test
+    void testDependenciesInjectedIntoConstructor() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(RequiredModule.class)
+                .module(OptionalModule.class)
+                .module(InjectedModule.class)
+                .build();
+
+        InjectedModule module = manager.getModule(InjectedModule.class);
+        assertNotNull(module);
+        assertSame(manager.getModule(RequiredModule.class), module.required);
+        assertTrue(module.optional.isPresent());
+        assertSame(manager.getModule(OptionalModule.class), module.optional.get());
+    }
+
+    @Test
+    void testMissingOptionalDependencyInjectedAsEmpty() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(RequiredModule.class)
+                .module(InjectedModule.class)
+                .build();
+
+        InjectedModule module = manager.getModule(InjectedModule.class);
+        assertNotNull(module);
+        assertFalse(module.optional.isPresent());
+    }
+
+    @Test
+    void testConstructorWithUnsupportedParameterRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LoadableModule.injected(UnsupportedModule.class));
+    }
+
+    @Test
+    void testUndeclaredDependencyRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LoadableModule.injected(UndeclaredModule.class));
+    }
+
+    @Test
+    void testRequiredDependencyTakenAsOptionalRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LoadableModule.injected(OptionalRequiredModule.class));
+    }
+
+    @Test
+    void testOptionalDependencyTakenAsRequiredRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LoadableModule.injected(RequiredOptionalModule.class));
+    }
+
+    @ModuleData(name = "required")
+    private static final class RequiredModule extends DummyModule {
+
+        RequiredModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "optional")
+    private static final class OptionalModule extends DummyModule {
+
+        OptionalModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "injected", dependencies = {
+            @Dependency(name = "required"),
+            @Dependency(name = "optional", required = false)
+    })
+    private static final class InjectedModule extends DummyModule {
+
+        private final RequiredModule required;
+        private final Optional<OptionalModule> optional;
+
+        InjectedModule(@NotNull ModuleEnvironment environment, @NotNull RequiredModule required,
+                       @NotNull Optional<OptionalModule> optional) {
+            super(environment);
+            this.required = required;
+            this.optional = optional;
+        }
+    }
+
+    @ModuleData(name = "unsupported")
+    private static final class UnsupportedModule extends DummyModule {
+
+        UnsupportedModule(@NotNull ModuleEnvironment environment, @NotNull String unsupported) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "undeclared")
+    private static final class UndeclaredModule extends DummyModule {
+
+        UndeclaredModule(@NotNull ModuleEnvironment environment, @NotNull RequiredModule required) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "optional-required", dependencies = @Dependency(name = "required"))
+    private static final class OptionalRequiredModule extends DummyModule {
+
+        OptionalRequiredModule(@NotNull ModuleEnvironment environment, @NotNull Optional<RequiredModule> required) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "required-optional", dependencies = @Dependency(name = "optional", required = false))
+    private static final class RequiredOptionalModule extends DummyModule {
+
+        RequiredOptionalModule(@NotNull ModuleEnvironment environment, @NotNull OptionalModule optional) {
+            super(environment);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleKeyTest {
+
+    private static final ModuleKey<KeyedModule> KEYED_MODULE = ModuleKey.of(KeyedModule.class);
+
+    @Test
+    void testSameKeyReturnedForSameClass() {
+        assertSame(KEYED_MODULE, ModuleKey.of(KeyedModule.class));
+        assertSame(KeyedModule.class, KEYED_MODULE.type());
+    }
+
+    @Test
+    void testModuleFoundByKey() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(KeyedModule.class, KeyedModule::new)
+                .build();
+
+        KeyedModule module = manager.getModule(KEYED_MODULE);
+        assertNotNull(module);
+        assertSame(module, manager.getModule(KeyedModule.class));
+    }
+
+    @Test
+    void testModuleNotFoundByKeyIfNotLoaded() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(OtherModule.class, OtherModule::new)
+                .build();
+
+        assertNull(manager.getModule(KEYED_MODULE));
+    }
+
+    @Test
+    void testLookupOfAbsentModuleTakesNoSlot() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(OtherModule.class, OtherModule::new)
+                .build();
+
+        assertNull(manager.getModule(AbsentModule.class));
+        assertEquals(-1, ModuleKey.of(AbsentModule.class).slot());
+    }
+
+    @Test
+    void testSlotFreedOnceNoManagerHoldsModule() {
+        ModuleManager first = ModuleManager.builder()
+                .module(SharedSlotModule.class, SharedSlotModule::new)
+                .build();
+        ModuleManager second = ModuleManager.builder()
+                .module(SharedSlotModule.class, SharedSlotModule::new)
+                .build();
+        ModuleKey<SharedSlotModule> key = ModuleKey.of(SharedSlotModule.class);
+        int slot = key.slot();
+        assertTrue(slot >= 0);
+
+        assertTrue(first.unloadModule(SharedSlotModule.class));
+        assertEquals(slot, key.slot());
+        assertNotNull(second.getModule(key));
+
+        assertTrue(second.unloadModule(SharedSlotModule.class));
+        assertEquals(-1, key.slot());
+        assertNull(second.getModule(key));
+    }
+
+    @ModuleData(name = "keyed")
+    private static final class KeyedModule extends DummyModule {
+
+        KeyedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "other")
+    private static final class OtherModule extends DummyModule {
+
+        OtherModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "absent")
+    private static final class AbsentModule extends DummyModule {
+
+        AbsentModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "shared-slot")
+    private static final class SharedSlotModule extends DummyModule {
+
+        SharedSlotModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
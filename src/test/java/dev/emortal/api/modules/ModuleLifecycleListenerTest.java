@@ -0,0 +1,146 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.api.modules.extension.ModulePhase;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleLifecycleListenerTest {
+
+    @Test
+    void testPhasesReportedForEachModule() {
+        RecordingListener listener = new RecordingListener();
+        ModuleManager manager = ModuleManager.builder()
+                .listener(listener)
+                .module(FirstModule.class, FirstModule::new)
+                .module(SecondModule.class, SecondModule::new)
+                .build();
+        manager.onReady();
+        manager.onUnload();
+
+        assertEquals(List.of("resolve:2", "sort:2",
+                "CREATE:first", "LOAD:first", "CREATE:second", "LOAD:second",
+                "READY:first", "READY:second", "UNLOAD:second", "UNLOAD:first"), listener.events);
+    }
+
+    @Test
+    void testFailuresReportedWithPhase() {
+        RecordingListener listener = new RecordingListener();
+        ModuleManager.builder()
+                .listener(listener)
+                .module(FirstModule.class, env -> {
+                    throw new IllegalStateException("Failed to create");
+                })
+                .module(FailingModule.class, FailingModule::new)
+                .build();
+
+        assertTrue(listener.events.contains("failed:CREATE:first:IllegalStateException"));
+        assertTrue(listener.events.contains("failed:LOAD:failing:null"));
+    }
+
+    @Test
+    void testDependencyWaitReportedInParallel() {
+        RecordingListener listener = new RecordingListener();
+        ModuleManager.builder()
+                .parallelLoading()
+                .listener(listener)
+                .module(FirstModule.class, FirstModule::new)
+                .module(SecondModule.class, SecondModule::new)
+                .build();
+
+        assertTrue(listener.events.contains("wait:first"));
+        assertTrue(listener.events.contains("wait:second"));
+    }
+
+    @Test
+    void testFailingListenerDoesNotAffectOthers() {
+        RecordingListener listener = new RecordingListener();
+        ModuleManager manager = ModuleManager.builder()
+                .listener(new ModuleLifecycleListener() {
+                    @Override
+                    public void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+                        throw new IllegalStateException("Broken listener");
+                    }
+                })
+                .listener(listener)
+                .module(FirstModule.class, FirstModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(FirstModule.class));
+        assertTrue(listener.events.contains("LOAD:first"));
+    }
+
+    private static final class RecordingListener implements ModuleLifecycleListener {
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onResolve(int candidates, long durationNanos) {
+            this.events.add("resolve:" + candidates);
+        }
+
+        @Override
+        public void onSort(int candidates, long durationNanos) {
+            this.events.add("sort:" + candidates);
+        }
+
+        @Override
+        public void onDependencyWait(@NotNull ModuleData data, long durationNanos) {
+            this.events.add("wait:" + data.name());
+        }
+
+        @Override
+        public void onPhase(@NotNull ModuleData data, @NotNull ModulePhase phase, long durationNanos) {
+            assertTrue(durationNanos >= 0);
+            this.events.add(phase + ":" + data.name());
+        }
+
+        @Override
+        public void onFailure(@NotNull ModuleData data, @NotNull ModulePhase phase, @Nullable Throwable cause) {
+            String causeName = cause != null ? cause.getClass().getSimpleName() : "null";
+            this.events.add("failed:" + phase + ":" + data.name() + ":" + causeName);
+        }
+    }
+
+    @ModuleData(name = "first")
+    private static final class FirstModule extends DummyModule {
+
+        FirstModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "second", dependencies = {@Dependency(name = "first")})
+    private static final class SecondModule extends DummyModule {
+
+        SecondModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "failing")
+    private static final class FailingModule extends DummyModule {
+
+        FailingModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        @Override
+        public boolean onLoad() {
+            return false;
+        }
+    }
+}
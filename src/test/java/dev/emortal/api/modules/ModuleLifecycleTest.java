@@ -0,0 +1,217 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleLifecycleTest {
+
+    @Test
+    void testReadyFiredInDependencyOrder() {
+        List<String> events = new ArrayList<>();
+        ModuleManager manager = this.createChain(ModuleManager.builder(), events);
+
+        manager.onReady();
+        assertEquals(List.of("ready:first", "ready:second", "ready:third"), events);
+    }
+
+    @Test
+    void testUnloadFiredInReverseDependencyOrder() {
+        List<String> events = new ArrayList<>();
+        ModuleManager manager = this.createChain(ModuleManager.builder(), events);
+
+        manager.onUnload();
+        assertEquals(List.of("unload:third", "unload:second", "unload:first"), events);
+    }
+
+    @Test
+    void testParallelLifecycleKeepsDependencyOrder() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = this.createChain(ModuleManager.builder().parallelLoading(), events);
+
+        manager.onReady();
+        manager.onUnload();
+        assertEquals(List.of("ready:first", "ready:second", "ready:third", "unload:third", "unload:second", "unload:first"),
+                events);
+    }
+
+    @Test
+    void testParallelUnloadDoesNotWaitForStuckModule() {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .lifecycleTimeout(Duration.ofMillis(100))
+                .module(StuckModule.class, env -> new StuckModule(env, neverReleased))
+                .build();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), manager::onUnload);
+        assertTrue(neverReleased.getCount() > 0);
+    }
+
+    @Test
+    void testSequentialUnloadDoesNotWaitForStuckModule() {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        ModuleManager manager = ModuleManager.builder()
+                .lifecycleTimeout(Duration.ofMillis(100))
+                .module(StuckModule.class, env -> new StuckModule(env, neverReleased))
+                .build();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), manager::onUnload);
+        assertTrue(neverReleased.getCount() > 0);
+    }
+
+    @Test
+    void testSequentialLifecycleRunsOnCallingThread() {
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = ModuleManager.builder()
+                .module(ThreadRecordingModule.class, env -> new ThreadRecordingModule(env, threads))
+                .build();
+
+        manager.onReady();
+        manager.onUnload();
+        assertEquals(List.of(Thread.currentThread(), Thread.currentThread()), threads);
+    }
+
+    @Test
+    void testModulesAfterStuckModuleStillUnloaded() throws InterruptedException {
+        CountDownLatch neverReleased = new CountDownLatch(1);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = ModuleManager.builder()
+                .lifecycleTimeout(Duration.ofMillis(100))
+                .module(FirstModule.class, env -> new FirstModule(env, events))
+                .module(StuckDependentModule.class, env -> new StuckDependentModule(env, neverReleased))
+                .build();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), manager::onUnload);
+        for (int i = 0; i < 100 && events.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(List.of("unload:first"), events);
+    }
+
+    private @NotNull ModuleManager createChain(@NotNull ModuleManager.Builder builder, @NotNull List<String> events) {
+        return builder
+                .module(FirstModule.class, env -> new FirstModule(env, events))
+                .module(SecondModule.class, env -> new SecondModule(env, events))
+                .module(ThirdModule.class, env -> new ThirdModule(env, events))
+                .build();
+    }
+
+    private static abstract class RecordingModule extends DummyModule {
+
+        private final List<String> events;
+
+        RecordingModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment);
+            this.events = events;
+        }
+
+        @Override
+        public void onReady() {
+            this.events.add("ready:" + this.environment.data().name());
+        }
+
+        @Override
+        public void onUnload() {
+            this.events.add("unload:" + this.environment.data().name());
+        }
+    }
+
+    @ModuleData(name = "first")
+    private static final class FirstModule extends RecordingModule {
+
+        FirstModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+
+    @ModuleData(name = "second", dependencies = {@Dependency(name = "first")})
+    private static final class SecondModule extends RecordingModule {
+
+        SecondModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+
+    @ModuleData(name = "third", dependencies = {@Dependency(name = "second")})
+    private static final class ThirdModule extends RecordingModule {
+
+        ThirdModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+
+    @ModuleData(name = "stuck")
+    private static final class StuckModule extends DummyModule {
+
+        private final CountDownLatch latch;
+
+        StuckModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch latch) {
+            super(environment);
+            this.latch = latch;
+        }
+
+        @Override
+        public void onUnload() {
+            try {
+                this.latch.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @ModuleData(name = "stuck-dependent", dependencies = {@Dependency(name = "first")})
+    private static final class StuckDependentModule extends DummyModule {
+
+        private final CountDownLatch latch;
+
+        StuckDependentModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch latch) {
+            super(environment);
+            this.latch = latch;
+        }
+
+        @Override
+        public void onUnload() {
+            try {
+                this.latch.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @ModuleData(name = "thread-recording")
+    private static final class ThreadRecordingModule extends DummyModule {
+
+        private final List<Thread> threads;
+
+        ThreadRecordingModule(@NotNull ModuleEnvironment environment, @NotNull List<Thread> threads) {
+            super(environment);
+            this.threads = threads;
+        }
+
+        @Override
+        public void onReady() {
+            this.threads.add(Thread.currentThread());
+        }
+
+        @Override
+        public void onUnload() {
+            this.threads.add(Thread.currentThread());
+        }
+    }
+}
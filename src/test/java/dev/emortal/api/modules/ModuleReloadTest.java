@@ -0,0 +1,179 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleReloadTest {
+
+    @Test
+    void testUnloadCascadesToRequiredDependents() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = this.createManager(events);
+
+        assertTrue(manager.unloadModule(BaseModule.class));
+        assertEquals(List.of("unload:required", "unload:base"), events);
+        assertNull(manager.getModule(BaseModule.class));
+        assertNull(manager.getModule(RequiredModule.class));
+        assertNotNull(manager.getModule(OptionalModule.class));
+        assertFalse(manager.unloadModule(BaseModule.class));
+    }
+
+    @Test
+    void testUnloadedModuleCanBeLoadedAgain() {
+        ModuleManager manager = this.createManager(new ArrayList<>());
+        manager.unloadModule(OptionalModule.class);
+
+        manager.loadModules(List.of(new LoadableModule(OptionalModule.class, env -> new OptionalModule(env, new ArrayList<>()))));
+        assertNotNull(manager.getModule(OptionalModule.class));
+    }
+
+    @Test
+    void testUnloadedDependentsRemovedFromPlan() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = this.createManager(events);
+        manager.unloadModule(BaseModule.class);
+
+        LoadPlan plan = manager.loadPlan();
+        assertNotNull(plan);
+        assertEquals(-1, plan.indexOf(BaseModule.class));
+        assertEquals(-1, plan.indexOf(RequiredModule.class));
+        assertNotEquals(-1, plan.indexOf(OptionalModule.class));
+
+        manager.loadModules(List.of(
+                new LoadableModule(BaseModule.class, env -> new BaseModule(env, events)),
+                new LoadableModule(RequiredModule.class, env -> new RequiredModule(env, events))
+        ));
+        assertNotNull(manager.getModule(RequiredModule.class));
+    }
+
+    @Test
+    void testReloadSwapsModuleAndDependents() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ModuleManager manager = this.createManager(events);
+        BaseModule oldBase = manager.getModule(BaseModule.class);
+        RequiredModule oldRequired = manager.getModule(RequiredModule.class);
+        OptionalModule oldOptional = manager.getModule(OptionalModule.class);
+
+        assertTrue(manager.reloadModule(BaseModule.class));
+
+        BaseModule newBase = manager.getModule(BaseModule.class);
+        RequiredModule newRequired = manager.getModule(RequiredModule.class);
+        OptionalModule newOptional = manager.getModule(OptionalModule.class);
+        assertNotSame(oldBase, newBase);
+        assertNotSame(oldRequired, newRequired);
+        assertNotSame(oldOptional, newOptional);
+
+        // The new dependents were given the new base while it was being reloaded
+        assertNotNull(newRequired);
+        assertSame(newBase, newRequired.base);
+        assertSame(newBase, newRequired.getModule(BaseModule.class));
+        assertEquals(List.of("unload:required", "unload:optional", "unload:base"), events);
+    }
+
+    @Test
+    void testFailedReloadKeepsOldModules() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger creations = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .module(BaseModule.class, env -> new BaseModule(env, events))
+                .module(RequiredModule.class, env -> {
+                    if (creations.getAndIncrement() > 0) throw new IllegalStateException("Broken config");
+                    return new RequiredModule(env, events);
+                })
+                .build();
+        BaseModule oldBase = manager.getModule(BaseModule.class);
+        RequiredModule oldRequired = manager.getModule(RequiredModule.class);
+
+        assertFalse(manager.reloadModule(BaseModule.class));
+        assertSame(oldBase, manager.getModule(BaseModule.class));
+        assertSame(oldRequired, manager.getModule(RequiredModule.class));
+        assertNotNull(oldRequired);
+        assertSame(oldBase, oldRequired.getModule(BaseModule.class));
+
+        // Only the new base loaded, so only it is unloaded
+        assertEquals(List.of("unload:base"), events);
+    }
+
+    @Test
+    void testReloadWithNewCreator() {
+        ModuleManager manager = this.createManager(new ArrayList<>());
+        List<String> newEvents = new ArrayList<>();
+
+        assertTrue(manager.reloadModule(OptionalModule.class, env -> new OptionalModule(env, newEvents)));
+        manager.onUnload();
+        assertEquals(List.of("unload:optional"), newEvents);
+    }
+
+    private @NotNull ModuleManager createManager(@NotNull List<String> events) {
+        return ModuleManager.builder()
+                .module(BaseModule.class, env -> new BaseModule(env, events))
+                .module(RequiredModule.class, env -> new RequiredModule(env, events))
+                .module(OptionalModule.class, env -> new OptionalModule(env, events))
+                .build();
+    }
+
+    private static abstract class RecordingModule extends DummyModule {
+
+        private final List<String> events;
+
+        RecordingModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment);
+            this.events = events;
+        }
+
+        @Override
+        public void onUnload() {
+            this.events.add("unload:" + this.environment.data().name());
+        }
+    }
+
+    @ModuleData(name = "base")
+    private static final class BaseModule extends RecordingModule {
+
+        BaseModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+
+    @ModuleData(name = "required", dependencies = {@Dependency(name = "base")})
+    private static final class RequiredModule extends RecordingModule {
+
+        private BaseModule base;
+
+        RequiredModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+
+        @Override
+        public boolean onLoad() {
+            this.base = this.getModule(BaseModule.class);
+            return this.base != null;
+        }
+    }
+
+    @ModuleData(name = "optional", dependencies = {@Dependency(name = "base", required = false)})
+    private static final class OptionalModule extends RecordingModule {
+
+        OptionalModule(@NotNull ModuleEnvironment environment, @NotNull List<String> events) {
+            super(environment, events);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleSupervisorTest {
+
+    @Test
+    void testUnhealthyModuleRestartedWithDependents() {
+        AtomicInteger creations = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .module(DatabaseModule.class, env -> new DatabaseModule(env, creations.incrementAndGet() > 1))
+                .module(CacheModule.class, CacheModule::new)
+                .build();
+        manager.onReady();
+
+        Module database = manager.getModule(DatabaseModule.class);
+        Module cache = manager.getModule(CacheModule.class);
+
+        try (ModuleSupervisor supervisor = ModuleSupervisor.builder(manager).interval(Duration.ofHours(1)).failureThreshold(2).start()) {
+            // The first check is run when the supervisor starts
+            HealthSnapshot first = supervisor.snapshot();
+            assertEquals(HealthSnapshot.Status.UNHEALTHY, first.modules().get("database"));
+            assertFalse(first.ready());
+            assertTrue(first.live());
+            assertSame(database, manager.getModule(DatabaseModule.class));
+
+            HealthSnapshot second = supervisor.check();
+            assertEquals(Map.of("database", HealthSnapshot.Status.HEALTHY, "cache", HealthSnapshot.Status.HEALTHY), second.modules());
+            assertTrue(second.ready());
+            assertSame(second, supervisor.snapshot());
+
+            assertNotSame(database, manager.getModule(DatabaseModule.class));
+            assertNotSame(cache, manager.getModule(CacheModule.class));
+            assertEquals(2, creations.get());
+        }
+    }
+
+    @Test
+    void testFailedRestartReportedAsNotLive() {
+        AtomicInteger creations = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .module(DatabaseModule.class, env -> {
+                    if (creations.incrementAndGet() > 1) throw new IllegalStateException("Database is down");
+                    return new DatabaseModule(env, false);
+                })
+                .build();
+        manager.onReady();
+
+        try (ModuleSupervisor supervisor = ModuleSupervisor.builder(manager).interval(Duration.ofHours(1)).failureThreshold(1).start()) {
+            HealthSnapshot snapshot = supervisor.snapshot();
+            assertEquals(HealthSnapshot.Status.FAILED, snapshot.modules().get("database"));
+            assertFalse(snapshot.live());
+            assertFalse(snapshot.ready());
+
+            // A module that could not be restarted is not restarted again on every check
+            supervisor.check();
+            assertEquals(2, creations.get());
+        }
+    }
+
+    @ModuleData(name = "database")
+    private static final class DatabaseModule extends DummyModule {
+        private final boolean healthy;
+
+        DatabaseModule(@NotNull ModuleEnvironment environment, boolean healthy) {
+            super(environment);
+            this.healthy = healthy;
+        }
+
+        @Override
+        public boolean checkHealth() {
+            return this.healthy;
+        }
+    }
+
+    @ModuleData(name = "cache", dependencies = {@Dependency(name = "database")})
+    private static final class CacheModule extends DummyModule {
+
+        CacheModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
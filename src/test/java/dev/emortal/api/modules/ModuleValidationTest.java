@@ -0,0 +1,170 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleValidationTest {
+
+    @Test
+    void testDoomedModulesNeverCreated() {
+        AtomicInteger creations = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .module(MissingDependencyModule.class, env -> {
+                    creations.incrementAndGet();
+                    return new MissingDependencyModule(env);
+                })
+                .module(TransitiveModule.class, env -> {
+                    creations.incrementAndGet();
+                    return new TransitiveModule(env);
+                })
+                .module(HealthyModule.class, HealthyModule::new)
+                .build();
+
+        assertEquals(0, creations.get());
+        assertNull(manager.getModule(TransitiveModule.class));
+        assertNotNull(manager.getModule(HealthyModule.class));
+    }
+
+    @Test
+    void testStrictValidationReportsEveryProblem() {
+        ModuleValidationException exception = assertThrows(ModuleValidationException.class, () -> ModuleManager.builder()
+                .strictValidation()
+                .module(MissingDependencyModule.class, MissingDependencyModule::new)
+                .module(TransitiveModule.class, TransitiveModule::new)
+                .module(UnannotatedModule.class, UnannotatedModule::new)
+                .module(HealthyModule.class, HealthyModule::new)
+                .build());
+
+        assertEquals(Set.of(ModuleProblem.Kind.UNKNOWN_DEPENDENCY, ModuleProblem.Kind.UNLOADABLE, ModuleProblem.Kind.UNRESOLVED),
+                exception.problems().stream().map(ModuleProblem::kind).collect(Collectors.toSet()));
+        assertEquals(3, exception.problems().size());
+    }
+
+    @Test
+    void testCyclesAndDuplicatesAlwaysFail() {
+        ModuleValidationException exception = assertThrows(ModuleValidationException.class, () -> ModuleManager.builder()
+                .module(CycleFirstModule.class, CycleFirstModule::new)
+                .module(CycleSecondModule.class, CycleSecondModule::new)
+                .module(HealthyModule.class, HealthyModule::new)
+                .module(DuplicateModule.class, DuplicateModule::new)
+                .build());
+
+        assertEquals(2, exception.problems().size());
+        assertEquals(1, exception.problems().stream().filter(problem -> problem.kind() == ModuleProblem.Kind.DUPLICATE_NAME).count());
+
+        // The cycle can be reported from either module, depending on the order they were given in
+        String cycle = exception.problems().stream().filter(problem -> problem.kind() == ModuleProblem.Kind.CYCLE)
+                .findFirst().orElseThrow().message();
+        assertTrue(Set.of("Module dependency cycle: cycle-first -> cycle-second -> cycle-first",
+                "Module dependency cycle: cycle-second -> cycle-first -> cycle-second").contains(cycle), cycle);
+    }
+
+    @Test
+    void testCyclesSharingModuleAllReported() {
+        ModuleValidationException exception = assertThrows(ModuleValidationException.class, () -> ModuleManager.builder()
+                .module(SharedFirstModule.class, SharedFirstModule::new)
+                .module(SharedMiddleModule.class, SharedMiddleModule::new)
+                .module(SharedLastModule.class, SharedLastModule::new)
+                .build());
+
+        // Each cycle can be reported from either of its modules, depending on the order they were given in
+        List<String> cycles = exception.problems().stream().map(ModuleProblem::message).toList();
+        assertEquals(2, cycles.size());
+        assertTrue(cycles.stream().anyMatch(cycle -> cycle.contains("shared-first") && !cycle.contains("shared-last")), cycles::toString);
+        assertTrue(cycles.stream().anyMatch(cycle -> cycle.contains("shared-last") && !cycle.contains("shared-first")), cycles::toString);
+    }
+
+    @ModuleData(name = "missing-dependency", dependencies = {@Dependency(name = "missing")})
+    private static final class MissingDependencyModule extends DummyModule {
+
+        MissingDependencyModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "transitive", dependencies = {@Dependency(name = "missing-dependency")})
+    private static final class TransitiveModule extends DummyModule {
+
+        TransitiveModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "healthy", dependencies = {@Dependency(name = "missing", required = false)})
+    private static final class HealthyModule extends DummyModule {
+
+        HealthyModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "healthy")
+    private static final class DuplicateModule extends DummyModule {
+
+        DuplicateModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    private static final class UnannotatedModule extends DummyModule {
+
+        UnannotatedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "cycle-first", dependencies = {@Dependency(name = "cycle-second")})
+    private static final class CycleFirstModule extends DummyModule {
+
+        CycleFirstModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "cycle-second", dependencies = {@Dependency(name = "cycle-first", required = false)})
+    private static final class CycleSecondModule extends DummyModule {
+
+        CycleSecondModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "shared-first", dependencies = {@Dependency(name = "shared-middle")})
+    private static final class SharedFirstModule extends DummyModule {
+
+        SharedFirstModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "shared-middle", dependencies = {@Dependency(name = "shared-first"), @Dependency(name = "shared-last")})
+    private static final class SharedMiddleModule extends DummyModule {
+
+        SharedMiddleModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "shared-last", dependencies = {@Dependency(name = "shared-middle")})
+    private static final class SharedLastModule extends DummyModule {
+
+        SharedLastModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
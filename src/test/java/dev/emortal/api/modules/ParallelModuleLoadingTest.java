@@ -0,0 +1,119 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class ParallelModuleLoadingTest {
+
+    @Test
+    void testIndependentModulesLoadConcurrently() {
+        // Each module waits for the other to start loading, which can only succeed if they load at the same time
+        CountDownLatch latch = new CountDownLatch(2);
+
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(FirstLatchModule.class, env -> new FirstLatchModule(env, latch))
+                .module(SecondLatchModule.class, env -> new SecondLatchModule(env, latch))
+                .build();
+
+        assertNotNull(manager.getModule(FirstLatchModule.class));
+        assertNotNull(manager.getModule(SecondLatchModule.class));
+    }
+
+    @Test
+    void testDependentModuleLoadsAfterDependency() {
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(DependencyModule.class, DependencyModule::new)
+                .module(DependentModule.class, DependentModule::new)
+                .build();
+
+        assertNotNull(manager.getModule(DependencyModule.class));
+        assertNotNull(manager.getModule(DependentModule.class));
+    }
+
+    @Test
+    void testDependentModuleDoesNotLoadIfDependencyFails() {
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(DependencyModule.class, env -> {
+                    throw new RuntimeException();
+                })
+                .module(DependentModule.class, DependentModule::new)
+                .build();
+
+        assertNull(manager.getModule(DependencyModule.class));
+        assertNull(manager.getModule(DependentModule.class));
+    }
+
+    private static abstract class LatchModule extends DummyModule {
+
+        private final CountDownLatch latch;
+
+        LatchModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch latch) {
+            super(environment);
+            this.latch = latch;
+        }
+
+        @Override
+        public boolean onLoad() {
+            this.latch.countDown();
+            try {
+                return this.latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    @ModuleData(name = "first-latch")
+    private static final class FirstLatchModule extends LatchModule {
+
+        FirstLatchModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch latch) {
+            super(environment, latch);
+        }
+    }
+
+    @ModuleData(name = "second-latch")
+    private static final class SecondLatchModule extends LatchModule {
+
+        SecondLatchModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch latch) {
+            super(environment, latch);
+        }
+    }
+
+    @ModuleData(name = "dependency")
+    private static final class DependencyModule extends DummyModule {
+
+        public DependencyModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "dependent", dependencies = {@Dependency(name = "dependency")})
+    private static final class DependentModule extends DummyModule {
+
+        public DependentModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        @Override
+        public boolean onLoad() {
+            DependencyModule module = assertDoesNotThrow(() -> this.getModule(DependencyModule.class));
+            assertNotNull(module);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ReadinessGroupTest {
+
+    @Test
+    void testGroupReadyBeforeOtherModules() {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean statsReady = new AtomicBoolean();
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(WorldModule.class, WorldModule::new)
+                .module(MatchModule.class, MatchModule::new)
+                .module(StatsModule.class, env -> new StatsModule(env, release, statsReady))
+                .buildAsync();
+
+        assertTrue(manager.readiness("gameplay").orTimeout(5, TimeUnit.SECONDS).join());
+        assertNotNull(manager.getModule(WorldModule.class));
+        assertNotNull(manager.getModule(MatchModule.class));
+        assertNull(manager.getModule(StatsModule.class));
+        manager.onReady();
+
+        release.countDown();
+        assertTrue(manager.readiness("stats").orTimeout(5, TimeUnit.SECONDS).join());
+        assertNotNull(manager.getModule(StatsModule.class));
+        assertTrue(statsReady.get());
+    }
+
+    @Test
+    void testGroupNotReadyWhenModuleFails() {
+        ModuleManager manager = ModuleManager.builder()
+                .parallelLoading()
+                .module(WorldModule.class, WorldModule::new)
+                .module(MatchModule.class, env -> new MatchModule(env) {
+                    @Override
+                    public boolean onLoad() {
+                        return false;
+                    }
+                })
+                .buildAsync();
+
+        assertFalse(manager.readiness("gameplay").orTimeout(5, TimeUnit.SECONDS).join());
+    }
+
+    @Test
+    void testEmptyGroupReady() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(WorldModule.class, WorldModule::new)
+                .build();
+
+        CompletableFuture<Boolean> readiness = manager.readiness("unknown");
+        assertTrue(readiness.isDone());
+        assertTrue(readiness.join());
+    }
+
+    @Test
+    void testSequentialBuildAsyncLoadsEverything() {
+        CountDownLatch release = new CountDownLatch(1);
+        release.countDown();
+        ModuleManager manager = ModuleManager.builder()
+                .module(WorldModule.class, WorldModule::new)
+                .module(StatsModule.class, env -> new StatsModule(env, release, new AtomicBoolean()))
+                .buildAsync();
+
+        assertTrue(manager.readiness("gameplay").isDone());
+        assertNotNull(manager.getModule(StatsModule.class));
+    }
+
+    @ModuleData(name = "world", readinessGroup = "gameplay")
+    private static final class WorldModule extends DummyModule {
+
+        WorldModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "match", dependencies = {@Dependency(name = "world")}, readinessGroup = "gameplay")
+    private static class MatchModule extends DummyModule {
+
+        MatchModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "stats", readinessGroup = "stats")
+    private static final class StatsModule extends DummyModule {
+        private final CountDownLatch release;
+        private final AtomicBoolean ready;
+
+        StatsModule(@NotNull ModuleEnvironment environment, @NotNull CountDownLatch release, @NotNull AtomicBoolean ready) {
+            super(environment);
+            this.release = release;
+            this.ready = ready;
+        }
+
+        @Override
+        public boolean onLoad() {
+            try {
+                return this.release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public void onReady() {
+            this.ready.set(true);
+        }
+    }
+}
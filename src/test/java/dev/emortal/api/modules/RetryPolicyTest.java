@@ -0,0 +1,123 @@
+package dev.emortal.api.modules;
+
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModuleLifecycleListener;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class RetryPolicyTest {
+
+    private static final RetryPolicy POLICY = RetryPolicy.exponential(3, Duration.ofMillis(1), Duration.ofMillis(5));
+
+    @Test
+    void testModuleRetriedUntilLoadedSequentially() {
+        this.testModuleRetriedUntilLoaded(ModuleManager.builder());
+    }
+
+    @Test
+    void testModuleRetriedUntilLoadedInParallel() {
+        this.testModuleRetriedUntilLoaded(ModuleManager.builder().parallelLoading());
+    }
+
+    private void testModuleRetriedUntilLoaded(@NotNull ModuleManager.Builder builder) {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Integer> retries = new CopyOnWriteArrayList<>();
+
+        ModuleManager manager = builder
+                .retryPolicy(FlakyModule.class, POLICY)
+                .listener(new ModuleLifecycleListener() {
+                    @Override
+                    public void onRetry(@NotNull ModuleData data, int attempt, long delayNanos) {
+                        retries.add(attempt);
+                    }
+                })
+                .module(FlakyModule.class, env -> new FlakyModule(env, attempts.incrementAndGet() < 3))
+                .module(DependentModule.class, DependentModule::new)
+                .build();
+
+        assertEquals(3, attempts.get());
+        assertEquals(List.of(1, 2), retries);
+        assertNotNull(manager.getModule(FlakyModule.class));
+        assertNotNull(manager.getModule(DependentModule.class));
+    }
+
+    @Test
+    void testModuleDroppedAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        ModuleManager manager = ModuleManager.builder()
+                .retryPolicy(POLICY)
+                .module(FlakyModule.class, env -> {
+                    attempts.incrementAndGet();
+                    return new FlakyModule(env, true);
+                })
+                .module(DependentModule.class, DependentModule::new)
+                .build();
+
+        assertEquals(3, attempts.get());
+        assertNull(manager.getModule(FlakyModule.class));
+        assertNull(manager.getModule(DependentModule.class));
+    }
+
+    @Test
+    void testNoRetryAfterDeadline() {
+        AtomicInteger attempts = new AtomicInteger();
+        ModuleManager.builder()
+                .retryPolicy(RetryPolicy.exponential(10, Duration.ofSeconds(1), Duration.ofSeconds(1)).withJitter(0)
+                        .withDeadline(Duration.ofMillis(100)))
+                .module(FlakyModule.class, env -> new FlakyModule(env, attempts.incrementAndGet() < 10))
+                .build();
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void testBackoffGrowsUpToMaximum() {
+        RetryPolicy policy = RetryPolicy.exponential(5, Duration.ofMillis(10), Duration.ofMillis(25)).withJitter(0);
+        assertEquals(Duration.ofMillis(10).toNanos(), policy.backoffNanos(1));
+        assertEquals(Duration.ofMillis(20).toNanos(), policy.backoffNanos(2));
+        assertEquals(Duration.ofMillis(25).toNanos(), policy.backoffNanos(3));
+
+        long jittered = RetryPolicy.exponential(5, Duration.ofMillis(10), Duration.ofMillis(25)).backoffNanos(1);
+        assertTrue(jittered > Duration.ofMillis(5).toNanos() - 1 && jittered <= Duration.ofMillis(10).toNanos(), String.valueOf(jittered));
+
+        assertThrows(IllegalArgumentException.class, () -> RetryPolicy.exponential(0, Duration.ZERO, Duration.ZERO));
+    }
+
+    @ModuleData(name = "flaky")
+    private static final class FlakyModule extends DummyModule {
+        private final boolean fail;
+
+        FlakyModule(@NotNull ModuleEnvironment environment, boolean fail) {
+            super(environment);
+            this.fail = fail;
+        }
+
+        @Override
+        public boolean onLoad() {
+            if (this.fail) throw new IllegalStateException("Redis is unavailable");
+            return true;
+        }
+    }
+
+    @ModuleData(name = "dependent", dependencies = {@Dependency(name = "flaky")})
+    private static final class DependentModule extends DummyModule {
+
+        DependentModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
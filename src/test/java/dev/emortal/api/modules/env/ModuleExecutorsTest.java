@@ -0,0 +1,134 @@
+package dev.emortal.api.modules.env;
+
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.ModuleProvider;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ModuleExecutorsTest {
+
+    @Test
+    void testExecutorsShutDownWhenModuleUnloaded() throws InterruptedException {
+        ModuleManager manager = ModuleManager.builder()
+                .module(WorkerModule.class, WorkerModule::new)
+                .build();
+
+        WorkerModule module = manager.getModule(WorkerModule.class);
+        assertNotNull(module);
+        assertTrue(module.ticked.await(5, TimeUnit.SECONDS));
+        assertTrue(module.started.await(5, TimeUnit.SECONDS));
+
+        manager.onUnload();
+
+        assertTrue(module.interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(module.ticking.isCancelled());
+        assertTrue(module.executors().executor().isShutdown());
+        assertThrows(RejectedExecutionException.class, () -> module.executors().schedule(() -> {}, Duration.ZERO));
+    }
+
+    @Test
+    void testScopeInterruptsSubtasksWhenOneFails() throws InterruptedException {
+        ModuleManager manager = ModuleManager.builder()
+                .module(WorkerModule.class, WorkerModule::new)
+                .build();
+        WorkerModule module = manager.getModule(WorkerModule.class);
+        assertNotNull(module);
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (TaskScope scope = module.executors().newScope()) {
+            Future<String> slow = scope.fork(() -> {
+                try {
+                    Thread.sleep(Duration.ofMinutes(1));
+                } catch (InterruptedException exception) {
+                    interrupted.countDown();
+                    throw exception;
+                }
+                return "slow";
+            });
+            scope.fork(() -> {
+                throw new IllegalStateException("Mongo is unavailable");
+            });
+
+            ExecutionException exception = assertThrows(ExecutionException.class, scope::join);
+            assertEquals("Mongo is unavailable", exception.getCause().getMessage());
+            assertTrue(slow.isDone());
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        manager.onUnload();
+    }
+
+    @Test
+    void testProviderWithoutResourcesStillSupported() {
+        ModuleManager manager = ModuleManager.builder()
+                .environmentProvider(LegacyEnvironment::new)
+                .module(PlainModule.class, PlainModule::new)
+                .build();
+
+        PlainModule module = manager.getModule(PlainModule.class);
+        assertNotNull(module);
+        assertThrows(UnsupportedOperationException.class, module.environment()::executors);
+
+        manager.onUnload();
+    }
+
+    private record LegacyEnvironment(@NotNull ModuleData data, @NotNull ModuleProvider moduleProvider) implements ModuleEnvironment {
+    }
+
+    @ModuleData(name = "plain")
+    private static final class PlainModule extends DummyModule {
+
+        PlainModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        ModuleEnvironment environment() {
+            return this.environment;
+        }
+    }
+
+    @ModuleData(name = "worker")
+    private static final class WorkerModule extends DummyModule {
+        final CountDownLatch ticked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        ScheduledFuture<?> ticking;
+
+        WorkerModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        ModuleExecutors executors() {
+            return this.environment.executors();
+        }
+
+        @Override
+        public boolean onLoad() {
+            this.ticking = this.executors().scheduleAtFixedRate(this.ticked::countDown, Duration.ZERO, Duration.ofMillis(10));
+            this.executors().executor().execute(() -> {
+                this.started.countDown();
+                try {
+                    Thread.sleep(Duration.ofMinutes(1));
+                } catch (InterruptedException exception) {
+                    this.interrupted.countDown();
+                }
+            });
+            return true;
+        }
+    }
+}
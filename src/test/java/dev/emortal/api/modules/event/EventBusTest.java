@@ -0,0 +1,143 @@
+package dev.emortal.api.modules.event;
+
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class EventBusTest {
+
+    @Test
+    void testEventsDeliveredToSupertypeListeners() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(ListenerModule.class, ListenerModule::new)
+                .build();
+        ListenerModule listener = manager.getModule(ListenerModule.class);
+
+        manager.eventBus().post(new PlayerJoinEvent("notmattw"));
+        manager.eventBus().post(new PlayerQuitEvent("notmattw"));
+
+        assertEquals(List.of("join notmattw", "any notmattw", "any notmattw"), listener.received);
+    }
+
+    @Test
+    void testListenersRemovedWhenModuleUnloaded() {
+        ModuleManager manager = ModuleManager.builder()
+                .module(ListenerModule.class, ListenerModule::new)
+                .build();
+        ListenerModule listener = manager.getModule(ListenerModule.class);
+
+        manager.unloadModule(ListenerModule.class);
+        manager.eventBus().post(new PlayerJoinEvent("notmattw"));
+
+        assertTrue(listener.received.isEmpty());
+        assertEquals(0, manager.eventBus().subscriptionsFor(PlayerJoinEvent.class).length);
+    }
+
+    @Test
+    void testSubscribingAfterUnloadRejected() {
+        EventBus bus = new EventBus();
+        ModuleEvents events = bus.forModule("test", Runnable::run);
+        events.close();
+
+        assertThrows(IllegalStateException.class, () -> events.subscribe(PlayerEvent.class, event -> {}));
+        assertThrows(IllegalStateException.class, () -> events.subscribeAsync(PlayerEvent.class, event -> {}));
+        assertEquals(0, bus.subscriptionsFor(PlayerJoinEvent.class).length);
+    }
+
+    @Test
+    void testCachedEventTypesDroppedWhenModuleUnloaded() {
+        EventBus bus = new EventBus();
+        ModuleEvents events = bus.forModule("test", Runnable::run);
+        events.post(new PlayerJoinEvent("notmattw"));
+        assertTrue(bus.isCached(PlayerJoinEvent.class));
+
+        events.close();
+        assertFalse(bus.isCached(PlayerJoinEvent.class));
+    }
+
+    @Test
+    void testListenersCachedUntilSubscriptionsChange() {
+        EventBus bus = new EventBus();
+        ModuleEvents events = bus.forModule("test", Runnable::run);
+        events.subscribe(PlayerEvent.class, event -> {});
+
+        Subscription[] first = bus.subscriptionsFor(PlayerJoinEvent.class);
+        assertSame(first, bus.subscriptionsFor(PlayerJoinEvent.class));
+
+        Subscription subscription = events.subscribe(PlayerJoinEvent.class, event -> {});
+        Subscription[] second = bus.subscriptionsFor(PlayerJoinEvent.class);
+        assertNotSame(first, second);
+        assertEquals(2, second.length);
+
+        subscription.close();
+        assertEquals(1, bus.subscriptionsFor(PlayerJoinEvent.class).length);
+    }
+
+    @Test
+    void testAsyncListenersDoNotBlockPosting() throws InterruptedException {
+        ModuleManager manager = ModuleManager.builder()
+                .module(ListenerModule.class, ListenerModule::new)
+                .build();
+        ListenerModule listener = manager.getModule(ListenerModule.class);
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        listener.events().subscribeAsync(PlayerQuitEvent.class, event -> {
+            try {
+                release.await();
+            } catch (InterruptedException exception) {
+                return;
+            }
+            delivered.countDown();
+        });
+
+        manager.eventBus().post(new PlayerQuitEvent("notmattw"));
+        release.countDown();
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+    }
+
+    private sealed interface PlayerEvent permits PlayerJoinEvent, PlayerQuitEvent {
+        @NotNull String name();
+    }
+
+    private record PlayerJoinEvent(@NotNull String name) implements PlayerEvent {
+    }
+
+    private record PlayerQuitEvent(@NotNull String name) implements PlayerEvent {
+    }
+
+    @ModuleData(name = "listener")
+    private static final class ListenerModule extends DummyModule {
+        final List<String> received = new CopyOnWriteArrayList<>();
+
+        ListenerModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        ModuleEvents events() {
+            return this.environment.events();
+        }
+
+        @Override
+        public boolean onLoad() {
+            this.events().subscribe(PlayerJoinEvent.class, event -> this.received.add("join " + event.name()));
+            this.events().subscribe(PlayerEvent.class, event -> this.received.add("any " + event.name()));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class DefaultModuleSorterTest {
+
+    private final DefaultModuleSorter sorter = new DefaultModuleSorter();
+
+    @Test
+    void testDependenciesSortedBeforeDependents() {
+        List<ModuleCandidate> sorted = this.sorter.sortModules(List.of(
+                candidate(ModuleDataBuilder.builder("a").dependency("c")),
+                candidate(ModuleDataBuilder.builder("b").dependency("a").dependency("c", false)),
+                candidate(ModuleDataBuilder.builder("c"))
+        ));
+
+        assertEquals(List.of("c", "a", "b"), names(sorted));
+    }
+
+    @Test
+    void testIndependentModulesSortedByName() {
+        List<ModuleCandidate> sorted = this.sorter.sortModules(List.of(
+                candidate(ModuleDataBuilder.builder("d").dependency("a")),
+                candidate(ModuleDataBuilder.builder("c")),
+                candidate(ModuleDataBuilder.builder("b")),
+                candidate(ModuleDataBuilder.builder("a"))
+        ));
+
+        assertEquals(List.of("a", "b", "c", "d"), names(sorted));
+    }
+
+    @Test
+    void testIndependentModulesSortedByPriority() {
+        List<ModuleCandidate> sorted = this.sorter.sortModules(List.of(
+                candidate(ModuleDataBuilder.builder("a").priority(ModuleData.Priority.BACKGROUND)),
+                candidate(ModuleDataBuilder.builder("b")),
+                candidate(ModuleDataBuilder.builder("c").dependency("a").priority(ModuleData.Priority.CRITICAL)),
+                candidate(ModuleDataBuilder.builder("d").priority(ModuleData.Priority.CRITICAL))
+        ));
+
+        // The background module is as urgent as the critical module that requires it, so neither waits for "b"
+        assertEquals(List.of("a", "c", "d", "b"), names(sorted));
+    }
+
+    @Test
+    void testMissingDependenciesIgnored() {
+        List<ModuleCandidate> sorted = this.sorter.sortModules(List.of(
+                candidate(ModuleDataBuilder.builder("a").dependency("missing"))
+        ));
+
+        assertEquals(List.of("a"), names(sorted));
+    }
+
+    @Test
+    void testCyclesReportedWithFullPath() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> this.sorter.sortModules(List.of(
+                candidate(ModuleDataBuilder.builder("a").dependency("b")),
+                candidate(ModuleDataBuilder.builder("b").dependency("c")),
+                candidate(ModuleDataBuilder.builder("c").dependency("a")),
+                candidate(ModuleDataBuilder.builder("d").dependency("a")),
+                candidate(ModuleDataBuilder.builder("e").dependency("e"))
+        )));
+
+        assertEquals("Module dependency cycles found: a -> b -> c -> a, e -> e", exception.getMessage());
+    }
+
+    @Test
+    void testCyclesSharingModuleAllReported() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> this.sorter.sortModules(List.of(
+                candidate(ModuleDataBuilder.builder("a").dependency("b")),
+                candidate(ModuleDataBuilder.builder("b").dependency("a").dependency("c")),
+                candidate(ModuleDataBuilder.builder("c").dependency("b"))
+        )));
+
+        assertEquals("Module dependency cycles found: a -> b -> a, c -> b -> c", exception.getMessage());
+    }
+
+    private static @NotNull ModuleCandidate candidate(@NotNull ModuleDataBuilder data) {
+        return new ModuleCandidate(DummyModule.class, DummyModule::new, data.build());
+    }
+
+    private static @NotNull List<String> names(@NotNull List<ModuleCandidate> candidates) {
+        return candidates.stream().map(candidate -> candidate.data().name()).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.extension.ModuleIndex;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IndexedModuleCandidateResolverTest {
+
+    private static final ModuleIndex INDEX = () -> List.of(
+            new ModuleIndex.Entry(FirstModule.class, ModuleDataBuilder.builder("first").build()),
+            new ModuleIndex.Entry(SecondModule.class, ModuleDataBuilder.builder("second").dependency("first").build())
+    );
+
+    @Test
+    void testModuleNotResolvedIfNotInIndex() {
+        IndexedModuleCandidateResolver resolver = new IndexedModuleCandidateResolver(INDEX);
+        List<LoadableModule> modules = List.of(new LoadableModule(NotIndexedModule.class, NotIndexedModule::new));
+
+        assertTrue(resolver.resolveCandidates(modules).isEmpty());
+    }
+
+    @Test
+    void testModulesResolvedInIndexOrder() {
+        IndexedModuleCandidateResolver resolver = new IndexedModuleCandidateResolver(INDEX);
+        List<LoadableModule> modules = List.of(
+                new LoadableModule(SecondModule.class, SecondModule::new),
+                new LoadableModule(FirstModule.class, FirstModule::new)
+        );
+
+        List<ModuleCandidate> candidates = resolver.resolveCandidates(modules);
+        assertEquals(2, candidates.size());
+        assertSame(FirstModule.class, candidates.get(0).clazz());
+        assertSame(SecondModule.class, candidates.get(1).clazz());
+        assertEquals("first", candidates.get(1).data().dependencies()[0].name());
+    }
+
+    private static final class FirstModule extends DummyModule {
+
+        FirstModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    private static final class SecondModule extends DummyModule {
+
+        SecondModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    private static final class NotIndexedModule extends DummyModule {
+
+        NotIndexedModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package dev.emortal.api.modules.internal;
+
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.Module;
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.extension.ModuleCandidate;
+import dev.emortal.api.modules.processor.ModuleIndexProcessor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class JarModuleCandidateResolverTest {
+
+    private static final String BASE_SOURCE = """
+            package base;
+
+            import dev.emortal.api.modules.annotation.ModuleData;
+            import dev.emortal.api.modules.env.ModuleEnvironment;
+
+            @ModuleData(name = "base")
+            public final class BaseModule extends dev.emortal.testing.DummyModule {
+                public BaseModule(ModuleEnvironment environment) {
+                    super(environment);
+                }
+            }
+            """;
+
+    private static final String DEPENDENT_SOURCE = """
+            package dependent;
+
+            import base.BaseModule;
+            import dev.emortal.api.modules.annotation.Dependency;
+            import dev.emortal.api.modules.annotation.ModuleData;
+            import dev.emortal.api.modules.env.ModuleEnvironment;
+
+            @ModuleData(name = "dependent", dependencies = @Dependency(name = "base"))
+            public final class DependentModule extends dev.emortal.testing.DummyModule {
+                public final BaseModule base;
+
+                public DependentModule(ModuleEnvironment environment, BaseModule base) {
+                    super(environment);
+                    this.base = base;
+                }
+            }
+            """;
+
+    private static final Pattern CLASS_NAME = Pattern.compile("public final class (\\w+)");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testModulesDiscoveredWithIsolatedClassLoaders() throws Exception {
+        this.writeJars();
+
+        try (JarModuleCandidateResolver resolver = new JarModuleCandidateResolver(this.directory.resolve("jars"))) {
+            List<LoadableModule> modules = resolver.modules();
+            assertEquals(List.of("base.BaseModule", "dependent.DependentModule"),
+                    modules.stream().map(module -> module.clazz().getName()).toList());
+
+            Class<? extends Module> baseType = modules.get(0).clazz();
+            Class<? extends Module> dependentType = modules.get(1).clazz();
+            assertNotSame(baseType.getClassLoader(), dependentType.getClassLoader());
+            assertNotSame(this.getClass().getClassLoader(), baseType.getClassLoader());
+
+            // The dependent's loader sees the base class through its dependency, but not the other way around
+            assertEquals(baseType, Class.forName("base.BaseModule", false, dependentType.getClassLoader()));
+            assertThrows(ClassNotFoundException.class, () -> Class.forName("dependent.DependentModule", false, baseType.getClassLoader()));
+
+            List<ModuleCandidate> candidates = resolver.resolveCandidates(modules);
+            assertEquals("dependent", candidates.get(1).data().name());
+            assertEquals("base", candidates.get(1).data().dependencies()[0].name());
+
+            ModuleManager manager = ModuleManager.builder()
+                    .candidateResolver(resolver)
+                    .modules(modules)
+                    .build();
+            Module dependent = manager.getModule(dependentType);
+            assertNotNull(dependent);
+            assertEquals(manager.getModule(baseType), dependentType.getField("base").get(dependent));
+        }
+    }
+
+    @Test
+    void testClassLoadersCollectedAfterUnloadAndClose() throws Exception {
+        this.writeJars();
+
+        // The manager outlives the modules, as it would when modules are unloaded at runtime
+        JarModuleCandidateResolver resolver = new JarModuleCandidateResolver(this.directory.resolve("jars"));
+        ModuleManager manager = ModuleManager.builder().candidateResolver(resolver).build();
+        WeakReference<ClassLoader> loader = loadAndUnload(manager, resolver);
+        resolver.close();
+
+        for (int i = 0; i < 50 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(loader.get());
+        manager.onUnload();
+    }
+
+    /**
+     * Loads and unloads the modules in a separate method, so that no local variable keeps them reachable.
+     */
+    private static @NotNull WeakReference<ClassLoader> loadAndUnload(@NotNull ModuleManager manager,
+                                                                     @NotNull JarModuleCandidateResolver resolver) {
+        List<LoadableModule> modules = resolver.modules();
+        manager.loadModules(modules);
+        assertNotNull(manager.getModule(modules.get(1).clazz()));
+
+        manager.unloadModule(modules.get(0).clazz());
+        return new WeakReference<>(modules.get(1).clazz().getClassLoader());
+    }
+
+    @Test
+    void testJarsMayDependOnEachOther() throws Exception {
+        Path jars = Files.createDirectories(this.directory.resolve("jars"));
+        this.compileJar(jars.resolve("first.jar"), "second-base",
+                module("first", "FirstBase", "first-base", ""),
+                module("first", "FirstDependent", "first-dependent", "@Dependency(name = \"second-base\")"));
+        this.compileJar(jars.resolve("second.jar"), "first-base",
+                module("second", "SecondBase", "second-base", ""),
+                module("second", "SecondDependent", "second-dependent", "@Dependency(name = \"first-base\")"));
+
+        try (JarModuleCandidateResolver resolver = new JarModuleCandidateResolver(jars)) {
+            List<LoadableModule> modules = resolver.modules();
+            ModuleManager manager = ModuleManager.builder()
+                    .candidateResolver(resolver)
+                    .modules(modules)
+                    .build();
+
+            assertEquals(4, modules.size());
+            for (LoadableModule module : modules) {
+                assertNotNull(manager.getModule(module.clazz()));
+            }
+
+            // Each JAR's loader sees the other's classes, and searching both for a missing class still ends
+            ClassLoader first = modules.get(0).clazz().getClassLoader();
+            assertEquals("second.SecondBase", Class.forName("second.SecondBase", false, first).getName());
+            assertThrows(ClassNotFoundException.class, () -> Class.forName("missing.MissingModule", false, first));
+        }
+    }
+
+    private static @NotNull String module(@NotNull String packageName, @NotNull String className, @NotNull String name,
+                                          @NotNull String dependencies) {
+        return """
+                package %s;
+
+                import dev.emortal.api.modules.annotation.Dependency;
+                import dev.emortal.api.modules.annotation.ModuleData;
+                import dev.emortal.api.modules.env.ModuleEnvironment;
+
+                @ModuleData(name = "%s", dependencies = {%s})
+                public final class %s extends dev.emortal.testing.DummyModule {
+                    public %s(ModuleEnvironment environment) {
+                        super(environment);
+                    }
+                }
+                """.formatted(packageName, name, dependencies, className, className);
+    }
+
+    private void writeJars() throws IOException {
+        Path jars = Files.createDirectories(this.directory.resolve("jars"));
+        Path baseClasses = this.compileJar(jars.resolve("base.jar"), "", BASE_SOURCE);
+        this.compileJar(jars.resolve("dependent.jar"), "base", baseClasses, DEPENDENT_SOURCE);
+        Files.writeString(jars.resolve("notes.txt"), "not a jar");
+    }
+
+    private @NotNull Path compileJar(@NotNull Path jar, @NotNull String externalModules, @NotNull String... sources) throws IOException {
+        return this.compileJar(jar, externalModules, null, sources);
+    }
+
+    /**
+     * Compiles the sources with the module index processor, and writes the classes and the index to the JAR.
+     *
+     * @return the directory the classes were compiled to
+     */
+    private @NotNull Path compileJar(@NotNull Path jar, @NotNull String externalModules, @Nullable Path dependencyClasses,
+                                     @NotNull String... sources) throws IOException {
+        String name = jar.getFileName().toString().replace(".jar", "");
+        Path sourceDirectory = Files.createDirectories(this.directory.resolve("sources").resolve(name));
+        Path classes = Files.createDirectories(this.directory.resolve("classes").resolve(name));
+
+        List<String> arguments = new ArrayList<>();
+        String classpath = System.getProperty("java.class.path");
+        if (dependencyClasses != null) classpath += File.pathSeparator + dependencyClasses;
+        arguments.addAll(List.of("-d", classes.toString(), "-s", sourceDirectory.toString(), "-classpath", classpath,
+                "-processor", ModuleIndexProcessor.class.getName()));
+        if (!externalModules.isEmpty()) arguments.add("-Amodules.externalModules=" + externalModules);
+
+        for (String source : sources) {
+            Matcher className = CLASS_NAME.matcher(source);
+            assertTrue(className.find());
+            arguments.add(Files.writeString(sourceDirectory.resolve(className.group(1) + ".java"), source).toString());
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)));
+
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                output.putNextEntry(new JarEntry(classes.relativize(file).toString().replace(File.separatorChar, '/')));
+                output.write(Files.readAllBytes(file));
+                output.closeEntry();
+            }
+        }
+        return classes;
+    }
+}
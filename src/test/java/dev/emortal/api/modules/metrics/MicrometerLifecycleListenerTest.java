@@ -0,0 +1,52 @@
+package dev.emortal.api.modules.metrics;
+
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.testing.DummyModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class MicrometerLifecycleListenerTest {
+
+    @Test
+    void testTimingsAndFailuresRecorded() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ModuleManager manager = ModuleManager.builder()
+                .listener(new MicrometerLifecycleListener(registry))
+                .module(LoadingModule.class, LoadingModule::new)
+                .module(FailingModule.class, FailingModule::new)
+                .build();
+        manager.onReady();
+
+        assertEquals(1, registry.get("modules.resolve").timer().count());
+        assertEquals(1, registry.get("modules.sort").timer().count());
+        assertEquals(1, registry.get("modules.phase").tags("module", "loading", "phase", "load").timer().count());
+        assertEquals(1, registry.get("modules.phase").tags("module", "loading", "phase", "ready").timer().count());
+        assertEquals(1, registry.get("modules.failures").tags("module", "failing", "phase", "load").counter().count());
+    }
+
+    @ModuleData(name = "loading")
+    private static final class LoadingModule extends DummyModule {
+
+        LoadingModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "failing")
+    private static final class FailingModule extends DummyModule {
+
+        FailingModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+
+        @Override
+        public boolean onLoad() {
+            return false;
+        }
+    }
+}
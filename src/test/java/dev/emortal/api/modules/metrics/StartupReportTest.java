@@ -0,0 +1,140 @@
+package dev.emortal.api.modules.metrics;
+
+import dev.emortal.api.modules.LoadPlan;
+import dev.emortal.api.modules.LoadableModule;
+import dev.emortal.api.modules.ModuleManager;
+import dev.emortal.api.modules.annotation.Dependency;
+import dev.emortal.api.modules.annotation.ModuleData;
+import dev.emortal.api.modules.annotation.ModuleDataBuilder;
+import dev.emortal.api.modules.env.ModuleEnvironment;
+import dev.emortal.api.modules.extension.ModulePhase;
+import dev.emortal.api.modules.internal.DefaultModuleCandidateResolver;
+import dev.emortal.api.modules.internal.DefaultModuleSorter;
+import dev.emortal.testing.DummyModule;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class StartupReportTest {
+
+    // config <- database <- player, and config <- cache <- player
+    private static final LoadPlan PLAN = LoadPlan.create(new DefaultModuleSorter().sortModules(
+            new DefaultModuleCandidateResolver().resolveCandidates(List.of(
+                    new LoadableModule(ConfigModule.class, ConfigModule::new),
+                    new LoadableModule(DatabaseModule.class, DatabaseModule::new),
+                    new LoadableModule(CacheModule.class, CacheModule::new),
+                    new LoadableModule(PlayerModule.class, PlayerModule::new)))));
+
+    @Test
+    void testCriticalPathFollowsSlowestBranch() {
+        StartupReport report = StartupReport.create(PLAN, Map.of("config", 10L, "database", 50L, "cache", 20L, "player", 5L));
+
+        assertEquals(List.of("config", "database", "player"), report.criticalPath());
+        assertEquals(65, report.criticalPathNanos());
+        assertEquals(85, report.totalNanos());
+        assertEquals(85.0 / 65.0, report.theoreticalSpeedup(), 0.0001);
+    }
+
+    @Test
+    void testBottleneckAccountsForOtherBranches() {
+        StartupReport report = StartupReport.create(PLAN, Map.of("config", 10L, "database", 50L, "cache", 20L, "player", 5L));
+
+        // Without the database, the cache branch becomes the critical path, so only 30 of its 50 are saved
+        StartupReport.ModuleTiming bottleneck = report.bottleneck();
+        assertNotNull(bottleneck);
+        assertEquals("database", bottleneck.name());
+        assertEquals(30, bottleneck.savingNanos());
+        assertEquals(0, this.timing(report, "cache").savingNanos());
+        assertEquals(60, this.timing(report, "player").startNanos());
+    }
+
+    @Test
+    void testJsonAndDotExport() {
+        StartupReport report = StartupReport.create(PLAN, Map.of("config", 1_000_000L));
+
+        String json = report.toJson();
+        assertTrue(json.startsWith("{\"totalNanos\":1000000,\"criticalPathNanos\":1000000,"));
+        assertTrue(json.contains("{\"name\":\"player\",\"dependencies\":[\"cache\",\"database\"],"));
+
+        String dot = report.toDot();
+        assertTrue(dot.startsWith("digraph modules {"));
+        assertTrue(dot.contains("\"config\" [label=\"config\\n1.0ms\", color=red, penwidth=2];"));
+        assertTrue(dot.contains("\"database\" -> \"player\""));
+    }
+
+    @Test
+    void testRecorderCountsOnlyLoadingAttempt() {
+        StartupRecorder recorder = new StartupRecorder();
+        ModuleData data = ModuleDataBuilder.builder("config").build();
+
+        // A failed attempt, then one that loads
+        recorder.onPhase(data, ModulePhase.CREATE, 10);
+        recorder.onFailure(data, ModulePhase.LOAD, null);
+        recorder.onPhase(data, ModulePhase.CREATE, 20);
+        recorder.onPhase(data, ModulePhase.LOAD, 30);
+        assertEquals(Map.of("config", 50L), recorder.durations());
+
+        // Loading the module again replaces its time
+        recorder.onPhase(data, ModulePhase.CREATE, 1);
+        recorder.onPhase(data, ModulePhase.LOAD, 2);
+        assertEquals(Map.of("config", 3L), recorder.durations());
+    }
+
+    @Test
+    void testRecorderMeasuresManagerStartup() {
+        StartupRecorder recorder = new StartupRecorder();
+        ModuleManager manager = ModuleManager.builder()
+                .listener(recorder)
+                .module(ConfigModule.class, ConfigModule::new)
+                .module(DatabaseModule.class, DatabaseModule::new)
+                .build();
+
+        StartupReport report = recorder.report(manager);
+        assertEquals(List.of("config", "database"), report.criticalPath());
+        assertEquals(Set.of("config", "database"), recorder.durations().keySet());
+        assertEquals(report.totalNanos(), report.criticalPathNanos());
+    }
+
+    private @NotNull StartupReport.ModuleTiming timing(@NotNull StartupReport report, @NotNull String name) {
+        return report.modules().stream().filter(module -> module.name().equals(name)).findFirst().orElseThrow();
+    }
+
+    @ModuleData(name = "config")
+    private static final class ConfigModule extends DummyModule {
+
+        ConfigModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "database", dependencies = {@Dependency(name = "config")})
+    private static final class DatabaseModule extends DummyModule {
+
+        DatabaseModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "cache", dependencies = {@Dependency(name = "config")})
+    private static final class CacheModule extends DummyModule {
+
+        CacheModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+
+    @ModuleData(name = "player", dependencies = {@Dependency(name = "database"), @Dependency(name = "cache")})
+    private static final class PlayerModule extends DummyModule {
+
+        PlayerModule(@NotNull ModuleEnvironment environment) {
+            super(environment);
+        }
+    }
+}